@@ -0,0 +1,57 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.service.AccountLockManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer throughput under the account locks: random transfers between a pool
+ * of accounts from 16 threads. One stripe behaves like a single global lock,
+ * which is what striping is measured against.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class AccountLockBenchmark {
+
+    @Param({ "1", "1024" })
+    public int stripes;
+
+    @Param({ "8", "1000" })
+    public int accounts;
+
+    private AccountLockManager lockManager;
+    // Plain, unsynchronized balances in cents: only the account locks protect them
+    private long[] balances;
+
+    @Setup
+    public void setUp() {
+        lockManager = new AccountLockManager(stripes);
+        balances = new long[accounts + 1];
+        for (int id = 1; id <= accounts; id++) {
+            balances[id] = 1_000_000;
+        }
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long from = random.nextInt(1, accounts + 1);
+        long to = random.nextInt(1, accounts + 1);
+        long amount = random.nextLong(1, 50_000);
+        return lockManager.executeLocked(from, to, () -> {
+            if (balances[(int) from] < amount) {
+                return false;
+            }
+            balances[(int) from] -= amount;
+            balances[(int) to] += amount;
+            return true;
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.service.AccountAmountStatsService;
+import com.bankapp.onlinebanking.service.VelocityTracker;
+import com.bankapp.onlinebanking.service.fraud.FraudAssessment;
+import com.bankapp.onlinebanking.service.fraud.FraudRuleRegistry;
+import com.bankapp.onlinebanking.service.fraud.RapidTransactionRule;
+import com.bankapp.onlinebanking.service.fraud.UnusualAmountRule;
+import com.bankapp.onlinebanking.service.fraud.UnusualLocationRule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One transfer through the fraud rule registry with the real rules at their
+ * default settings. Amount statistics come from an in-memory map and velocity
+ * from a standalone tracker, so no rule touches the database. About one
+ * transfer in eight is flagged, so short-circuit mode usually runs every rule.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FraudCheckBenchmark {
+
+    private static final int SENDERS = 1024;
+
+    @Param({ "SHORT_CIRCUIT", "SCORED" })
+    public FraudRuleRegistry.Mode mode;
+
+    private FraudRuleRegistry registry;
+    private Transaction[] transactions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        Map<Long, AccountAmountStatsService.Stats> stats = new HashMap<>();
+        VelocityTracker velocityTracker = new VelocityTracker(Duration.ofSeconds(5), Duration.ofHours(1),
+                System::currentTimeMillis);
+
+        transactions = new Transaction[SENDERS];
+        for (int i = 0; i < SENDERS; i++) {
+            long senderId = i + 1;
+            AccountAmountStatsService.Stats history = AccountAmountStatsService.Stats.EMPTY;
+            for (int n = 0; n < 20; n++) {
+                history = history.add(40 + random.nextInt(20), 0.1);
+            }
+            stats.put(senderId, history);
+            // Two recent transfers, one short of the rapid-transaction threshold
+            velocityTracker.record(senderId, 50, now - 60_000);
+            velocityTracker.record(senderId, 50, now - 30_000);
+
+            Account sender = new Account();
+            sender.setId(senderId);
+            sender.setLastLoginIp("10.0.0." + (i % 250));
+
+            Transaction transaction = new Transaction();
+            transaction.setSender(sender);
+            transaction.setIpAddress(sender.getLastLoginIp());
+            transaction.setAmount(45.0 + random.nextInt(10));
+            if (i % 8 == 0) {
+                transaction.setAmount(5_000.0);
+            }
+            transactions[i] = transaction;
+        }
+
+        AccountAmountStatsService statsService = new AccountAmountStatsService() {
+            @Override
+            public Stats getStats(Long accountId) {
+                return stats.getOrDefault(accountId, Stats.EMPTY);
+            }
+        };
+
+        UnusualAmountRule unusualAmount = new UnusualAmountRule();
+        ReflectionTestUtils.setField(unusualAmount, "accountAmountStatsService", statsService);
+        ReflectionTestUtils.setField(unusualAmount, "zThreshold", 3.0);
+        ReflectionTestUtils.setField(unusualAmount, "minSamples", 5L);
+        ReflectionTestUtils.setField(unusualAmount, "minDeviationRatio", 0.25);
+        ReflectionTestUtils.setField(unusualAmount, "weight", 1.0);
+
+        RapidTransactionRule rapidTransactions = new RapidTransactionRule();
+        ReflectionTestUtils.setField(rapidTransactions, "velocityTracker", velocityTracker);
+        ReflectionTestUtils.setField(rapidTransactions, "inMemoryVelocity", true);
+        ReflectionTestUtils.setField(rapidTransactions, "weight", 1.0);
+
+        UnusualLocationRule unusualLocation = new UnusualLocationRule();
+        ReflectionTestUtils.setField(unusualLocation, "weight", 1.0);
+
+        registry = new FraudRuleRegistry(List.of(unusualAmount, rapidTransactions, unusualLocation),
+                new SimpleMeterRegistry(), mode, 1.0, List.of());
+    }
+
+    @Benchmark
+    public FraudAssessment evaluate() {
+        next = (next + 1) & (SENDERS - 1);
+        return registry.evaluate(transactions[next]);
+    }
+}
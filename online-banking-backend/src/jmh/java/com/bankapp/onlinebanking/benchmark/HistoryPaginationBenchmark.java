@@ -0,0 +1,168 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deep page of one account's history: OFFSET paging plus the count query that
+ * backs Page<Transaction>, against a keyset seek on (timestamp, id) with no
+ * count, both over the sender-OR-recipient filter, and the keyset seek through
+ * account_entries that the repository now uses. It runs on in-memory H2, so
+ * absolute numbers are lower than on a networked database but the ratio holds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class HistoryPaginationBenchmark {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final int PAGE_SIZE = 20;
+    private static final String COLUMNS = "id, sender_id, recipient_id, amount, timestamp, status, description";
+    private static final String ACCOUNT_FILTER = "(sender_id = ? OR recipient_id = ?)";
+
+    @Param({ "1000000" })
+    public int rows;
+
+    @Param({ "1", "1000" })
+    public int page;
+
+    private Connection connection;
+    private PreparedStatement offsetPage;
+    private PreparedStatement countQuery;
+    private PreparedStatement keysetPage;
+    private PreparedStatement entriesKeysetPage;
+    private Timestamp cursorTimestamp;
+    private long cursorId;
+
+    @Setup
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:history" + rows);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE transactions (id BIGINT PRIMARY KEY, sender_id BIGINT, recipient_id BIGINT, "
+                    + "amount DOUBLE, timestamp TIMESTAMP, status VARCHAR(50), description VARCHAR(255))");
+            ddl.execute("CREATE INDEX idx_transactions_sender_timestamp ON transactions(sender_id, timestamp)");
+            ddl.execute("CREATE INDEX idx_transactions_recipient_timestamp ON transactions(recipient_id, timestamp, id)");
+            ddl.execute("CREATE TABLE account_entries (id BIGINT PRIMARY KEY, account_id BIGINT, txn_id BIGINT, "
+                    + "timestamp TIMESTAMP, amount DOUBLE, category VARCHAR(50))");
+            ddl.execute("CREATE INDEX idx_account_entries_account_timestamp "
+                    + "ON account_entries(account_id, timestamp, txn_id)");
+        }
+
+        LocalDateTime start = LocalDateTime.now().minusYears(5);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO transactions (" + COLUMNS
+                + ") VALUES (?, ?, ?, ?, ?, 'COMPLETED', 'Payment')")) {
+            for (int i = 1; i <= rows; i++) {
+                // Alternate sides so both halves of the OR are exercised
+                boolean outgoing = i % 2 == 0;
+                insert.setLong(1, i);
+                insert.setLong(2, outgoing ? ACCOUNT_ID : 2L);
+                insert.setLong(3, outgoing ? 2L : ACCOUNT_ID);
+                insert.setDouble(4, 10.0 + i % 100);
+                insert.setTimestamp(5, Timestamp.valueOf(start.plusSeconds(i * 60L)));
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        try (Statement backfill = connection.createStatement()) {
+            backfill.execute("INSERT INTO account_entries SELECT id * 2, sender_id, id, timestamp, -amount, NULL "
+                    + "FROM transactions");
+            backfill.execute("INSERT INTO account_entries SELECT id * 2 + 1, recipient_id, id, timestamp, amount, NULL "
+                    + "FROM transactions");
+        }
+
+        offsetPage = connection.prepareStatement("SELECT " + COLUMNS + " FROM transactions WHERE " + ACCOUNT_FILTER
+                + " ORDER BY timestamp DESC LIMIT ? OFFSET ?");
+        countQuery = connection.prepareStatement("SELECT COUNT(*) FROM transactions WHERE " + ACCOUNT_FILTER);
+        keysetPage = connection.prepareStatement("SELECT " + COLUMNS + " FROM transactions WHERE " + ACCOUNT_FILTER
+                + " AND (timestamp < ? OR (timestamp = ? AND id < ?)) ORDER BY timestamp DESC, id DESC LIMIT ?");
+
+        entriesKeysetPage = connection.prepareStatement("SELECT t.id, t.sender_id, t.recipient_id, t.amount, "
+                + "t.timestamp, t.status, t.description FROM account_entries e JOIN transactions t ON t.id = e.txn_id "
+                + "WHERE e.account_id = ? AND (e.timestamp < ? OR (e.timestamp = ? AND e.txn_id < ?)) "
+                + "ORDER BY e.timestamp DESC, e.txn_id DESC LIMIT ?");
+
+        // The cursor a client would hold after reading the previous pages
+        if (page > 1) {
+            try (PreparedStatement previous = connection.prepareStatement("SELECT timestamp, id FROM transactions "
+                    + "WHERE " + ACCOUNT_FILTER + " ORDER BY timestamp DESC, id DESC LIMIT 1 OFFSET ?")) {
+                previous.setLong(1, ACCOUNT_ID);
+                previous.setLong(2, ACCOUNT_ID);
+                previous.setInt(3, (page - 1) * PAGE_SIZE - 1);
+                try (ResultSet rs = previous.executeQuery()) {
+                    rs.next();
+                    cursorTimestamp = rs.getTimestamp(1);
+                    cursorId = rs.getLong(2);
+                }
+            }
+        } else {
+            cursorTimestamp = Timestamp.valueOf(LocalDateTime.now().plusYears(100));
+            cursorId = Long.MAX_VALUE;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Benchmark
+    public void offsetWithCount(Blackhole blackhole) throws Exception {
+        offsetPage.setLong(1, ACCOUNT_ID);
+        offsetPage.setLong(2, ACCOUNT_ID);
+        offsetPage.setInt(3, PAGE_SIZE);
+        offsetPage.setInt(4, (page - 1) * PAGE_SIZE);
+        consume(offsetPage, blackhole);
+
+        countQuery.setLong(1, ACCOUNT_ID);
+        countQuery.setLong(2, ACCOUNT_ID);
+        consume(countQuery, blackhole);
+    }
+
+    @Benchmark
+    public void keysetSeek(Blackhole blackhole) throws Exception {
+        keysetPage.setLong(1, ACCOUNT_ID);
+        keysetPage.setLong(2, ACCOUNT_ID);
+        keysetPage.setTimestamp(3, cursorTimestamp);
+        keysetPage.setTimestamp(4, cursorTimestamp);
+        keysetPage.setLong(5, cursorId);
+        // One extra row tells the caller whether there is a next page
+        keysetPage.setInt(6, PAGE_SIZE + 1);
+        consume(keysetPage, blackhole);
+    }
+
+    @Benchmark
+    public void entriesKeysetSeek(Blackhole blackhole) throws Exception {
+        entriesKeysetPage.setLong(1, ACCOUNT_ID);
+        entriesKeysetPage.setTimestamp(2, cursorTimestamp);
+        entriesKeysetPage.setTimestamp(3, cursorTimestamp);
+        entriesKeysetPage.setLong(4, cursorId);
+        entriesKeysetPage.setInt(5, PAGE_SIZE + 1);
+        consume(entriesKeysetPage, blackhole);
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws Exception {
+        try (ResultSet rs = statement.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int c = 1; c <= columns; c++) {
+                    blackhole.consume(rs.getObject(c));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.security.JwtAuthenticationFilter;
+import com.bankapp.onlinebanking.security.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through JwtAuthenticationFilter, with the
+ * verified-token cache disabled (every request parses and verifies the HMAC)
+ * and enabled. User lookup is an in-memory stub, so only the JWT work differs.
+ * parseToken measures JwtService alone; with cacheSize 0 that is the raw parse
+ * and signature check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    @Param({ "0", "10000" })
+    public int cacheSize;
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private String token;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+        jwtService = new JwtService(secret, 3_600_000, cacheSize, System::currentTimeMillis);
+        UserDetails user = User.withUsername("alice").password("x").authorities("USER").build();
+        filter = new JwtAuthenticationFilter(jwtService, username -> user);
+        token = jwtService.generateToken(user);
+        authorization = "Bearer " + token;
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtService.parseToken(token);
+    }
+
+    @Benchmark
+    public Object authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transactions/account/1");
+        request.addHeader("Authorization", authorization);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+}
@@ -0,0 +1,96 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.security.PasswordHasher;
+import com.bankapp.onlinebanking.service.AccountLockManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A login burst running next to transfers. "direct" hashes on the calling
+ * thread, as logins used to on Tomcat's workers; "pooled" goes through
+ * {@link PasswordHasher}. Compare the transfer latency percentiles, and the
+ * login rate from the accepted and rejected counters.
+ *
+ * Transfers are the in-memory part of the path (account locks and balance
+ * updates) without the database, so the difference is CPU contention only.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class LoginThroughputBenchmark {
+
+    private static final int ACCOUNTS = 64;
+
+    @Param({ "direct", "pooled" })
+    public String hashing;
+
+    @Param({ "10" })
+    public int bcryptCost;
+
+    private BCryptPasswordEncoder encoder;
+    private PasswordHasher hasher;
+    private String storedHash;
+    private AccountLockManager lockManager;
+    private long[] balances;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class LoginCounters {
+        public long accepted;
+        public long rejected;
+    }
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(bcryptCost);
+        storedHash = encoder.encode("correct horse battery staple");
+        hasher = new PasswordHasher(encoder, 0, 64, Duration.ofSeconds(5));
+        lockManager = new AccountLockManager(1024);
+        balances = new long[ACCOUNTS];
+        Arrays.fill(balances, 1_000_000L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    @Group("loginBurst")
+    @GroupThreads(16)
+    public boolean login(LoginCounters counters) {
+        try {
+            boolean matches = "direct".equals(hashing)
+                    ? encoder.matches("correct horse battery staple", storedHash)
+                    : hasher.matches("correct horse battery staple", storedHash);
+            counters.accepted++;
+            return matches;
+        } catch (RejectedExecutionException e) {
+            counters.rejected++;
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Group("loginBurst")
+    @GroupThreads(2)
+    public Object transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long from = random.nextInt(ACCOUNTS);
+        long to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        return lockManager.executeLocked(from, to, () -> {
+            balances[(int) from] -= 100;
+            balances[(int) to] += 100;
+            return balances[(int) to];
+        });
+    }
+}
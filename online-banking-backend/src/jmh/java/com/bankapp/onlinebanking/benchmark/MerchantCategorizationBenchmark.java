@@ -0,0 +1,85 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.service.categorization.CategoryRule;
+import com.bankapp.onlinebanking.service.categorization.MerchantAutomaton;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Categorizing one description against dictionaries of 10, 1k and 50k merchant
+ * keywords: the automaton against a scan that lower-cases the description and
+ * calls contains for every keyword, as the hard-coded map used to. Half of the
+ * descriptions contain a keyword.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MerchantCategorizationBenchmark {
+
+    private static final String[] CATEGORIES = { "GROCERIES", "DINING", "GAS", "SHOPPING", "ENTERTAINMENT" };
+
+    @Param({ "10", "1000", "50000" })
+    public int patterns;
+
+    private List<CategoryRule> rules;
+    private MerchantAutomaton automaton;
+    private String[] descriptions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rules = new ArrayList<>(patterns);
+        for (int i = 0; i < patterns; i++) {
+            rules.add(new CategoryRule(word(random, 5 + random.nextInt(8)), CATEGORIES[i % CATEGORIES.length],
+                    random.nextInt(100)));
+        }
+        automaton = MerchantAutomaton.build(rules);
+
+        descriptions = new String[1024];
+        for (int i = 0; i < descriptions.length; i++) {
+            String merchant = i % 2 == 0
+                    ? rules.get(random.nextInt(patterns)).keyword().toUpperCase()
+                    : word(random, 8);
+            descriptions[i] = "POS PURCHASE " + merchant + " #" + random.nextInt(10_000) + " CARD 4821";
+        }
+    }
+
+    @Benchmark
+    public String automaton() {
+        CategoryRule rule = automaton.match(nextDescription());
+        return rule != null ? rule.category() : "OTHER";
+    }
+
+    @Benchmark
+    public String containsScan() {
+        String description = nextDescription().toLowerCase();
+        CategoryRule found = null;
+        for (CategoryRule rule : rules) {
+            if (description.contains(rule.keyword()) && (found == null || rule.priority() > found.priority())) {
+                found = rule;
+            }
+        }
+        return found != null ? found.category() : "OTHER";
+    }
+
+    private String nextDescription() {
+        next = (next + 1) & (descriptions.length - 1);
+        return descriptions[next];
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
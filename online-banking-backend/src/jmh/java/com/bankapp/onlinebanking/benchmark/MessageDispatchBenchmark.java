@@ -0,0 +1,56 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.service.dispatch.FakeMessageProvider;
+import com.bankapp.onlinebanking.service.dispatch.MessageDispatcher;
+import com.bankapp.onlinebanking.service.dispatch.OutboundMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end email dispatch through a fake provider that takes 20 ms per call:
+ * time per message from submit until the provider has accepted it, with 4
+ * workers at two batch sizes. Rate limiting is off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(MessageDispatchBenchmark.MESSAGES)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageDispatchBenchmark {
+
+    static final int MESSAGES = 2_000;
+
+    @Param({ "10", "50" })
+    public int batchSize;
+
+    private MessageDispatcher dispatcher;
+
+    @Setup
+    public void setUp() {
+        FakeMessageProvider provider = new FakeMessageProvider("email", Duration.ofMillis(20), 0.0);
+        dispatcher = new MessageDispatcher("benchmark", provider, new MessageDispatcher.Settings(
+                MESSAGES * 2, 4, batchSize, 0, 10, 5, Duration.ofMillis(10), 5, Duration.ofMillis(100)));
+        dispatcher.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    @Benchmark
+    public long dispatch() throws InterruptedException {
+        long target = dispatcher.getSentCount() + MESSAGES;
+        for (int i = 0; i < MESSAGES; i++) {
+            dispatcher.submit(new OutboundMessage("user" + i + "@example.com", "Subject", "Body"));
+        }
+        while (dispatcher.getSentCount() < target) {
+            Thread.sleep(1);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,85 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.service.export.ExportFormat;
+import com.bankapp.onlinebanking.service.export.ExportRow;
+import com.bankapp.onlinebanking.service.export.ExportRowWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a whole export through the CSV and JSON row writers into a discarding
+ * stream, so only formatting and encoding are measured. Rows are built up
+ * front; the JDBC read is not part of it. Roughly one description in eight
+ * needs CSV quoting.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TransactionExportBenchmark {
+
+    private static final String[] MERCHANTS = { "Walmart", "Starbucks", "Shell", "Netflix", "Amazon", "Uber",
+            "Whole Foods", "Target" };
+
+    @Param({ "10000", "100000" })
+    public int rows;
+
+    @Param({ "CSV", "JSON" })
+    public ExportFormat format;
+
+    private List<ExportRow> data;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String merchant = MERCHANTS[random.nextInt(MERCHANTS.length)];
+            String description = i % 8 == 0 ? merchant + ", store \"" + i + "\"" : merchant + " purchase " + i;
+            data.add(new ExportRow(
+                    start.plusMinutes(i * 7L),
+                    description,
+                    BigDecimal.valueOf(random.nextInt(100_000), 2),
+                    "TRANSFER",
+                    "SHOPPING",
+                    "COMPLETED",
+                    "TXN" + Integer.toHexString(0x10000000 + i).toUpperCase()));
+        }
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        ExportRowWriter writer = format.open(out);
+        for (ExportRow row : data) {
+            writer.write(row);
+        }
+        writer.finish();
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
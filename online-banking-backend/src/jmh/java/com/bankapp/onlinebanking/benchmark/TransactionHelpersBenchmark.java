@@ -0,0 +1,66 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.service.MerchantNames;
+import com.bankapp.onlinebanking.service.ReferenceNumbers;
+import com.bankapp.onlinebanking.service.categorization.MerchantCategorizer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-transaction helpers createTransaction runs before any database work:
+ * categorization against the shipped merchant dictionary, merchant name
+ * extraction and reference number generation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionHelpersBenchmark {
+
+    private static final String[] DESCRIPTIONS = {
+            "Walmart Supercenter #4821",
+            "POS PURCHASE STARBUCKS STORE 1123 SEATTLE WA",
+            "Monthly rent payment",
+            "Shell Oil 57442 fuel",
+            "NETFLIX.COM subscription",
+            "Transfer to savings",
+            "AMAZON MKTPLACE PMTS AMZN.COM/BILL",
+            "Dinner with friends at Olive Garden",
+    };
+
+    private MerchantCategorizer merchantCategorizer;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        merchantCategorizer = new MerchantCategorizer();
+        ReflectionTestUtils.setField(merchantCategorizer, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(merchantCategorizer, "dictionaryLocation",
+                "classpath:categorization/merchant-categories.csv");
+        merchantCategorizer.init();
+    }
+
+    @Benchmark
+    public String autoCategorizeTransaction() {
+        return merchantCategorizer.categorize(nextDescription());
+    }
+
+    @Benchmark
+    public String extractMerchantName() {
+        return MerchantNames.extract(nextDescription());
+    }
+
+    @Benchmark
+    public String generateReferenceNumber() {
+        return ReferenceNumbers.generate();
+    }
+
+    private String nextDescription() {
+        return DESCRIPTIONS[next++ & (DESCRIPTIONS.length - 1)];
+    }
+}
@@ -0,0 +1,173 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.repository.AccountEntryRepository;
+import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.repository.TransactionRepository;
+import com.bankapp.onlinebanking.service.AccountAmountStatsService;
+import com.bankapp.onlinebanking.service.AccountLockManager;
+import com.bankapp.onlinebanking.service.AccountRollupService;
+import com.bankapp.onlinebanking.service.FraudDetectionService;
+import com.bankapp.onlinebanking.service.NotificationService;
+import com.bankapp.onlinebanking.service.PartitionedTransferExecutor;
+import com.bankapp.onlinebanking.service.RecurringPaymentIndex;
+import com.bankapp.onlinebanking.service.TransactionService;
+import com.bankapp.onlinebanking.service.TransferMetrics;
+import com.bankapp.onlinebanking.service.VelocityTracker;
+import com.bankapp.onlinebanking.service.categorization.MerchantCategorizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * TransactionService.createTransaction from 16 threads, through the locked path
+ * and through the partitioned executor (4 partitions). Repositories are
+ * in-memory stubs and every database commit costs a fixed 200 µs, which is what
+ * the partitions' group commit amortizes. With 8 accounts most transfers
+ * contend; with 1000 they rarely do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class TransferPathBenchmark {
+
+    private static final long COMMIT_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Param({ "locked", "partitioned" })
+    public String path;
+
+    @Param({ "8", "1000" })
+    public int accounts;
+
+    private final Map<Long, Account> accountsById = new ConcurrentHashMap<>();
+    private final AtomicLong transactionIds = new AtomicLong();
+    private PartitionedTransferExecutor executor;
+    private TransactionService service;
+
+    @Setup
+    public void setUp() {
+        for (long id = 1; id <= accounts; id++) {
+            Account account = new Account("Holder " + id, 1_000_000.0);
+            account.setId(id);
+            accountsById.put(id, account);
+        }
+
+        AccountRepository accountRepository = stub(AccountRepository.class);
+        when(accountRepository.findById(anyLong()))
+                .thenAnswer(inv -> Optional.ofNullable(accountsById.get(inv.<Long>getArgument(0))));
+        when(accountRepository.findAllById(any())).thenAnswer(inv -> {
+            List<Account> found = new ArrayList<>();
+            for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+                found.add(accountsById.get(id));
+            }
+            return found;
+        });
+        when(accountRepository.save(any(Account.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(accountRepository.saveAll(any())).thenAnswer(inv -> {
+            List<Account> saved = new ArrayList<>();
+            inv.<Iterable<Account>>getArgument(0).forEach(saved::add);
+            return saved;
+        });
+
+        TransactionRepository transactionRepository = stub(TransactionRepository.class);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> store(inv.getArgument(0)));
+        when(transactionRepository.saveAll(any())).thenAnswer(inv -> {
+            List<Transaction> saved = new ArrayList<>();
+            for (Transaction transaction : inv.<Iterable<Transaction>>getArgument(0)) {
+                saved.add(store(transaction));
+            }
+            return saved;
+        });
+
+        AccountLockManager lockManager = new AccountLockManager(1024);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new FixedCommitCostTransactionManager());
+        executor = new PartitionedTransferExecutor(accountRepository, transactionRepository, transactionTemplate,
+                lockManager, "partitioned".equals(path), 4, 64, 10_000);
+        executor.start();
+
+        service = new TransactionService();
+        ReflectionTestUtils.setField(service, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(service, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(service, "accountEntryRepository", stub(AccountEntryRepository.class));
+        ReflectionTestUtils.setField(service, "fraudDetectionService", stub(FraudDetectionService.class));
+        ReflectionTestUtils.setField(service, "notificationService", stub(NotificationService.class));
+        ReflectionTestUtils.setField(service, "accountLockManager", lockManager);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "partitionedTransferExecutor", executor);
+        ReflectionTestUtils.setField(service, "velocityTracker", stub(VelocityTracker.class));
+        ReflectionTestUtils.setField(service, "accountAmountStatsService", stub(AccountAmountStatsService.class));
+        ReflectionTestUtils.setField(service, "accountRollupService", stub(AccountRollupService.class));
+        ReflectionTestUtils.setField(service, "merchantCategorizer", stub(MerchantCategorizer.class));
+        ReflectionTestUtils.setField(service, "recurringPaymentIndex", stub(RecurringPaymentIndex.class));
+        ReflectionTestUtils.setField(service, "transferMetrics", new TransferMetrics(new SimpleMeterRegistry()));
+        service.init();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.stop();
+    }
+
+    @Benchmark
+    public Transaction transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long from = random.nextInt(1, accounts + 1);
+        long to = (from - 1 + random.nextInt(1, accounts)) % accounts + 1;
+        return service.createTransaction(accountsById.get(from), accountsById.get(to),
+                (double) random.nextInt(1, 100), "TRANSFER", "Benchmark transfer");
+    }
+
+    private Transaction store(Transaction transaction) {
+        if (transaction.getId() == null) {
+            transaction.setId(transactionIds.incrementAndGet());
+        }
+        return transaction;
+    }
+
+    // Stub-only mocks keep no invocation history, which would otherwise grow for the whole run
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private static final class FixedCommitCostTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            LockSupport.parkNanos(COMMIT_NANOS);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.bankapp.onlinebanking.benchmark;
+
+import com.bankapp.onlinebanking.service.VelocityTracker;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rapid-successive-transaction check: the repository-style query that loads the
+ * sender's rows from the last five minutes, against the in-memory velocity tracker.
+ * The query runs on in-memory H2, so it understates the cost of a networked
+ * database and of materializing JPA entities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VelocityCheckBenchmark {
+
+    private static final long SENDER_ID = 1L;
+    private static final Duration WINDOW = Duration.ofMinutes(5);
+
+    @Param({ "10", "1000" })
+    public int recentTransactions;
+
+    private Connection connection;
+    private PreparedStatement recentBySender;
+    private VelocityTracker tracker;
+
+    @Setup
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:velocity" + recentTransactions);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE transactions (id BIGINT AUTO_INCREMENT PRIMARY KEY, sender_id BIGINT, "
+                    + "recipient_id BIGINT, amount DECIMAL(19,2), timestamp TIMESTAMP, status VARCHAR(50), "
+                    + "description TEXT, transaction_type VARCHAR(50), reference_number VARCHAR(100))");
+            ddl.execute("CREATE INDEX idx_transactions_sender_timestamp ON transactions(sender_id, timestamp)");
+        }
+
+        tracker = new VelocityTracker(Duration.ofSeconds(5), Duration.ofHours(1), System::currentTimeMillis);
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO transactions "
+                + "(sender_id, recipient_id, amount, timestamp, status, description, transaction_type, "
+                + "reference_number) VALUES (?, 2, ?, ?, 'COMPLETED', 'Coffee at Starbucks', 'TRANSFER', ?)")) {
+            for (int i = 0; i < recentTransactions; i++) {
+                // Spread over the last four minutes so every row is inside the window
+                LocalDateTime at = now.minusNanos(TimeUnit.MILLISECONDS.toNanos(i * 240_000L / recentTransactions));
+                insert.setLong(1, SENDER_ID);
+                insert.setDouble(2, 4.5);
+                insert.setTimestamp(3, Timestamp.valueOf(at));
+                insert.setString(4, "TXN" + i);
+                insert.addBatch();
+                tracker.record(SENDER_ID, 4.5, Timestamp.valueOf(at).getTime());
+            }
+            insert.executeBatch();
+        }
+
+        recentBySender = connection.prepareStatement(
+                "SELECT * FROM transactions WHERE sender_id = ? AND timestamp > ?");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean repositoryCheck() throws Exception {
+        recentBySender.setLong(1, SENDER_ID);
+        recentBySender.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now().minus(WINDOW)));
+        List<Object[]> rows = new ArrayList<>();
+        try (ResultSet rs = recentBySender.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                Object[] row = new Object[columns];
+                for (int c = 0; c < columns; c++) {
+                    row[c] = rs.getObject(c + 1);
+                }
+                rows.add(row);
+            }
+        }
+        return rows.size() >= 3;
+    }
+
+    @Benchmark
+    public boolean inMemoryCheck() {
+        return tracker.getCount(SENDER_ID, WINDOW) >= 3;
+    }
+}
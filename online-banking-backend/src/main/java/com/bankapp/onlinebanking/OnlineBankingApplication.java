@@ -1,7 +1,9 @@
 package com.bankapp.onlinebanking;
 
+import com.bankapp.onlinebanking.task.FraudBacktestRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
@@ -9,6 +11,12 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 public class OnlineBankingApplication {
 
 	public static void main(String[] args) throws InterruptedException {
-		SpringApplication.run(OnlineBankingApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(OnlineBankingApplication.class, args);
+
+		// Batch mode: the back-test has run during startup, so shut down with its exit code
+		FraudBacktestRunner backtest = context.getBeanProvider(FraudBacktestRunner.class).getIfAvailable();
+		if (backtest != null && backtest.isExitWhenDone()) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.bankapp.onlinebanking.config;
+
+import com.bankapp.onlinebanking.service.dispatch.FakeMessageProvider;
+import com.bankapp.onlinebanking.service.dispatch.LoggingMessageProvider;
+import com.bankapp.onlinebanking.service.dispatch.MessageDispatcher;
+import com.bankapp.onlinebanking.service.dispatch.MessageProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Email and SMS dispatchers. Every setting lives under app.dispatch.email.* or
+ * app.dispatch.sms.*; provider=fake switches a channel to the fake provider
+ * with fake.latency-ms and fake.failure-rate, for offline load testing.
+ */
+@Configuration
+public class DispatchConfig {
+
+    @Bean(destroyMethod = "stop")
+    public MessageDispatcher emailDispatcher(Environment environment) {
+        // Email gateways generally accept bulk sends
+        return dispatcher(environment, "email", 50, 50.0);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public MessageDispatcher smsDispatcher(Environment environment) {
+        return dispatcher(environment, "sms", 1, 10.0);
+    }
+
+    private MessageDispatcher dispatcher(Environment environment, String channel, int defaultBatchSize,
+            double defaultRate) {
+        String prefix = "app.dispatch." + channel + ".";
+
+        MessageProvider provider;
+        if ("fake".equals(environment.getProperty(prefix + "provider", "logging"))) {
+            provider = new FakeMessageProvider(channel,
+                    Duration.ofMillis(environment.getProperty(prefix + "fake.latency-ms", Long.class, 50L)),
+                    environment.getProperty(prefix + "fake.failure-rate", Double.class, 0.0));
+        } else {
+            provider = new LoggingMessageProvider(channel);
+        }
+
+        MessageDispatcher.Settings settings = new MessageDispatcher.Settings(
+                environment.getProperty(prefix + "queue-capacity", Integer.class, 10_000),
+                environment.getProperty(prefix + "workers", Integer.class, 4),
+                environment.getProperty(prefix + "batch-size", Integer.class, defaultBatchSize),
+                environment.getProperty(prefix + "rate-per-second", Double.class, defaultRate),
+                environment.getProperty(prefix + "burst", Integer.class, 100),
+                environment.getProperty(prefix + "max-attempts", Integer.class, 5),
+                Duration.ofMillis(environment.getProperty(prefix + "initial-backoff-ms", Long.class, 200L)),
+                environment.getProperty(prefix + "breaker.failure-threshold", Integer.class, 5),
+                Duration.ofMillis(environment.getProperty(prefix + "breaker.open-ms", Long.class, 30_000L)));
+
+        MessageDispatcher dispatcher = new MessageDispatcher(channel, provider, settings);
+        dispatcher.start();
+        return dispatcher;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bankapp.onlinebanking.config;
+
+import com.bankapp.onlinebanking.security.PasswordHasher;
+import com.bankapp.onlinebanking.service.PartitionedTransferExecutor;
+import com.bankapp.onlinebanking.service.dispatch.MessageDispatcher;
+import com.bankapp.onlinebanking.service.export.ExportJobService;
+import com.bankapp.onlinebanking.task.NotificationOutboxRelay;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Supplier;
+
+/**
+ * Depth of every in-process work queue, as the work.queue.depth gauge tagged
+ * with the queue name.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder workQueueDepthMetrics(PartitionedTransferExecutor partitionedTransferExecutor,
+            NotificationOutboxRelay notificationOutboxRelay,
+            @Qualifier("emailDispatcher") MessageDispatcher emailDispatcher,
+            @Qualifier("smsDispatcher") MessageDispatcher smsDispatcher,
+            PasswordHasher passwordHasher,
+            ExportJobService exportJobService) {
+        return registry -> {
+            register(registry, "transfer-partitions", partitionedTransferExecutor::getQueueDepth);
+            register(registry, "notification-outbox", notificationOutboxRelay::getQueueDepth);
+            register(registry, "email-dispatch", emailDispatcher::getQueueDepth);
+            register(registry, "sms-dispatch", smsDispatcher::getQueueDepth);
+            register(registry, "password-hashing", passwordHasher::getQueueDepth);
+            register(registry, "export-jobs", exportJobService::getQueueDepth);
+        };
+    }
+
+    private static void register(MeterRegistry registry, String queue, Supplier<Number> depth) {
+        Gauge.builder("work.queue.depth", depth)
+                .description("Tasks waiting in an in-process queue")
+                .tag("queue", queue)
+                .register(registry);
+    }
+}
@@ -3,9 +3,11 @@ package com.bankapp.onlinebanking.controller;
 import com.bankapp.onlinebanking.entity.Account;
 import com.bankapp.onlinebanking.service.AccountService;
 import com.bankapp.onlinebanking.service.NotificationService;
+import com.bankapp.onlinebanking.service.TooManyLoginAttemptsException;
 import jakarta.servlet.http.HttpServletRequest;
 import com.bankapp.onlinebanking.repository.AccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -41,8 +44,12 @@ public class AccountController {
         if (accountService.accountExists(account.getUsername())) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         }
-        Account saveAccount = accountService.createAccount(account);
-        return new ResponseEntity<>(saveAccount, HttpStatus.CREATED);
+        try {
+            Account saveAccount = accountService.createAccount(account);
+            return new ResponseEntity<>(saveAccount, HttpStatus.CREATED);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
     }
 
     @PostMapping("/login")
@@ -51,7 +58,7 @@ public class AccountController {
         String password = credentials.get("password");
 
         try {
-            Account account = accountService.login(username, password);
+            Account account = accountService.login(username, password, request.getRemoteAddr());
 
             // Record login info
             account.setLastLoginIp(request.getRemoteAddr());
@@ -67,6 +74,12 @@ public class AccountController {
                     "INFO");
 
             return new ResponseEntity<>(account, HttpStatus.OK);
+        } catch (RejectedExecutionException e) {
+            // Password hashing is saturated; the credentials were not checked
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (TooManyLoginAttemptsException e) {
+            // Too many recent failures for this username or address
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "60").build();
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
@@ -0,0 +1,156 @@
+package com.bankapp.onlinebanking.controller;
+
+import com.bankapp.onlinebanking.service.AccountNotFoundException;
+import com.bankapp.onlinebanking.service.export.ByteRange;
+import com.bankapp.onlinebanking.service.export.ExportFormat;
+import com.bankapp.onlinebanking.service.export.ExportJob;
+import com.bankapp.onlinebanking.service.export.ExportJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+// Background exports: submit a job, poll it, then download the spooled file (resumable with Range)
+@RestController
+@RequestMapping("/api/transactions/account/{accountId}/export-jobs")
+public class ExportJobController {
+
+    // Tomcat's NIO connector sends files straight from the page cache when these request attributes are set
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submitExportJob(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        try {
+            ExportJob job = exportJobService.submit(accountId, startDate, endDate, ExportFormat.of(format));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(toResponse(job));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Export queue is full, try again later"));
+        } catch (AccountNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<Map<String, Object>> getExportJob(@PathVariable Long accountId, @PathVariable String jobId) {
+        return exportJobService.getJob(accountId, jobId)
+                .map(job -> ResponseEntity.ok(toResponse(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{jobId}/download")
+    public void downloadExport(@PathVariable Long accountId, @PathVariable String jobId,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<ExportJob> found = exportJobService.getJob(accountId, jobId);
+        if (found.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (found.get().getStatus() != ExportJob.Status.COMPLETED) {
+            response.sendError(HttpStatus.CONFLICT.value(), "Export is " + found.get().getStatus());
+            return;
+        }
+        // The lease keeps TTL cleanup away from the file while it is being sent
+        Optional<ExportJob> leased = exportJobService.startDownload(accountId, jobId);
+        if (leased.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        ExportJob job = leased.get();
+
+        try (FileChannel file = FileChannel.open(job.getFile(), StandardOpenOption.READ)) {
+            long size = file.size();
+            String etag = "\"" + job.getId() + "\"";
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+
+            ByteRange range;
+            try {
+                // A stale If-Range validator means the client's partial copy is of something else
+                range = ifRange == null || ifRange.equals(etag)
+                        ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size)
+                        : null;
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            long start = range != null ? range.start() : 0;
+            long length = range != null ? range.length() : size;
+
+            response.setContentType(job.getFormat().getContentType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"" + job.getFormat().getFileName() + "\"");
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setContentLengthLong(length);
+            if (range != null) {
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(size));
+            }
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, job.getFile().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + length);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                position += file.transferTo(position, end - position, out);
+            }
+        } finally {
+            exportJobService.endDownload(job);
+        }
+    }
+
+    private Map<String, Object> toResponse(ExportJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
+        response.put("format", job.getFormat());
+        response.put("createdAt", job.getCreatedAt());
+        response.put("finishedAt", job.getFinishedAt());
+        if (job.getStatus() == ExportJob.Status.COMPLETED) {
+            response.put("rows", job.getRows());
+            response.put("sizeBytes", job.getSizeBytes());
+            response.put("downloadUrl",
+                    "/api/transactions/account/" + job.getAccountId() + "/export-jobs/" + job.getId() + "/download");
+        }
+        if (job.getError() != null) {
+            response.put("error", job.getError());
+        }
+        return response;
+    }
+}
@@ -3,7 +3,7 @@ package com.bankapp.onlinebanking.controller;
 import com.bankapp.onlinebanking.entity.Account;
 import com.bankapp.onlinebanking.entity.NotificationPreference;
 import com.bankapp.onlinebanking.repository.AccountRepository;
-import com.bankapp.onlinebanking.repository.NotificationPreferenceRepository;
+import com.bankapp.onlinebanking.service.NotificationPreferenceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,7 +13,7 @@ import org.springframework.web.bind.annotation.*;
 public class NotificationPreferenceController {
 
     @Autowired
-    private NotificationPreferenceRepository preferenceRepository;
+    private NotificationPreferenceService notificationPreferenceService;
 
     @Autowired
     private AccountRepository accountRepository;
@@ -23,14 +23,7 @@ public class NotificationPreferenceController {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
-        NotificationPreference preferences = preferenceRepository.findByAccount(account)
-                .orElseGet(() -> {
-                    NotificationPreference newPrefs = new NotificationPreference();
-                    newPrefs.setAccount(account);
-                    return preferenceRepository.save(newPrefs);
-                });
-
-        return ResponseEntity.ok(preferences);
+        return ResponseEntity.ok(notificationPreferenceService.getPreferences(account));
     }
 
     @PutMapping("/{accountId}")
@@ -41,28 +34,7 @@ public class NotificationPreferenceController {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
-        NotificationPreference existingPrefs = preferenceRepository.findByAccount(account)
-                .orElseGet(() -> {
-                    NotificationPreference newPrefs = new NotificationPreference();
-                    newPrefs.setAccount(account);
-                    return newPrefs;
-                });
-
-        // Update preferences
-        existingPrefs.setEnableRealTimeNotifications(preferences.getEnableRealTimeNotifications());
-        existingPrefs.setEnableEmailNotifications(preferences.getEnableEmailNotifications());
-        existingPrefs.setEmailForTransactions(preferences.getEmailForTransactions());
-        existingPrefs.setEmailForSecurity(preferences.getEmailForSecurity());
-        existingPrefs.setEmailForSystem(preferences.getEmailForSystem());
-        existingPrefs.setEmailTransactionThreshold(preferences.getEmailTransactionThreshold());
-        existingPrefs.setEnableSmsNotifications(preferences.getEnableSmsNotifications());
-        existingPrefs.setSmsForTransactions(preferences.getSmsForTransactions());
-        existingPrefs.setSmsForSecurity(preferences.getSmsForSecurity());
-        existingPrefs.setSmsForSystem(preferences.getSmsForSystem());
-        existingPrefs.setSmsTransactionThreshold(preferences.getSmsTransactionThreshold());
-
-        existingPrefs = preferenceRepository.save(existingPrefs);
-
-        return ResponseEntity.ok(existingPrefs);
+        // Write-through: the cached copy is replaced once the update commits
+        return ResponseEntity.ok(notificationPreferenceService.updatePreferences(account, preferences));
     }
 }
\ No newline at end of file
@@ -2,9 +2,15 @@ package com.bankapp.onlinebanking.controller;
 
 import com.bankapp.onlinebanking.entity.Account;
 import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.model.BulkTransferItem;
 import com.bankapp.onlinebanking.repository.AccountRepository;
 import com.bankapp.onlinebanking.repository.TransactionRepository;
 import com.bankapp.onlinebanking.service.TransactionService;
+import com.bankapp.onlinebanking.service.AccountNotFoundException;
+import com.bankapp.onlinebanking.service.SuspiciousTransferException;
+import com.bankapp.onlinebanking.service.export.ExportFormat;
+import com.bankapp.onlinebanking.service.export.TransactionExportService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -13,11 +19,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -26,16 +35,22 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionExportService transactionExportService;
+
     @Autowired
     private TransactionRepository transactionRepository;
 
     @Autowired
     private AccountRepository accountRepository;
 
+    // Passing cursor (empty for the first page) switches to keyset paging, which returns
+    // content, hasNext and nextCursor instead of a Page and skips the count query
     @GetMapping("/account/{accountId}")
-    public ResponseEntity<Page<Transaction>> getTransactionsByAccount(
+    public ResponseEntity<?> getTransactionsByAccount(
             @PathVariable Long accountId,
             Pageable pageable,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String status,
@@ -45,12 +60,37 @@ public class TransactionController {
             @RequestParam(required = false) Double minAmount,
             @RequestParam(required = false) Double maxAmount) {
 
+        if (cursor != null) {
+            return ResponseEntity.ok(transactionService.getTransactionsByAccountAfterCursor(
+                    accountId, cursor, pageable.getPageSize(), search, type, status, category,
+                    startDate, endDate, minAmount, maxAmount));
+        }
+
         Page<Transaction> transactions = transactionService.getTransactionsByAccountWithFilters(
                 accountId, pageable, search, type, status, category, startDate, endDate, minAmount, maxAmount);
 
         return ResponseEntity.ok(transactions);
     }
 
+    @PostMapping("/account/{accountId}/bulk-transfer")
+    public ResponseEntity<Map<String, Object>> createBulkTransfer(
+            @PathVariable Long accountId,
+            @RequestBody List<BulkTransferItem> transfers,
+            HttpServletRequest request) {
+        try {
+            Map<String, Object> summary = transactionService.createBulkTransfer(
+                    accountId, transfers, request.getRemoteAddr());
+            return ResponseEntity.ok(summary);
+        } catch (AccountNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (SuspiciousTransferException e) {
+            // Nothing was moved; the account holder has already been alerted
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Transaction> getTransactionById(@PathVariable Long id) {
         Transaction transaction = transactionService.getTransactionById(id);
@@ -75,29 +115,42 @@ public class TransactionController {
         return ResponseEntity.ok(transaction);
     }
 
+    // Streams rows as they are read; gzip-encoded when the client accepts it
     @GetMapping("/account/{accountId}/export")
-    public ResponseEntity<byte[]> exportTransactions(
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
             @PathVariable Long accountId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
-            @RequestParam(defaultValue = "csv") String format) {
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
+        ExportFormat exportFormat = ExportFormat.of(format);
+        TransactionExportService.TransactionExport export;
         try {
-            byte[] exportData = transactionService.exportTransactions(accountId, startDate, endDate, format);
+            export = transactionExportService.prepareExport(accountId, startDate, endDate, exportFormat);
+        } catch (AccountNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            if ("csv".equalsIgnoreCase(format)) {
-                headers.setContentType(MediaType.parseMediaType("text/csv"));
-                headers.setContentDispositionFormData("attachment", "transactions.csv");
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(exportFormat.getContentType()));
+        headers.setContentDispositionFormData("attachment", exportFormat.getFileName());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(StreamUtils.nonClosing(out), 8192);
+                export.writeTo(compressed);
+                compressed.finish();
             } else {
-                headers.setContentType(MediaType.APPLICATION_JSON);
-                headers.setContentDispositionFormData("attachment", "transactions.json");
+                export.writeTo(out);
             }
-
-            return new ResponseEntity<>(exportData, headers, HttpStatus.OK);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @GetMapping("/account/{accountId}/recurring")
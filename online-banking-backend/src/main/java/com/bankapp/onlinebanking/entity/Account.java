@@ -56,8 +56,6 @@ public class Account {
     private Boolean twoFactorEnabled = false;
     private String phoneNumber;
     private String email;
-    private String twoFactorSecret;
-    private LocalDateTime secretExpiry;
 
     // Session tracking
     private String lastLoginIp;
@@ -161,22 +159,6 @@ public class Account {
         this.lastLoginIp = lastLoginIp;
     }
 
-    public String getTwoFactorSecret() {
-        return twoFactorSecret;
-    }
-
-    public void setTwoFactorSecret(String twoFactorSecret) {
-        this.twoFactorSecret = twoFactorSecret;
-    }
-
-    public LocalDateTime getSecretExpiry() {
-        return secretExpiry;
-    }
-
-    public void setSecretExpiry(LocalDateTime secretExpiry) {
-        this.secretExpiry = secretExpiry;
-    }
-
     public String getEmail() {
         return email;
     }
@@ -0,0 +1,20 @@
+package com.bankapp.onlinebanking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Running statistics of an account's completed outgoing amounts (Welford), used by fraud detection
+@Entity
+@Table(name = "account_amount_stats")
+@Data
+public class AccountAmountStats {
+    @Id
+    private Long accountId;
+
+    private Long sampleCount = 0L;
+    private Double mean = 0.0;
+    private Double m2 = 0.0; // Sum of squared deviations from the mean
+    private Double decayedMean = 0.0; // Exponentially weighted mean, favours recent amounts
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.bankapp.onlinebanking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// One side of a transaction as seen from one account; history queries seek on (accountId, timestamp)
+@Entity
+@Table(name = "account_entries")
+@Data
+public class AccountEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "account_entry_id")
+    @TableGenerator(name = "account_entry_id", table = "id_generators", pkColumnName = "gen_name",
+            valueColumnName = "gen_val", pkColumnValue = "account_entries", allocationSize = 50)
+    private Long id;
+
+    private Long accountId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "txn_id")
+    private Transaction transaction;
+
+    private LocalDateTime timestamp;
+    private Double amount; // Negative for the sender's entry, positive for the recipient's
+    private String category;
+    private boolean booked = true; // False when the transaction did not move this account's balance
+}
@@ -0,0 +1,26 @@
+package com.bankapp.onlinebanking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+// Pre-aggregated account entries for one account, month and category; analytics read these instead of raw history
+@Entity
+@Table(name = "account_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "period", "category"}))
+@Data
+public class AccountRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long accountId;
+    private Integer period; // yyyyMM
+    private String category = ""; // Empty for uncategorized entries
+
+    private Long entryCount = 0L;
+    private BigDecimal totalAmount = BigDecimal.ZERO; // Sum of absolute amounts, both directions
+    private Long outgoingCount = 0L;
+    private BigDecimal outgoingAmount = BigDecimal.ZERO;
+}
@@ -29,4 +29,12 @@ public class Notification {
     // Optional additional data as JSON
     @Column(columnDefinition = "TEXT")
     private String additionalData;
+
+    // Outbox delivery state: PENDING, PROCESSING, SENT, FAILED
+    private String deliveryStatus = "PENDING";
+    private Integer deliveryAttempts = 0;
+    // Set after a failed attempt; the relay leaves the row alone until then
+    private LocalDateTime nextAttemptAt;
+    // Comma-separated channels already delivered: WEBSOCKET, EMAIL, SMS
+    private String deliveredChannels;
 }
@@ -8,8 +8,11 @@ import java.time.LocalDateTime;
 @Table(name = "transactions")
 @Data
 public class Transaction {
+    // Pooled table generator rather than IDENTITY, so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "transaction_id")
+    @TableGenerator(name = "transaction_id", table = "id_generators", pkColumnName = "gen_name",
+            valueColumnName = "gen_val", pkColumnValue = "transactions", allocationSize = 50)
     private Long id;
 
     @ManyToOne
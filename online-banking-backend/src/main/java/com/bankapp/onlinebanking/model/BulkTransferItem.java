@@ -0,0 +1,11 @@
+package com.bankapp.onlinebanking.model;
+
+import lombok.Data;
+
+// One payment of a bulk transfer request
+@Data
+public class BulkTransferItem {
+    private Long toAccountId;
+    private Double amount;
+    private String description;
+}
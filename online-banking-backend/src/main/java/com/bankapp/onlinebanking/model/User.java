@@ -1,11 +1,13 @@
 package com.bankapp.onlinebanking.model;
 
+import com.bankapp.onlinebanking.security.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Data
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
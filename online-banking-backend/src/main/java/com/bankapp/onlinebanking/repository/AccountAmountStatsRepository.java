@@ -0,0 +1,9 @@
+package com.bankapp.onlinebanking.repository;
+
+import com.bankapp.onlinebanking.entity.AccountAmountStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountAmountStatsRepository extends JpaRepository<AccountAmountStats, Long> {
+}
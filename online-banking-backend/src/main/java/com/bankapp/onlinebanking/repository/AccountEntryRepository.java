@@ -0,0 +1,88 @@
+package com.bankapp.onlinebanking.repository;
+
+import com.bankapp.onlinebanking.entity.AccountEntry;
+import com.bankapp.onlinebanking.entity.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Account-side access path for history and analytics; every query starts from
+// idx_account_entries_account_timestamp instead of OR-ing sender and recipient
+@Repository
+public interface AccountEntryRepository extends JpaRepository<AccountEntry, Long> {
+
+    String HISTORY_FILTERS =
+            "AND (:search IS NULL OR LOWER(t.description) LIKE LOWER(CONCAT('%', :search, '%')) " +
+            "OR LOWER(t.merchantName) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "AND (:type IS NULL OR t.transactionType = :type) " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:category IS NULL OR e.category = :category) " +
+            "AND (:startDate IS NULL OR e.timestamp >= :startDate) " +
+            "AND (:endDate IS NULL OR e.timestamp <= :endDate) " +
+            "AND (:minAmount IS NULL OR t.amount >= :minAmount) " +
+            "AND (:maxAmount IS NULL OR t.amount <= :maxAmount) ";
+
+    // Query methods for transaction history
+    @Query(value = "SELECT t FROM AccountEntry e JOIN e.transaction t WHERE e.accountId = :accountId " +
+            HISTORY_FILTERS +
+            "ORDER BY e.timestamp DESC, t.id DESC",
+            countQuery = "SELECT COUNT(e) FROM AccountEntry e JOIN e.transaction t WHERE e.accountId = :accountId " +
+                    HISTORY_FILTERS)
+    Page<Transaction> findTransactionsWithFilters(
+            @Param("accountId") Long accountId,
+            @Param("search") String search,
+            @Param("type") String type,
+            @Param("status") String status,
+            @Param("category") String category,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("minAmount") Double minAmount,
+            @Param("maxAmount") Double maxAmount,
+            Pageable pageable);
+
+    // Keyset variant of the history query: seeks past the cursor on (timestamp, id) instead of
+    // skipping OFFSET rows, and returns a Slice so no count query is issued
+    @Query("SELECT t FROM AccountEntry e JOIN e.transaction t WHERE e.accountId = :accountId " +
+            "AND (:cursorTimestamp IS NULL OR e.timestamp < :cursorTimestamp " +
+            "OR (e.timestamp = :cursorTimestamp AND t.id < :cursorId)) " +
+            HISTORY_FILTERS +
+            "ORDER BY e.timestamp DESC, t.id DESC")
+    Slice<Transaction> findTransactionsWithFiltersAfter(
+            @Param("accountId") Long accountId,
+            @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+            @Param("cursorId") Long cursorId,
+            @Param("search") String search,
+            @Param("type") String type,
+            @Param("status") String status,
+            @Param("category") String category,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("minAmount") Double minAmount,
+            @Param("maxAmount") Double maxAmount,
+            Pageable pageable);
+
+    // Raw-entry counterpart of the rollups, for the partial months at the edges of an analytics range
+    @Query("SELECT YEAR(e.timestamp) * 100 + MONTH(e.timestamp), e.category, COUNT(e), SUM(ABS(e.amount)), " +
+            "SUM(CASE WHEN e.amount < 0 THEN 1 ELSE 0 END), SUM(CASE WHEN e.amount < 0 THEN -e.amount ELSE 0 END) " +
+            "FROM AccountEntry e " +
+            "WHERE e.accountId = :accountId AND e.booked = true " +
+            "AND e.timestamp >= :from AND e.timestamp < :to " +
+            "GROUP BY YEAR(e.timestamp) * 100 + MONTH(e.timestamp), e.category")
+    List<Object[]> summarizeByMonthAndCategory(
+            @Param("accountId") Long accountId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    List<AccountEntry> findByTransactionId(Long transactionId);
+
+    @Modifying
+    @Query("UPDATE AccountEntry e SET e.category = :category WHERE e.transaction.id = :transactionId")
+    int updateCategory(@Param("transactionId") Long transactionId, @Param("category") String category);
+}
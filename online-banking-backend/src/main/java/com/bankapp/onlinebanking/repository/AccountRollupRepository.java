@@ -0,0 +1,53 @@
+package com.bankapp.onlinebanking.repository;
+
+import com.bankapp.onlinebanking.entity.AccountRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface AccountRollupRepository extends JpaRepository<AccountRollup, Long> {
+
+    List<AccountRollup> findByAccountIdAndPeriodBetween(Long accountId, Integer fromPeriod, Integer toPeriod);
+
+    // One atomic statement on uk_account_rollups: inserts the first row of a month and category, or
+    // increments it in place, so concurrent writers neither lose an update nor fail on the unique key.
+    // MySQL syntax; H2 accepts it in MySQL mode.
+    @Modifying
+    @Query(value = "INSERT INTO account_rollups " +
+            "(account_id, period, category, entry_count, total_amount, outgoing_count, outgoing_amount) " +
+            "VALUES (:accountId, :period, :category, :entryCount, :totalAmount, :outgoingCount, :outgoingAmount) " +
+            "ON DUPLICATE KEY UPDATE entry_count = entry_count + :entryCount, " +
+            "total_amount = total_amount + :totalAmount, " +
+            "outgoing_count = outgoing_count + :outgoingCount, " +
+            "outgoing_amount = outgoing_amount + :outgoingAmount",
+            nativeQuery = true)
+    int upsert(@Param("accountId") Long accountId,
+            @Param("period") Integer period,
+            @Param("category") String category,
+            @Param("entryCount") long entryCount,
+            @Param("totalAmount") BigDecimal totalAmount,
+            @Param("outgoingCount") long outgoingCount,
+            @Param("outgoingAmount") BigDecimal outgoingAmount);
+
+    @Modifying
+    @Query("DELETE FROM AccountRollup r WHERE r.accountId = :accountId")
+    int deleteByAccount(@Param("accountId") Long accountId);
+
+    // Same aggregation as V12 seeds the table with, over booked entries only
+    @Modifying
+    @Query(value = "INSERT INTO account_rollups " +
+            "(account_id, period, category, entry_count, total_amount, outgoing_count, outgoing_amount) " +
+            "SELECT account_id, YEAR(timestamp) * 100 + MONTH(timestamp), COALESCE(category, ''), " +
+            "COUNT(*), SUM(ABS(amount)), " +
+            "SUM(CASE WHEN amount < 0 THEN 1 ELSE 0 END), SUM(CASE WHEN amount < 0 THEN -amount ELSE 0 END) " +
+            "FROM account_entries WHERE account_id = :accountId AND booked = TRUE AND timestamp IS NOT NULL " +
+            "GROUP BY account_id, YEAR(timestamp) * 100 + MONTH(timestamp), COALESCE(category, '')",
+            nativeQuery = true)
+    int rebuildForAccount(@Param("accountId") Long accountId);
+}
@@ -2,8 +2,14 @@ package com.bankapp.onlinebanking.repository;
 
 import com.bankapp.onlinebanking.entity.Account;
 import com.bankapp.onlinebanking.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,4 +19,27 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByAccountAndIsReadFalseOrderByTimestampDesc(Account account);
 
     long countByAccountAndIsReadFalse(Account account);
+
+    // Outbox relay queries
+    @Query("SELECT n FROM Notification n WHERE n.deliveryStatus = :deliveryStatus "
+            + "AND (n.nextAttemptAt IS NULL OR n.nextAttemptAt <= :now) ORDER BY n.id ASC")
+    List<Notification> findDue(@Param("deliveryStatus") String deliveryStatus, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.deliveryStatus = :to WHERE n.deliveryStatus = :from")
+    int updateDeliveryStatus(@Param("from") String from, @Param("to") String to);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.deliveryStatus = :to WHERE n.id IN :ids AND n.deliveryStatus = :from")
+    int updateDeliveryStatus(@Param("ids") List<Long> ids, @Param("from") String from, @Param("to") String to);
+
+    // Writes only the delivery columns, so a concurrent markAsRead is never overwritten
+    @Modifying
+    @Query("UPDATE Notification n SET n.deliveryStatus = :deliveryStatus, n.deliveryAttempts = :deliveryAttempts, "
+            + "n.nextAttemptAt = :nextAttemptAt, n.deliveredChannels = :deliveredChannels WHERE n.id = :id")
+    int updateDelivery(@Param("id") Long id, @Param("deliveryStatus") String deliveryStatus,
+            @Param("deliveryAttempts") Integer deliveryAttempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("deliveredChannels") String deliveredChannels);
 }
@@ -2,28 +2,114 @@ package com.bankapp.onlinebanking.security;
 
 import com.bankapp.onlinebanking.model.User;
 import com.bankapp.onlinebanking.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Loads users for the JWT filter through a short-lived, bounded cache, so an
+ * authenticated request does not cost a user query.
+ *
+ * Changes to a user saved through JPA evict its entry (see
+ * {@link UserCacheEvictionListener}); the TTL bounds staleness for anything
+ * else, such as changes made by another instance. Unknown usernames are not cached.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CustomUserDetailsService(UserRepository userRepository,
+            @Value("${app.security.user-cache.ttl:60s}") Duration ttl,
+            @Value("${app.security.user-cache.size:10000}") int maxEntries) {
+        this(userRepository, ttl, maxEntries, System::currentTimeMillis);
+    }
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    CustomUserDetailsService(UserRepository userRepository, Duration ttl, int maxEntries, LongSupplier clock) {
         this.userRepository = userRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        long now = clock.getAsLong();
+        CachedUser cached = cache.get(username);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.userDetails;
+        }
+
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-        return org.springframework.security.core.userdetails.User
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
                 .withUsername(user.getUsername())
                 .password(user.getPassword())
                 .authorities("USER")
                 .build();
+        if (maxEntries > 0) {
+            cache.put(username, new CachedUser(userDetails, now + ttlMillis));
+            if (cache.size() > maxEntries) {
+                evictOverflow(now);
+            }
+        }
+        return userDetails;
+    }
+
+    /**
+     * Drops the cached user now and, inside a transaction, again after it
+     * completes, so a load that raced with the change cannot keep the old copy.
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        cache.remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.remove(username);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        cache.clear();
+    }
+
+    public int getCachedUserCount() {
+        return cache.size();
+    }
+
+    private synchronized void evictOverflow(long now) {
+        cache.values().removeIf(cached -> cached.expiresAt <= now);
+        // Trim to 90% so a full cache does not scan on every load
+        int target = maxEntries - maxEntries / 10;
+        if (cache.size() > target) {
+            cache.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(a.getValue().expiresAt, b.getValue().expiresAt))
+                    .limit(cache.size() - target)
+                    .toList()
+                    .forEach(entry -> cache.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private record CachedUser(UserDetails userDetails, long expiresAt) {
     }
-} 
\ No newline at end of file
+}
@@ -1,19 +1,43 @@
 package com.bankapp.onlinebanking.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
+/**
+ * Issues and verifies HS256 tokens. The signing key and parser are built once.
+ *
+ * Verified claims are cached by the SHA-256 of the token until the token's
+ * expiry, so a client reusing its token is verified once rather than on every
+ * request. Only tokens that passed signature and expiry checks are cached, and
+ * the raw token is never kept. A cache size of zero disables the cache.
+ *
+ * Issued tokens carry the user's authorities. With
+ * app.jwt.authorities-in-claims enabled the filter builds the principal from
+ * them and skips the user lookup, at the cost of password and status changes
+ * only taking effect once the token expires.
+ */
 @Service
 public class JwtService {
 
@@ -23,52 +47,157 @@ public class JwtService {
     @Value("${app.jwt-expiration-milliseconds}")
     private long jwtExpiration;
 
+    @Value("${app.jwt.claims-cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${app.jwt.authorities-in-claims:false}")
+    private boolean authoritiesInClaims;
+
+    static final String AUTHORITIES_CLAIM = "authorities";
+
+    private Key signInKey;
+    private JwtParser parser;
+    private MessageDigest sha256;
+    private LongSupplier clock = System::currentTimeMillis;
+    private final ConcurrentHashMap<String, CachedClaims> verified = new ConcurrentHashMap<>();
+
+    public JwtService() {
+    }
+
+    // Standalone service, for tests and benchmarks
+    public JwtService(String secretKey, long jwtExpiration, int cacheSize, LongSupplier clock) {
+        this.secretKey = secretKey;
+        this.jwtExpiration = jwtExpiration;
+        this.cacheSize = cacheSize;
+        this.clock = clock;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        signInKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .setClock(() -> new Date(clock.getAsLong()))
+                .build();
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Verifies the token and returns its claims, from the cache when this token
+     * was verified before. The returned claims are shared and must not be modified.
+     *
+     * @throws io.jsonwebtoken.JwtException when the token is malformed, forged or expired
+     */
+    public Claims parseToken(String token) {
+        if (cacheSize <= 0) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+
+        String key = hash(token);
+        long now = clock.getAsLong();
+        CachedClaims cached = verified.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.claims;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        // Tokens without an expiry are verified every time rather than cached forever
+        if (claims.getExpiration() != null) {
+            verified.put(key, new CachedClaims(claims, claims.getExpiration().getTime()));
+            if (verified.size() > cacheSize) {
+                evictOverflow(now);
+            }
+        }
+        return claims;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(parseToken(token));
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(AUTHORITIES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        long now = clock.getAsLong();
         return Jwts.builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtExpiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
+    }
+
+    // For claims already returned by parseToken, so the token is not parsed again
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject())
+                && (claims.getExpiration() == null || claims.getExpiration().getTime() > clock.getAsLong());
+    }
+
+    /**
+     * The principal described by verified claims, or null when authorities are
+     * not trusted from claims or the token does not carry them.
+     */
+    public UserDetails userDetailsFromClaims(Claims claims) {
+        if (!authoritiesInClaims || !(claims.get(AUTHORITIES_CLAIM) instanceof List<?> authorities)) {
+            return null;
+        }
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .authorities(authorities.stream().map(String::valueOf).toArray(String[]::new))
+                .build();
+    }
+
+    void setAuthoritiesInClaims(boolean authoritiesInClaims) {
+        this.authoritiesInClaims = authoritiesInClaims;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public int getCachedTokenCount() {
+        return verified.size();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private String hash(String token) {
+        MessageDigest digest;
+        try {
+            digest = (MessageDigest) sha256.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private synchronized void evictOverflow(long now) {
+        verified.values().removeIf(cached -> cached.expiresAt <= now);
+        // Trim to 90% so a full cache does not scan on every insert
+        int target = cacheSize - cacheSize / 10;
+        if (verified.size() > target) {
+            verified.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(a.getValue().expiresAt, b.getValue().expiresAt))
+                    .limit(verified.size() - target)
+                    .toList()
+                    .forEach(entry -> verified.remove(entry.getKey(), entry.getValue()));
+        }
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = java.util.Base64.getDecoder().decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private record CachedClaims(Claims claims, long expiresAt) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,205 @@
+package com.bankapp.onlinebanking.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process sliding-window counts of failed logins per username and per client
+ * IP, consulted before the account is loaded or the password is hashed.
+ *
+ * Each key has a small ring of time buckets covering the window (15 minutes by
+ * default, in 15 buckets). Keys are spread over lock stripes, and each stripe
+ * holds a bounded number of keys, dropping the least recently failed one when
+ * full, so an attack with many usernames or addresses cannot grow the tracker
+ * without limit.
+ *
+ * The counts are per instance and are lost on restart; only the resulting
+ * account lock is persisted, by the caller.
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private static final int STRIPES = 64;
+    private static final int BUCKETS = 15;
+
+    public enum Decision {
+        ALLOWED, USERNAME_BLOCKED, IP_BLOCKED
+    }
+
+    private final int usernameMaxFailures;
+    private final int ipMaxFailures;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final Stripes usernames;
+    private final Stripes addresses;
+
+    @Autowired
+    public LoginAttemptTracker(
+            @Value("${app.security.login.username-max-failures:5}") int usernameMaxFailures,
+            @Value("${app.security.login.ip-max-failures:50}") int ipMaxFailures,
+            @Value("${app.security.login.window:15m}") Duration window,
+            @Value("${app.security.login.max-tracked-keys:100000}") int maxTrackedKeys) {
+        this(usernameMaxFailures, ipMaxFailures, window, maxTrackedKeys, System::currentTimeMillis);
+    }
+
+    LoginAttemptTracker(int usernameMaxFailures, int ipMaxFailures, Duration window, int maxTrackedKeys,
+            LongSupplier clock) {
+        if (usernameMaxFailures < 1 || ipMaxFailures < 1 || window.toMillis() < BUCKETS) {
+            throw new IllegalArgumentException("Login failure limits and window must be positive");
+        }
+        this.usernameMaxFailures = usernameMaxFailures;
+        this.ipMaxFailures = ipMaxFailures;
+        this.bucketMillis = window.toMillis() / BUCKETS;
+        this.clock = clock;
+        int keysPerStripe = Math.max(1, maxTrackedKeys / STRIPES);
+        this.usernames = new Stripes(keysPerStripe);
+        this.addresses = new Stripes(keysPerStripe);
+    }
+
+    public Decision check(String username, String clientIp) {
+        long epoch = Math.floorDiv(clock.getAsLong(), bucketMillis);
+        if (clientIp != null && addresses.count(clientIp, epoch) >= ipMaxFailures) {
+            return Decision.IP_BLOCKED;
+        }
+        if (username != null && usernames.count(username, epoch) >= usernameMaxFailures) {
+            return Decision.USERNAME_BLOCKED;
+        }
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * Counts a failed login against the username and the address.
+     *
+     * @return the username's failures inside the window, including this one
+     */
+    public int recordFailure(String username, String clientIp) {
+        long epoch = Math.floorDiv(clock.getAsLong(), bucketMillis);
+        if (clientIp != null) {
+            addresses.increment(clientIp, epoch);
+        }
+        return username != null ? usernames.increment(username, epoch) : 0;
+    }
+
+    // The address keeps its count, so a valid login cannot mask spraying from the same address
+    public void recordSuccess(String username) {
+        if (username != null) {
+            usernames.clear(username);
+        }
+    }
+
+    public int getUsernameMaxFailures() {
+        return usernameMaxFailures;
+    }
+
+    public int getTrackedKeys() {
+        return usernames.size() + addresses.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.login.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long epoch = Math.floorDiv(clock.getAsLong(), bucketMillis);
+        usernames.evictExpired(epoch);
+        addresses.evictExpired(epoch);
+    }
+
+    private static final class Stripes {
+        private final Map<String, Window>[] stripes;
+
+        @SuppressWarnings("unchecked")
+        Stripes(int keysPerStripe) {
+            stripes = new Map[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                // Access order, so the eldest entry is the least recently failed key
+                stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+                        return size() > keysPerStripe;
+                    }
+                };
+            }
+        }
+
+        int count(String key, long epoch) {
+            Map<String, Window> stripe = stripe(key);
+            synchronized (stripe) {
+                Window window = stripe.get(key);
+                return window != null ? window.count(epoch) : 0;
+            }
+        }
+
+        int increment(String key, long epoch) {
+            Map<String, Window> stripe = stripe(key);
+            synchronized (stripe) {
+                return stripe.computeIfAbsent(key, k -> new Window()).increment(epoch);
+            }
+        }
+
+        void clear(String key) {
+            Map<String, Window> stripe = stripe(key);
+            synchronized (stripe) {
+                stripe.remove(key);
+            }
+        }
+
+        void evictExpired(long epoch) {
+            for (Map<String, Window> stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.values().removeIf(window -> window.count(epoch) == 0);
+                }
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Map<String, Window> stripe : stripes) {
+                synchronized (stripe) {
+                    size += stripe.size();
+                }
+            }
+            return size;
+        }
+
+        private Map<String, Window> stripe(String key) {
+            int hash = key.hashCode();
+            return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        }
+    }
+
+    // Guarded by its stripe
+    private static final class Window {
+        final long[] epochs = new long[BUCKETS];
+        final int[] counts = new int[BUCKETS];
+
+        Window() {
+            Arrays.fill(epochs, Long.MIN_VALUE);
+        }
+
+        int increment(long epoch) {
+            int slot = (int) Math.floorMod(epoch, (long) BUCKETS);
+            if (epochs[slot] != epoch) {
+                epochs[slot] = epoch;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+            return count(epoch);
+        }
+
+        int count(long epoch) {
+            int total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (epochs[i] > epoch - BUCKETS && epochs[i] <= epoch) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
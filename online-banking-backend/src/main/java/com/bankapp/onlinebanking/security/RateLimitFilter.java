@@ -0,0 +1,155 @@
+package com.bankapp.onlinebanking.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiting per client IP and, once the JWT filter has run, per
+ * authenticated user. Each request costs one token unless its route has a
+ * configured cost, so the expensive analytics and export endpoints use up a
+ * client's allowance faster.
+ *
+ * Route costs are given as "pattern=cost" pairs separated by commas, with Ant
+ * patterns matched against the request path; the first match wins.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final RateLimiter userLimiter;
+    private final RateLimiter ipLimiter;
+    private final Map<String, Integer> routeCosts;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Counter admitted;
+    private final Counter rejectedByUser;
+    private final Counter rejectedByIp;
+
+    @Autowired
+    public RateLimitFilter(MeterRegistry meterRegistry,
+            @Value("${app.ratelimit.enabled:true}") boolean enabled,
+            @Value("${app.ratelimit.user.rate-per-second:20}") double userRate,
+            @Value("${app.ratelimit.user.burst:60}") int userBurst,
+            @Value("${app.ratelimit.ip.rate-per-second:50}") double ipRate,
+            @Value("${app.ratelimit.ip.burst:150}") int ipBurst,
+            @Value("${app.ratelimit.max-keys:100000}") int maxKeys,
+            @Value("${app.ratelimit.route-costs:/api/transactions/account/*/analytics=10,"
+                    + "/api/transactions/account/*/categories=5,/api/transactions/account/*/export=20,"
+                    + "/api/transactions/account/*/export-jobs=20}") String routeCosts) {
+        this(meterRegistry, enabled, new RateLimiter(userRate, userBurst, maxKeys),
+                new RateLimiter(ipRate, ipBurst, maxKeys), parseRouteCosts(routeCosts));
+    }
+
+    RateLimitFilter(MeterRegistry meterRegistry, boolean enabled, RateLimiter userLimiter, RateLimiter ipLimiter,
+            Map<String, Integer> routeCosts) {
+        this.enabled = enabled;
+        this.userLimiter = userLimiter;
+        this.ipLimiter = ipLimiter;
+        this.routeCosts = routeCosts;
+        this.admitted = Counter.builder("http.ratelimit.requests")
+                .tag("result", "admitted")
+                .register(meterRegistry);
+        this.rejectedByUser = Counter.builder("http.ratelimit.requests")
+                .tag("result", "rejected")
+                .tag("limit", "user")
+                .register(meterRegistry);
+        this.rejectedByIp = Counter.builder("http.ratelimit.requests")
+                .tag("result", "rejected")
+                .tag("limit", "ip")
+                .register(meterRegistry);
+        Gauge.builder("http.ratelimit.buckets", () -> userLimiter.size() + ipLimiter.size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // CORS preflights are answered by the framework and cost nothing
+        return !enabled || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        int cost = costOf(request.getRequestURI().substring(request.getContextPath().length()));
+
+        long waitNanos = ipLimiter.tryAcquire(request.getRemoteAddr(), cost);
+        if (waitNanos > 0) {
+            rejectedByIp.increment();
+            reject(response, waitNanos);
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            waitNanos = userLimiter.tryAcquire(authentication.getName(), cost);
+            if (waitNanos > 0) {
+                rejectedByUser.increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        admitted.increment();
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        userLimiter.evictIdle();
+        ipLimiter.evictIdle();
+    }
+
+    private int costOf(String path) {
+        for (Map.Entry<String, Integer> route : routeCosts.entrySet()) {
+            if (pathMatcher.match(route.getKey(), path)) {
+                return route.getValue();
+            }
+        }
+        return 1;
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, try again later\"}");
+    }
+
+    static Map<String, Integer> parseRouteCosts(String spec) {
+        Map<String, Integer> costs = new LinkedHashMap<>();
+        for (String pair : spec.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            int separator = pair.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Route cost must be pattern=cost: " + pair);
+            }
+            costs.put(pair.substring(0, separator).trim(), Integer.parseInt(pair.substring(separator + 1).trim()));
+        }
+        return costs;
+    }
+}
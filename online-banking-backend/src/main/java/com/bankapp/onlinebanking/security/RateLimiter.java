@@ -0,0 +1,93 @@
+package com.bankapp.onlinebanking.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token buckets, one per client key, in a bounded map.
+ *
+ * Each bucket is a single atomic "theoretical arrival time" (the GCRA form of a
+ * token bucket): admitting a request pushes it forward by the request's cost in
+ * emission intervals, and a request is rejected when that would put it more
+ * than the burst ahead of now. Admission is a CAS, with no locks.
+ *
+ * A bucket whose arrival time is in the past is full, so dropping it loses
+ * nothing; those are the ones evicted when idle or when the map is over its bound.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int burst;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(double ratePerSecond, int burst, int maxKeys) {
+        this(ratePerSecond, burst, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(double ratePerSecond, int burst, int maxKeys, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0 || burst < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("Rate, burst and key limit must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burst = burst;
+        this.burstNanos = intervalNanos * burst;
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes cost tokens from the key's bucket if it has them. Costs above the
+     * burst are charged as the whole burst.
+     *
+     * @return zero when admitted, otherwise the nanoseconds until the request would be
+     */
+    public long tryAcquire(String key, int cost) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            if (buckets.size() > maxKeys) {
+                evictOverflow(now);
+            }
+        }
+
+        long increment = intervalNanos * Math.min(Math.max(cost, 1), burst);
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + increment;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private synchronized void evictOverflow(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+        // Trim to 90% so a full map does not scan on every new key
+        int target = maxKeys - maxKeys / 10;
+        if (buckets.size() > target) {
+            buckets.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(a.getValue().get(), b.getValue().get()))
+                    .limit(buckets.size() - target)
+                    .toList()
+                    .forEach(entry -> buckets.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+}
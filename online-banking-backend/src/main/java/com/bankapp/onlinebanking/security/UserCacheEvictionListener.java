@@ -0,0 +1,28 @@
+package com.bankapp.onlinebanking.security;
+
+import com.bankapp.onlinebanking.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts a user from the {@link CustomUserDetailsService} cache whenever the
+ * user row is updated (password change, status change) or deleted.
+ */
+@Component
+public class UserCacheEvictionListener {
+
+    // Looked up lazily: the listener is created while the entity manager factory is still being built
+    private final ObjectProvider<CustomUserDetailsService> userDetailsService;
+
+    public UserCacheEvictionListener(ObjectProvider<CustomUserDetailsService> userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userDetailsService.ifAvailable(service -> service.evict(user.getUsername()));
+    }
+}
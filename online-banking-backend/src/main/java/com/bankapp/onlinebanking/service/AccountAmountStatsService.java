@@ -0,0 +1,129 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.AccountAmountStats;
+import com.bankapp.onlinebanking.repository.AccountAmountStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-account running statistics of completed outgoing amounts, so the
+ * unusual-amount fraud rule no longer aggregates the sender's whole history on
+ * every transfer.
+ *
+ * Count, mean and variance are maintained with Welford's algorithm, alongside
+ * an exponentially decayed mean. Each completed transfer updates the stored row
+ * in its own transaction; reads are served from a bounded LRU cache whose entry
+ * for an account is dropped whenever that transaction rolls back. Rows are
+ * loaded outside the cache lock, so a slow query never blocks other accounts.
+ */
+@Service
+public class AccountAmountStatsService {
+
+    @Autowired
+    private AccountAmountStatsRepository statsRepository;
+
+    // Weight of the newest amount in the decayed mean
+    @Value("${app.fraud.amount.decay:0.1}")
+    private double decay;
+
+    @Value("${app.fraud.amount.cache-size:10000}")
+    private int maxEntries;
+
+    // Access-ordered, so the least recently used account is evicted first; guarded by itself
+    private final Map<Long, Stats> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Stats> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public Stats getStats(Long accountId) {
+        synchronized (cache) {
+            Stats cached = cache.get(accountId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Stats loaded = statsRepository.findById(accountId).map(Stats::of).orElse(Stats.EMPTY);
+        synchronized (cache) {
+            // A record() that finished meanwhile has the newer value
+            Stats cached = cache.putIfAbsent(accountId, loaded);
+            return cached != null ? cached : loaded;
+        }
+    }
+
+    // Must be called with the account's lock held, inside the transaction that completes the transfer
+    public Stats record(Long accountId, double amount) {
+        return recordAll(accountId, List.of(amount));
+    }
+
+    // Same as record() for each amount in order, with a single write for the lot
+    public Stats recordAll(Long accountId, List<Double> amounts) {
+        Stats updated = getStats(accountId);
+        for (double amount : amounts) {
+            updated = updated.add(amount, decay);
+        }
+        synchronized (cache) {
+            cache.put(accountId, updated);
+        }
+
+        AccountAmountStats row = new AccountAmountStats();
+        row.setAccountId(accountId);
+        row.setSampleCount(updated.count());
+        row.setMean(updated.mean());
+        row.setM2(updated.m2());
+        row.setDecayedMean(updated.decayedMean());
+        row.setUpdatedAt(LocalDateTime.now());
+        statsRepository.save(row);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        // Reload the committed row on next use
+                        synchronized (cache) {
+                            cache.remove(accountId);
+                        }
+                    }
+                }
+            });
+        }
+        return updated;
+    }
+
+    public record Stats(long count, double mean, double m2, double decayedMean) {
+
+        public static final Stats EMPTY = new Stats(0, 0.0, 0.0, 0.0);
+
+        static Stats of(AccountAmountStats row) {
+            return new Stats(row.getSampleCount(), row.getMean(), row.getM2(), row.getDecayedMean());
+        }
+
+        public Stats add(double amount, double decay) {
+            long n = count + 1;
+            double delta = amount - mean;
+            double newMean = mean + delta / n;
+            double newM2 = m2 + delta * (amount - newMean);
+            double newDecayedMean = count == 0 ? amount : decayedMean + decay * (amount - decayedMean);
+            return new Stats(n, newMean, newM2, newDecayedMean);
+        }
+
+        // Sample variance; zero until there are two amounts
+        public double variance() {
+            return count > 1 ? m2 / (count - 1) : 0.0;
+        }
+
+        public double standardDeviation() {
+            return Math.sqrt(variance());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.bankapp.onlinebanking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Lock-striped table of per-account locks used by the balance-changing paths.
+ *
+ * Each account id maps onto one of a fixed number of stripes. Two accounts are
+ * always locked in ascending stripe order, so transfers in opposite directions
+ * cannot deadlock, while transfers between disjoint account pairs only contend
+ * when their ids happen to share a stripe.
+ */
+@Component
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public AccountLockManager(@Value("${app.transfer.lock-stripes:1024}") int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Lock stripe count must be greater than zero");
+        }
+        // Round up to a power of two so the stripe can be picked with a mask
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Runs the action while holding the locks of both accounts. Either id may be
+     * null (e.g. a withdrawal has no recipient), in which case only the other
+     * account is locked.
+     */
+    public <T> T executeLocked(Long firstAccountId, Long secondAccountId, Supplier<T> action) {
+        if (firstAccountId == null && secondAccountId == null) {
+            throw new IllegalArgumentException("At least one account id is required");
+        }
+        int first = firstAccountId != null ? stripeFor(firstAccountId) : -1;
+        int second = secondAccountId != null ? stripeFor(secondAccountId) : -1;
+
+        // Always acquire the lower stripe first to keep a global lock order
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        if (low == high || low < 0) {
+            low = -1;
+        }
+
+        if (low >= 0) {
+            stripes[low].lock();
+        }
+        try {
+            stripes[high].lock();
+            try {
+                return action.get();
+            } finally {
+                stripes[high].unlock();
+            }
+        } finally {
+            if (low >= 0) {
+                stripes[low].unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs the action while holding the locks of every account in the collection,
+     * acquired in the same ascending stripe order as the two-account variant.
+     */
+    public <T> T executeLocked(Collection<Long> accountIds, Supplier<T> action) {
+        int[] order = accountIds.stream()
+                .mapToInt(this::stripeFor)
+                .distinct()
+                .sorted()
+                .toArray();
+        if (order.length == 0) {
+            throw new IllegalArgumentException("At least one account id is required");
+        }
+
+        int acquired = 0;
+        try {
+            for (int stripe : order) {
+                stripes[stripe].lock();
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+        }
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    int stripeFor(Long accountId) {
+        int h = Long.hashCode(accountId);
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+}
@@ -0,0 +1,9 @@
+package com.bankapp.onlinebanking.service;
+
+// Thrown where a missing account must be told apart from other failures, e.g. to answer 404
+public class AccountNotFoundException extends RuntimeException {
+
+    public AccountNotFoundException(Long accountId) {
+        super("Account not found: " + accountId);
+    }
+}
@@ -0,0 +1,226 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.AccountEntry;
+import com.bankapp.onlinebanking.entity.AccountRollup;
+import com.bankapp.onlinebanking.repository.AccountEntryRepository;
+import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.repository.AccountRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monthly per-category rollups of booked account entries, maintained alongside the
+ * entries themselves so analytics cost depends on the number of months asked
+ * for rather than on the size of the account's history.
+ *
+ * Rollups are updated in the transaction that writes or recategorizes the
+ * entries, with atomic upserts so concurrent writers never lose an update and
+ * the first entries of a month never fail on the unique key.
+ * Only the partial months at the edges of a requested range are read from the
+ * raw entries. {@link #rebuild(Long)} recomputes an account from scratch under
+ * its lock, which every booking takes, including the credit and refund steps of
+ * a cross-partition transfer. Recategorizing a transaction does not take it, so
+ * rebuilds are best run when few transactions are being recategorized.
+ */
+@Service
+public class AccountRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountRollupService.class);
+
+    private static final String UNCATEGORIZED = "";
+
+    private final AccountRollupRepository rollupRepository;
+    private final AccountEntryRepository accountEntryRepository;
+    private final AccountRepository accountRepository;
+    private final AccountLockManager accountLockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public AccountRollupService(AccountRollupRepository rollupRepository,
+            AccountEntryRepository accountEntryRepository,
+            AccountRepository accountRepository,
+            AccountLockManager accountLockManager,
+            TransactionTemplate transactionTemplate) {
+        this(rollupRepository, accountEntryRepository, accountRepository, accountLockManager, transactionTemplate,
+                Clock.systemDefaultZone());
+    }
+
+    AccountRollupService(AccountRollupRepository rollupRepository, AccountEntryRepository accountEntryRepository,
+            AccountRepository accountRepository, AccountLockManager accountLockManager,
+            TransactionTemplate transactionTemplate, Clock clock) {
+        this.rollupRepository = rollupRepository;
+        this.accountEntryRepository = accountEntryRepository;
+        this.accountRepository = accountRepository;
+        this.accountLockManager = accountLockManager;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+    }
+
+    // Must be called in the transaction that stores the entries
+    public void record(List<AccountEntry> entries) {
+        add(entries, 1);
+    }
+
+    // Takes entries back out of the rollups; must be called in the transaction that deletes them
+    public void remove(List<AccountEntry> entries) {
+        add(entries, -1);
+    }
+
+    // Moves the entries' amounts from their current category to the new one; call before updating the entries
+    public void recategorize(List<AccountEntry> entries, String category) {
+        Map<Key, Summary> deltas = new LinkedHashMap<>();
+        for (AccountEntry entry : entries) {
+            if (entry.isBooked() && entry.getTimestamp() != null
+                    && !categoryKey(entry.getCategory()).equals(categoryKey(category))) {
+                deltas.merge(Key.of(entry, entry.getCategory()), Summary.of(entry, -1), Summary::plus);
+                deltas.merge(Key.of(entry, category), Summary.of(entry, 1), Summary::plus);
+            }
+        }
+        deltas.forEach(this::apply);
+    }
+
+    /**
+     * Per-month, per-category totals of the account's entries between start
+     * (inclusive) and end (inclusive, or open when null). Whole months come from
+     * the rollups, and the current month counts as whole once the range reaches
+     * the present.
+     */
+    public List<Summary> summarize(Long accountId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime to = end == null || !end.isBefore(now)
+                ? YearMonth.from(now).plusMonths(1).atDay(1).atStartOfDay()
+                // Stored timestamps have at most microsecond precision, so this keeps end inclusive
+                : end.plusNanos(1_000);
+
+        YearMonth firstFull = YearMonth.from(start);
+        if (!start.equals(firstFull.atDay(1).atStartOfDay())) {
+            firstFull = firstFull.plusMonths(1);
+        }
+        YearMonth lastFull = YearMonth.from(to).minusMonths(1);
+
+        List<Summary> summaries = new ArrayList<>();
+        if (firstFull.isAfter(lastFull)) {
+            summaries.addAll(summarizeEntries(accountId, start, to));
+            return summaries;
+        }
+
+        LocalDateTime fullFrom = firstFull.atDay(1).atStartOfDay();
+        LocalDateTime fullTo = lastFull.plusMonths(1).atDay(1).atStartOfDay();
+        if (start.isBefore(fullFrom)) {
+            summaries.addAll(summarizeEntries(accountId, start, fullFrom));
+        }
+        for (AccountRollup rollup : rollupRepository.findByAccountIdAndPeriodBetween(
+                accountId, period(firstFull), period(lastFull))) {
+            summaries.add(new Summary(rollup.getPeriod(),
+                    rollup.getCategory().isEmpty() ? null : rollup.getCategory(),
+                    rollup.getEntryCount(), rollup.getTotalAmount(),
+                    rollup.getOutgoingCount(), rollup.getOutgoingAmount()));
+        }
+        if (fullTo.isBefore(to)) {
+            summaries.addAll(summarizeEntries(accountId, fullTo, to));
+        }
+        return summaries;
+    }
+
+    public void rebuild(Long accountId) {
+        accountLockManager.executeLocked(accountId, null, () -> transactionTemplate.execute(status -> {
+            rollupRepository.deleteByAccount(accountId);
+            return rollupRepository.rebuildForAccount(accountId);
+        }));
+    }
+
+    public int rebuildAll() {
+        List<Long> accountIds = accountRepository.findAllIds();
+        for (Long accountId : accountIds) {
+            rebuild(accountId);
+        }
+        logger.info("Rebuilt analytics rollups for {} accounts", accountIds.size());
+        return accountIds.size();
+    }
+
+    private void add(List<AccountEntry> entries, int sign) {
+        Map<Key, Summary> deltas = new LinkedHashMap<>();
+        for (AccountEntry entry : entries) {
+            if (entry.isBooked() && entry.getTimestamp() != null) {
+                deltas.merge(Key.of(entry, entry.getCategory()), Summary.of(entry, sign), Summary::plus);
+            }
+        }
+        deltas.forEach(this::apply);
+    }
+
+    private void apply(Key key, Summary delta) {
+        rollupRepository.upsert(key.accountId(), key.period(), key.category(),
+                delta.entryCount(), delta.totalAmount(), delta.outgoingCount(), delta.outgoingAmount());
+    }
+
+    private List<Summary> summarizeEntries(Long accountId, LocalDateTime from, LocalDateTime to) {
+        List<Summary> summaries = new ArrayList<>();
+        for (Object[] row : accountEntryRepository.summarizeByMonthAndCategory(accountId, from, to)) {
+            summaries.add(new Summary(((Number) row[0]).intValue(), (String) row[1],
+                    ((Number) row[2]).longValue(), decimal((Number) row[3]),
+                    ((Number) row[4]).longValue(), decimal((Number) row[5])));
+        }
+        return summaries;
+    }
+
+    // Amounts have two decimals, as in the DECIMAL(19,2) columns
+    private static BigDecimal decimal(Number amount) {
+        BigDecimal value = amount instanceof BigDecimal decimal ? decimal
+                : BigDecimal.valueOf(amount != null ? amount.doubleValue() : 0.0);
+        return value.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    private static int period(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    private static String categoryKey(String category) {
+        return category != null ? category : UNCATEGORIZED;
+    }
+
+    private record Key(Long accountId, int period, String category) {
+        static Key of(AccountEntry entry, String category) {
+            return new Key(entry.getAccountId(), period(YearMonth.from(entry.getTimestamp())), categoryKey(category));
+        }
+    }
+
+    /** Totals for one month (yyyyMM) and category; a null category means uncategorized. */
+    public record Summary(int period, String category, long entryCount, BigDecimal totalAmount,
+            long outgoingCount, BigDecimal outgoingAmount) {
+
+        static Summary of(AccountEntry entry, int sign) {
+            BigDecimal amount = decimal(entry.getAmount());
+            boolean outgoing = amount.signum() < 0;
+            BigDecimal signed = sign < 0 ? amount.abs().negate() : amount.abs();
+            return new Summary(0, null, sign, signed, outgoing ? sign : 0, outgoing ? signed : decimal(0.0));
+        }
+
+        Summary plus(Summary other) {
+            return new Summary(period, category, entryCount + other.entryCount,
+                    totalAmount.add(other.totalAmount), outgoingCount + other.outgoingCount,
+                    outgoingAmount.add(other.outgoingAmount));
+        }
+
+        public int year() {
+            return period / 100;
+        }
+
+        public int month() {
+            return period % 100;
+        }
+    }
+}
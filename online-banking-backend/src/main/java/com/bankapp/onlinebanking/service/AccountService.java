@@ -2,10 +2,13 @@ package com.bankapp.onlinebanking.service;
 
 import com.bankapp.onlinebanking.entity.Account;
 import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.security.LoginAttemptTracker;
+import com.bankapp.onlinebanking.security.PasswordHasher;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.util.List;
 
 @Service
@@ -13,14 +16,29 @@ import java.util.List;
 public class AccountService {
 
     private final AccountRepository accountRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     @Autowired
     private NotificationService notificationService;
 
     @Autowired
-    public AccountService(AccountRepository accountRepository, PasswordEncoder passwordEncoder) {
+    private NotificationPreferenceService notificationPreferenceService;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private TransferMetrics transferMetrics;
+
+    @Autowired
+    public AccountService(AccountRepository accountRepository, PasswordHasher passwordHasher) {
         this.accountRepository = accountRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
     }
 
     public Account createAccount(Account account) {
@@ -28,13 +46,27 @@ public class AccountService {
             throw new RuntimeException("Username already exists");
         }
         // Encode the password before saving
-        account.setPassword(passwordEncoder.encode(account.getPassword()));
-        return accountRepository.save(account);
+        account.setPassword(passwordHasher.encode(account.getPassword()));
+        Account saved = accountRepository.save(account);
+
+        // Stored up front so notification delivery never has to insert defaults
+        notificationPreferenceService.createDefaultPreferences(saved);
+        return saved;
     }
 
-    public Account login(String username, String password) {
-        Account account = accountRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Invalid username or password"));
+    // No transaction, so no connection is held while waiting for a hashing thread
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Account login(String username, String password, String clientIp) {
+        // Throttled before the account is read or the password hashed
+        if (loginAttemptTracker.check(username, clientIp) != LoginAttemptTracker.Decision.ALLOWED) {
+            throw new TooManyLoginAttemptsException();
+        }
+
+        Account account = accountRepository.findByUsername(username).orElse(null);
+        if (account == null) {
+            loginAttemptTracker.recordFailure(username, clientIp);
+            throw new RuntimeException("Invalid username or password");
+        }
 
         // Check if account is locked
         if (account.getIsLocked()) {
@@ -42,12 +74,13 @@ public class AccountService {
         }
 
         // Use password encoder to verify the password
-        if (!passwordEncoder.matches(password, account.getPassword())) {
-            // Increment failed attempts
-            account.setFailedLoginAttempts(account.getFailedLoginAttempts() + 1);
+        if (!passwordHasher.matches(password, account.getPassword())) {
+            int failures = loginAttemptTracker.recordFailure(username, clientIp);
 
-            // Lock account after 5 failed attempts
-            if (account.getFailedLoginAttempts() >= 5) {
+            // Failures are counted in memory; only the transition to locked is written. Concurrent
+            // failures can step past the limit together, so any count at or over it locks.
+            if (failures >= loginAttemptTracker.getUsernameMaxFailures() && !account.getIsLocked()) {
+                account.setFailedLoginAttempts(failures);
                 account.setIsLocked(true);
                 accountRepository.save(account);
 
@@ -60,14 +93,19 @@ public class AccountService {
 
                 throw new RuntimeException("Account locked due to too many failed attempts");
             }
+            throw new RuntimeException("Invalid username or password");
+        }
 
+        loginAttemptTracker.recordSuccess(username);
+        if (account.getFailedLoginAttempts() != null && account.getFailedLoginAttempts() != 0) {
+            account.setFailedLoginAttempts(0);
             accountRepository.save(account);
-            throw new RuntimeException("Invalid username or password");
         }
 
-        // Reset failed attempts on successful login
-        account.setFailedLoginAttempts(0);
-        accountRepository.save(account);
+        Long accountId = account.getId();
+        String verifiedHash = account.getPassword();
+        passwordHasher.rehashIfNeeded(password, verifiedHash,
+                rehashed -> accountRepository.updatePasswordIfUnchanged(accountId, verifiedHash, rehashed));
 
         return account;
     }
@@ -92,41 +130,71 @@ public class AccountService {
         return account.getBalance();
     }
 
+    // Balance changes hold the account lock for the whole database transaction,
+    // so the lock is taken here and the transaction is started inside it. The
+    // notifications are outbox rows and commit together with the balance change.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Account depositAmount(Long id, double amount) {
-        Account account = accountRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
-        account.setBalance(account.getBalance() + amount);
-        // Create notification
-        notificationService.createNotification(
-                account,
-                String.format("$%.2f was deposited to your account", amount),
-                "TRANSACTION",
-                "INFO");
-
-        return accountRepository.save(account);
+        return accountLockManager.executeLocked(id, null, () -> transactionTemplate.execute(status -> {
+            Account account = getAccountById(id);
+            account.setBalance(account.getBalance() + amount);
+            // Create notification
+            notificationService.createNotification(
+                    account,
+                    String.format("$%.2f was deposited to your account", amount),
+                    "TRANSACTION",
+                    "INFO");
+
+            return accountRepository.save(account);
+        }));
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Account withdrawAmount(Long id, double amount) {
-        Account account = getAccountById(id);
-        if (account.getBalance() < amount) {
-            throw new RuntimeException("Insufficient funds in account with ID: " + id);
-        }
-        account.setBalance(account.getBalance() - amount);
-        // Create notification
-        notificationService.createNotification(
-                account,
-                String.format("$%.2f was withdrawn from your account", amount),
-                "TRANSACTION",
-                "INFO");
-
-        return accountRepository.save(account);
+        return accountLockManager.executeLocked(id, null, () -> transactionTemplate.execute(status -> {
+            Account account = getAccountById(id);
+            if (account.getBalance() < amount) {
+                throw new RuntimeException("Insufficient funds in account with ID: " + id);
+            }
+            account.setBalance(account.getBalance() - amount);
+            // Create notification
+            notificationService.createNotification(
+                    account,
+                    String.format("$%.2f was withdrawn from your account", amount),
+                    "TRANSACTION",
+                    "INFO");
+
+            return accountRepository.save(account);
+        }));
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void transferMoney(Long fromAccountId, Long toAccountId, double amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Transfer amount must be greater than zero");
         }
 
+        // Both accounts are locked in a fixed order before they are read, and stay
+        // locked until the balance updates are committed
+        long started = System.nanoTime();
+        try {
+            accountLockManager.executeLocked(fromAccountId, toAccountId, () -> {
+                transferMetrics.record(TransferMetrics.TRANSFER_MONEY, "lock_wait", started);
+                return transactionTemplate.execute(status -> applyTransferMoney(fromAccountId, toAccountId, amount));
+            });
+        } catch (RuntimeException e) {
+            transferMetrics.outcome(TransferMetrics.TRANSFER_MONEY, "FAILED");
+            throw e;
+        } finally {
+            transferMetrics.record(TransferMetrics.TRANSFER_MONEY, "total", started);
+        }
+        transferMetrics.outcome(TransferMetrics.TRANSFER_MONEY, "COMPLETED");
+    }
+
+    // Must run with both account locks held, inside a transaction
+    private Void applyTransferMoney(Long fromAccountId, Long toAccountId, double amount) {
+        transferMetrics.timeCommit(TransferMetrics.TRANSFER_MONEY);
+        long updateStarted = System.nanoTime();
         Account fromAccount = accountRepository.findById(fromAccountId)
                 .orElseThrow(() -> new RuntimeException("Sender account not found"));
 
@@ -142,7 +210,9 @@ public class AccountService {
 
         accountRepository.save(fromAccount);
         accountRepository.save(toAccount);
+        transferMetrics.record(TransferMetrics.TRANSFER_MONEY, "balance_update", updateStarted);
 
+        long notificationsStarted = System.nanoTime();
         notificationService.createNotification(
                 fromAccount,
                 String.format("$%.2f was transferred to account ending in %s",
@@ -156,6 +226,8 @@ public class AccountService {
                         amount, fromAccount.getAccountNumber().substring(fromAccount.getAccountNumber().length() - 4)),
                 "TRANSACTION",
                 "INFO");
+        transferMetrics.record(TransferMetrics.TRANSFER_MONEY, "notifications", notificationsStarted);
+        return null;
     }
 
 }
\ No newline at end of file
@@ -2,8 +2,11 @@ package com.bankapp.onlinebanking.service;
 
 import com.bankapp.onlinebanking.entity.Transaction;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface EmailService {
-    void sendEmail(String to, String subject, String content);
+    // Completes once the provider accepted the email
+    CompletableFuture<Void> sendEmail(String to, String subject, String content);
     void sendTransactionNotification(String to, String subject, Transaction transaction);
     void sendTwoFactorCode(String to, String code);
 } 
\ No newline at end of file
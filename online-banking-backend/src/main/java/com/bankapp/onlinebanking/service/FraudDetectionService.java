@@ -1,88 +1,41 @@
 package com.bankapp.onlinebanking.service;
 
-import com.bankapp.onlinebanking.entity.Account;
 import com.bankapp.onlinebanking.entity.Transaction;
-import com.bankapp.onlinebanking.repository.TransactionRepository;
+import com.bankapp.onlinebanking.service.fraud.FraudAssessment;
+import com.bankapp.onlinebanking.service.fraud.FraudRule;
+import com.bankapp.onlinebanking.service.fraud.FraudRuleRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
-import java.util.List;
+
+import java.util.stream.Collectors;
 
 @Service
 public class FraudDetectionService {
 
     @Autowired
-    private TransactionRepository transactionRepository;
+    private FraudRuleRegistry fraudRuleRegistry;
 
     @Autowired
     private NotificationService notificationService;
 
     public boolean analyzeTransaction(Transaction transaction) {
         // Flag potentially fraudulent transactions
-        if (isUnusualAmount(transaction)) {
-            transaction.setIsFraudSuspected(true);
-            transaction.setFraudReason("Unusual transaction amount");
-            Account sender = transaction.getSender();
-            notificationService.createNotification(
-                    sender,
-                    String.format("Suspicious transaction detected: Unusual amount of $%.2f",
-                            transaction.getAmount()),
-                    "SECURITY",
-                    "CRITICAL");
-            return true;
-        }
-
-        if (isUnusualLocation(transaction)) {
-            transaction.setIsFraudSuspected(true);
-            transaction.setFraudReason("Unusual transaction location");
-            Account sender = transaction.getSender();
-            notificationService.createNotification(
-                    sender,
-                    "Suspicious transaction detected: Unusual location",
-                    "SECURITY",
-                    "CRITICAL");
-            return true;
-        }
-
-        if (isRapidSuccessiveTransaction(transaction)) {
-            transaction.setIsFraudSuspected(true);
-            transaction.setFraudReason("Multiple rapid transactions");
-            Account sender = transaction.getSender();
-            notificationService.createNotification(
-                    sender,
-                    "Suspicious transaction detected: Multiple rapid transactions",
-                    "SECURITY",
-                    "CRITICAL");
-            return true;
+        FraudAssessment assessment = fraudRuleRegistry.evaluate(transaction);
+        if (!assessment.fraudulent()) {
+            return false;
         }
 
-        return false;
-    }
-
-    private boolean isUnusualAmount(Transaction transaction) {
-        Account sender = transaction.getSender();
-        Double avgAmount = transactionRepository.findAverageTransactionAmountForAccount(sender);
-
-        // If this transaction is more than 3x the average, flag it
-        return transaction.getAmount() > avgAmount * 3;
-    }
-
-    private boolean isUnusualLocation(Transaction transaction) {
-        Account sender = transaction.getSender();
-        String lastLocation = sender.getLastLoginIp();
-
-        // Simple example - in a real app, use a geo-location service
-        return lastLocation != null && !lastLocation.equals(transaction.getIpAddress());
-    }
-
-    private boolean isRapidSuccessiveTransaction(Transaction transaction) {
-        Account sender = transaction.getSender();
-        LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
-
-        List<Transaction> recentTransactions = transactionRepository
-                .findBySenderAndTimestampAfter(sender, fiveMinutesAgo);
-
-        // If there are more than 3 transactions in the last 5 minutes, flag it
-        return recentTransactions.size() >= 3;
+        transaction.setIsFraudSuspected(true);
+        transaction.setFraudReason(assessment.matchedRules().stream()
+                .map(FraudRule::getReason)
+                .collect(Collectors.joining("; ")));
+
+        // One alert per flagged transaction, from the first (cheapest) matching rule
+        notificationService.createNotification(
+                transaction.getSender(),
+                assessment.matchedRules().get(0).getAlertMessage(transaction),
+                "SECURITY",
+                "CRITICAL");
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.bankapp.onlinebanking.service;
+
+// Merchant name guessed from a transaction description
+public final class MerchantNames {
+
+    private MerchantNames() {
+    }
+
+    public static String extract(String description) {
+        if (description == null)
+            return null;
+
+        // Simple extraction - in a real app, you'd use more sophisticated parsing
+        String[] parts = description.split(" ");
+        return parts.length > 0 ? parts[0] : description;
+    }
+}
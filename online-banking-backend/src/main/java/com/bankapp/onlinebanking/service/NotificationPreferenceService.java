@@ -0,0 +1,151 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.NotificationPreference;
+import com.bankapp.onlinebanking.repository.NotificationPreferenceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Notification preferences by account, read through a bounded in-memory cache.
+ *
+ * Entries expire after the configured TTL, which also bounds how stale another
+ * instance's copy can get. Updates made through this service replace the local
+ * entry once they commit. When the cache is full, expired entries are dropped
+ * first and then the ones closest to expiry.
+ *
+ * Cached preferences are shared and must be treated as read-only.
+ */
+@Service
+public class NotificationPreferenceService {
+
+    private final NotificationPreferenceRepository preferenceRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Long, CachedPreference> cache = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public NotificationPreferenceService(NotificationPreferenceRepository preferenceRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.notifications.preferences.cache-ttl:5m}") Duration ttl,
+            @Value("${app.notifications.preferences.cache-size:10000}") int maxEntries) {
+        this(preferenceRepository, meterRegistry, ttl, maxEntries, System::currentTimeMillis);
+    }
+
+    NotificationPreferenceService(NotificationPreferenceRepository preferenceRepository, MeterRegistry meterRegistry,
+            Duration ttl, int maxEntries, LongSupplier clock) {
+        this.preferenceRepository = preferenceRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.hits = Counter.builder("notification.preferences.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("notification.preferences.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("notification.preferences.cache.size", cache, Map::size)
+                .register(meterRegistry);
+    }
+
+    public NotificationPreference getPreferences(Account account) {
+        long now = clock.getAsLong();
+        CachedPreference cached = cache.get(account.getId());
+        if (cached != null && cached.expiresAt > now) {
+            hits.increment();
+            return cached.preference;
+        }
+
+        misses.increment();
+        NotificationPreference preference = preferenceRepository.findByAccount(account)
+                // Accounts are created with defaults, so this only covers rows removed since
+                .orElseGet(() -> createDefaultPreferences(account));
+        put(account.getId(), preference);
+        return preference;
+    }
+
+    // Called once when the account is created
+    public NotificationPreference createDefaultPreferences(Account account) {
+        NotificationPreference preference = new NotificationPreference();
+        preference.setAccount(account);
+        return preferenceRepository.save(preference);
+    }
+
+    @Transactional
+    public NotificationPreference updatePreferences(Account account, NotificationPreference preferences) {
+        NotificationPreference existingPrefs = preferenceRepository.findByAccount(account)
+                .orElseGet(() -> {
+                    NotificationPreference newPrefs = new NotificationPreference();
+                    newPrefs.setAccount(account);
+                    return newPrefs;
+                });
+
+        existingPrefs.setEnableRealTimeNotifications(preferences.getEnableRealTimeNotifications());
+        existingPrefs.setEnableEmailNotifications(preferences.getEnableEmailNotifications());
+        existingPrefs.setEmailForTransactions(preferences.getEmailForTransactions());
+        existingPrefs.setEmailForSecurity(preferences.getEmailForSecurity());
+        existingPrefs.setEmailForSystem(preferences.getEmailForSystem());
+        existingPrefs.setEmailTransactionThreshold(preferences.getEmailTransactionThreshold());
+        existingPrefs.setEnableSmsNotifications(preferences.getEnableSmsNotifications());
+        existingPrefs.setSmsForTransactions(preferences.getSmsForTransactions());
+        existingPrefs.setSmsForSecurity(preferences.getSmsForSecurity());
+        existingPrefs.setSmsForSystem(preferences.getSmsForSystem());
+        existingPrefs.setSmsTransactionThreshold(preferences.getSmsTransactionThreshold());
+
+        NotificationPreference saved = preferenceRepository.save(existingPrefs);
+        Long accountId = account.getId();
+
+        // Drop the old entry now and publish the new one only once it is committed
+        cache.remove(accountId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(accountId, saved);
+                }
+            });
+        } else {
+            put(accountId, saved);
+        }
+        return saved;
+    }
+
+    private void put(Long accountId, NotificationPreference preference) {
+        long now = clock.getAsLong();
+        cache.put(accountId, new CachedPreference(preference, now + ttlMillis));
+        if (cache.size() > maxEntries) {
+            evictOverflow(now);
+        }
+    }
+
+    private synchronized void evictOverflow(long now) {
+        cache.values().removeIf(cached -> cached.expiresAt <= now);
+        // Trim to 90% so a full cache does not scan on every put
+        int target = maxEntries - maxEntries / 10;
+        if (cache.size() > target) {
+            cache.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(a.getValue().expiresAt, b.getValue().expiresAt))
+                    .limit(cache.size() - target)
+                    .toList()
+                    .forEach(entry -> cache.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private record CachedPreference(NotificationPreference preference, long expiresAt) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.bankapp.onlinebanking.service;
+
+// Published when a notification is written to the outbox; the relay picks it up once the writer commits
+public record NotificationQueuedEvent(Long notificationId) {
+}
@@ -5,11 +5,20 @@ import com.bankapp.onlinebanking.entity.Account;
 import com.bankapp.onlinebanking.entity.Notification;
 import com.bankapp.onlinebanking.entity.NotificationPreference;
 import com.bankapp.onlinebanking.entity.Transaction;
-import com.bankapp.onlinebanking.repository.NotificationPreferenceRepository;
 import com.bankapp.onlinebanking.repository.NotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class NotificationService {
 
@@ -26,30 +35,67 @@ public class NotificationService {
     private SmsService smsService;
 
     @Autowired
-    private NotificationPreferenceRepository preferenceRepository;
+    private NotificationPreferenceService notificationPreferenceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Only writes the outbox row, joining the caller's transaction if there is one.
+    // NotificationOutboxRelay delivers it once that transaction has committed.
     public Notification createNotification(Account account, String message, String type, String severity) {
-        // Create and save notification
         Notification notification = new Notification();
         notification.setAccount(account);
         notification.setMessage(message);
         notification.setNotificationType(type);
         notification.setSeverity(severity);
-        notification = notificationRepository.save(notification);
+        return enqueue(notification);
+    }
+
+    public Notification createTransactionNotification(Transaction transaction) {
+        String message = String.format("%s of $%.2f %s",
+                transaction.getTransactionType(),
+                transaction.getAmount(),
+                "COMPLETED".equals(transaction.getStatus()) ? "was completed"
+                        : "is " + transaction.getStatus().toLowerCase());
+
+        Notification notification = new Notification();
+        notification.setAccount(transaction.getSender());
+        notification.setMessage(message);
+        notification.setNotificationType("TRANSACTION");
+        notification.setSeverity("INFO");
+        notification.setReferenceId(transaction.getId());
+        notification.setReferenceType("TRANSACTION");
+        // Lets the email threshold in deliver() apply to this notification
+        try {
+            notification.setAdditionalData(objectMapper.writeValueAsString(Map.of("amount", transaction.getAmount())));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize notification data", e);
+        }
+
+        return enqueue(notification);
+    }
+
+    // Sends a stored notification over the channels its account has enabled; called by the outbox relay.
+    // The result completes once every channel's provider accepted it. Each channel that succeeds is
+    // recorded on the notification, so a retry after a failure skips it.
+    public CompletableFuture<Void> deliver(Notification notification) {
+        Account account = notification.getAccount();
+        String message = notification.getMessage();
+        String type = notification.getNotificationType();
+        String severity = notification.getSeverity();
 
         // Get user preferences
-        NotificationPreference preference = preferenceRepository
-                .findByAccount(account)
-                .orElseGet(() -> {
-                    // Create default preferences if none exist
-                    NotificationPreference defaultPref = new NotificationPreference();
-                    defaultPref.setAccount(account);
-                    return preferenceRepository.save(defaultPref);
-                });
+        NotificationPreference preference = notificationPreferenceService.getPreferences(account);
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>(2);
 
         // Send via WebSocket if enabled
-        if (preference.getEnableRealTimeNotifications()) {
+        if (preference.getEnableRealTimeNotifications() && !isDelivered(notification, "WEBSOCKET")) {
             notificationController.sendNotificationToUser(account.getId(), notification);
+            markDelivered(notification, "WEBSOCKET");
         }
 
         // Send email if enabled and meets criteria
@@ -60,15 +106,12 @@ public class NotificationService {
                 shouldSendEmail = true;
             } else if ("TRANSACTION".equals(type) && preference.getEmailForTransactions()) {
                 // Check if transaction amount exceeds threshold (if we have that info)
-                if (notification.getAdditionalData() != null && notification.getAdditionalData().contains("amount")) {
+                if (notification.getAdditionalData() != null) {
                     try {
-                        double amount = Double.parseDouble(
-                                notification.getAdditionalData().substring(
-                                        notification.getAdditionalData().indexOf("amount") + 7,
-                                        notification.getAdditionalData().indexOf("}",
-                                                notification.getAdditionalData().indexOf("amount"))));
-                        shouldSendEmail = amount >= preference.getEmailTransactionThreshold();
-                    } catch (Exception e) {
+                        JsonNode amount = objectMapper.readTree(notification.getAdditionalData()).path("amount");
+                        shouldSendEmail = !amount.isNumber()
+                                || amount.asDouble() >= preference.getEmailTransactionThreshold();
+                    } catch (JsonProcessingException e) {
                         shouldSendEmail = true; // If can't parse, just send to be safe
                     }
                 } else {
@@ -78,8 +121,9 @@ public class NotificationService {
                 shouldSendEmail = true;
             }
 
-            if (shouldSendEmail && account.getEmail() != null) {
-                emailService.sendEmail(account.getEmail(), "Bank Notification: " + type, message);
+            if (shouldSendEmail && account.getEmail() != null && !isDelivered(notification, "EMAIL")) {
+                sends.add(emailService.sendEmail(account.getEmail(), "Bank Notification: " + type, message)
+                        .thenRun(() -> markDelivered(notification, "EMAIL")));
             }
         }
 
@@ -88,34 +132,34 @@ public class NotificationService {
                 (("CRITICAL".equals(severity) && preference.getSmsForSecurity()) ||
                         ("TRANSACTION".equals(type) && preference.getSmsForTransactions()))) {
 
-            if (account.getPhoneNumber() != null) {
-                smsService.sendSms(account.getPhoneNumber(), message);
+            if (account.getPhoneNumber() != null && !isDelivered(notification, "SMS")) {
+                sends.add(smsService.sendSms(account.getPhoneNumber(), message)
+                        .thenRun(() -> markDelivered(notification, "SMS")));
             }
         }
-
-        return notification;
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]));
     }
 
-    public Notification createTransactionNotification(Transaction transaction) {
-        String message = String.format("%s of $%.2f %s",
-                transaction.getTransactionType(),
-                transaction.getAmount(),
-                "COMPLETED".equals(transaction.getStatus()) ? "was completed"
-                        : "is " + transaction.getStatus().toLowerCase());
-
-        Notification notification = new Notification();
-        notification.setAccount(transaction.getSender());
-        notification.setMessage(message);
-        notification.setNotificationType("TRANSACTION");
-        notification.setSeverity("INFO");
-        notification.setReferenceId(transaction.getId());
-        notification.setReferenceType("TRANSACTION");
+    private static boolean isDelivered(Notification notification, String channel) {
+        synchronized (notification) {
+            String delivered = notification.getDeliveredChannels();
+            return delivered != null && Arrays.asList(delivered.split(",")).contains(channel);
+        }
+    }
 
-        // Save and send
-        notification = notificationRepository.save(notification);
-        notificationController.sendNotificationToUser(transaction.getSender().getId(), notification);
+    // Email and SMS outcomes arrive on their dispatchers' threads
+    private static void markDelivered(Notification notification, String channel) {
+        synchronized (notification) {
+            String delivered = notification.getDeliveredChannels();
+            notification.setDeliveredChannels(delivered == null ? channel : delivered + "," + channel);
+        }
+    }
 
-        return notification;
+    private Notification enqueue(Notification notification) {
+        notification.setDeliveryStatus("PENDING");
+        Notification saved = notificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationQueuedEvent(saved.getId()));
+        return saved;
     }
 
     public void markAsRead(Long notificationId) {
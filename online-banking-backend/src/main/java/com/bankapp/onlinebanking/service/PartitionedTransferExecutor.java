@@ -0,0 +1,487 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Optional single-writer execution mode for transfers.
+ *
+ * Every account is owned by exactly one partition, picked by hashing the account
+ * id, and only that partition's thread changes the account's balance. A transfer
+ * is queued on the sender's partition, which drains its queue in batches and
+ * commits each batch in one database transaction, so a hot merchant account is
+ * read and written once per batch instead of once per transfer.
+ *
+ * When the recipient belongs to another partition the transfer runs in two
+ * steps: the sender's partition debits and stores the transaction as PENDING,
+ * then hands a credit step to the recipient's partition, which credits the
+ * recipient and marks the transaction COMPLETED. A credit that cannot be
+ * applied, for example because the recipient was deleted, is handed back to
+ * the sender's partition, which refunds the sender and marks the transaction
+ * FAILED. Credits still in flight at shutdown are recovered from the PENDING
+ * rows once the application is ready.
+ *
+ * A partition that stops, or whose thread dies, fails whatever it still holds
+ * and rejects new transfers, so no caller waits forever on its result.
+ */
+@Component
+public class PartitionedTransferExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedTransferExecutor.class);
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountLockManager accountLockManager;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final Partition[] partitions;
+    private volatile CrossPartitionListener listener;
+
+    @Autowired
+    public PartitionedTransferExecutor(AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            TransactionTemplate transactionTemplate,
+            AccountLockManager accountLockManager,
+            @Value("${app.transfer.partitioned.enabled:false}") boolean enabled,
+            @Value("${app.transfer.partitioned.partitions:8}") int partitionCount,
+            @Value("${app.transfer.partitioned.batch-size:64}") int batchSize,
+            @Value("${app.transfer.partitioned.queue-capacity:10000}") int queueCapacity) {
+        if (partitionCount <= 0 || batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Partition count, batch size and queue capacity must be positive");
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.accountLockManager = accountLockManager;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        for (Partition partition : partitions) {
+            partition.thread = new Thread(partition, "transfer-partition-" + partition.index);
+            partition.thread.setDaemon(true);
+            partition.thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Partition partition : partitions) {
+            partition.running = false;
+        }
+        for (Partition partition : partitions) {
+            if (partition.thread != null) {
+                try {
+                    partition.thread.join(TimeUnit.SECONDS.toMillis(10));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Receives the later steps of cross-partition transfers, including credits
+     * recovered at startup.
+     */
+    public interface CrossPartitionListener {
+
+        // Inside the credit's database transaction, once the recipient is credited and the transfer COMPLETED
+        void credited(Transaction transaction);
+
+        // After the credit has committed and the partition's locks are released
+        void creditCommitted(Transaction transaction);
+
+        // Inside the refund's database transaction, once the sender got the amount back and the transfer FAILED
+        void refunded(Transaction transaction);
+    }
+
+    public void setListener(CrossPartitionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Queues the transfer on the sender's partition and waits for its batch to
+     * commit. The returned transaction is COMPLETED, FAILED, or PENDING while a
+     * cross-partition credit is still in flight.
+     */
+    public Transaction execute(Transaction transaction) {
+        return execute(transaction, null);
+    }
+
+    /**
+     * Same as {@link #execute(Transaction)}, additionally running the callback on the
+     * debited transaction inside the batch's database transaction.
+     */
+    public Transaction execute(Transaction transaction, Consumer<Transaction> inTransaction) {
+        try {
+            return submit(transaction, inTransaction).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Transaction> submit(Transaction transaction) {
+        return submit(transaction, null);
+    }
+
+    public CompletableFuture<Transaction> submit(Transaction transaction, Consumer<Transaction> inTransaction) {
+        if (!enabled) {
+            throw new IllegalStateException("Partitioned transfer mode is disabled");
+        }
+        TransferTask task = new TransferTask(transaction, Step.DEBIT, inTransaction);
+        partitionFor(transaction.getSender().getId()).enqueueDebit(task);
+        return task.result;
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Partition partition : partitions) {
+            depth += partition.queue.size();
+        }
+        return depth;
+    }
+
+    int partitionIndex(Long accountId) {
+        int h = Long.hashCode(accountId);
+        h ^= (h >>> 16);
+        return Math.floorMod(h, partitions.length);
+    }
+
+    private Partition partitionFor(Long accountId) {
+        return partitions[partitionIndex(accountId)];
+    }
+
+    // Waits for the application to be ready so the listener is in place
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingCredits() {
+        if (!enabled) {
+            return;
+        }
+        // A debited cross-partition transfer is stored as PENDING with its balanceAfter set
+        int recovered = 0;
+        for (Transaction transaction : transactionRepository.findByStatus("PENDING")) {
+            if ("TRANSFER".equals(transaction.getTransactionType())
+                    && transaction.getRecipient() != null
+                    && transaction.getBalanceAfter() != null) {
+                partitionFor(transaction.getRecipient().getId())
+                        .enqueue(new TransferTask(transaction, Step.CREDIT, null));
+                recovered++;
+            }
+        }
+        if (recovered > 0) {
+            logger.info("Re-queued {} pending transfer credits", recovered);
+        }
+    }
+
+    private enum Step {
+        DEBIT, CREDIT, REFUND
+    }
+
+    private static final class TransferTask {
+        final Transaction transaction;
+        final Step step;
+        final String description;
+        final Consumer<Transaction> inTransaction;
+        final CompletableFuture<Transaction> result = new CompletableFuture<>();
+
+        TransferTask(Transaction transaction, Step step, Consumer<Transaction> inTransaction) {
+            this.transaction = transaction;
+            this.step = step;
+            this.description = transaction.getDescription();
+            this.inTransaction = inTransaction;
+        }
+
+        // Undo the effects of a rolled-back attempt before the debit is applied again
+        void resetDebit() {
+            transaction.setId(null);
+            transaction.setDescription(description);
+            transaction.setBalanceAfter(null);
+        }
+    }
+
+    private final class Partition implements Runnable {
+        final int index;
+        final LinkedBlockingQueue<TransferTask> queue = new LinkedBlockingQueue<>();
+        final AtomicInteger queuedDebits = new AtomicInteger();
+        volatile boolean running = true;
+        Thread thread;
+
+        Partition(int index) {
+            this.index = index;
+        }
+
+        void enqueueDebit(TransferTask task) {
+            if (!running) {
+                throw new IllegalStateException("Transfer partition " + index + " is not running");
+            }
+            // Only debits count against the capacity; credits must never be dropped
+            if (queuedDebits.incrementAndGet() > queueCapacity) {
+                queuedDebits.decrementAndGet();
+                throw new RuntimeException("Transfer queue is full, please retry later");
+            }
+            queue.add(task);
+            // Raced with the partition stopping, which may already have drained its queue
+            if (!running && queue.remove(task)) {
+                queuedDebits.decrementAndGet();
+                throw new IllegalStateException("Transfer partition " + index + " is not running");
+            }
+        }
+
+        // Credits and refunds
+        void enqueue(TransferTask task) {
+            queue.add(task);
+        }
+
+        @Override
+        public void run() {
+            List<TransferTask> batch = new ArrayList<>(batchSize);
+            try {
+                while (running || !queue.isEmpty()) {
+                    TransferTask first;
+                    try {
+                        first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    for (TransferTask task : batch) {
+                        if (task.step == Step.DEBIT) {
+                            queuedDebits.decrementAndGet();
+                        }
+                    }
+                    try {
+                        process(batch);
+                    } catch (RuntimeException e) {
+                        logger.error("Transfer partition {} failed to process a batch", index, e);
+                        failUnfinished(batch, e);
+                    }
+                    batch.clear();
+                }
+            } finally {
+                // Whether stopped, interrupted or killed by an Error, leave nobody waiting on this partition.
+                // Unfinished credits stay PENDING in the database and are recovered on the next start.
+                running = false;
+                List<TransferTask> unfinished = new ArrayList<>(batch);
+                queue.drainTo(unfinished);
+                if (!unfinished.isEmpty()) {
+                    logger.warn("Transfer partition {} stopped with {} unfinished tasks", index, unfinished.size());
+                    failUnfinished(unfinished,
+                            new IllegalStateException("Transfer partition " + index + " is not running"));
+                }
+            }
+        }
+
+        private void failUnfinished(List<TransferTask> tasks, RuntimeException e) {
+            for (TransferTask task : tasks) {
+                task.result.completeExceptionally(e);
+            }
+        }
+
+        private void process(List<TransferTask> batch) {
+            List<Transaction> saved;
+            try {
+                saved = accountLockManager.executeLocked(accountsTouched(batch),
+                        () -> transactionTemplate.execute(status -> applyBatch(batch)));
+            } catch (RuntimeException e) {
+                if (batch.size() == 1) {
+                    fail(batch.get(0), e);
+                    return;
+                }
+                // One bad transfer must not fail the whole group, so retry each one on its own
+                for (TransferTask task : batch) {
+                    process(List.of(task));
+                }
+                return;
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                TransferTask task = batch.get(i);
+                Transaction transaction = saved.get(i);
+                if (task.step == Step.DEBIT && "PENDING".equals(transaction.getStatus())) {
+                    // Second step of a cross-partition transfer, only handed off once the debit is committed
+                    partitionFor(transaction.getRecipient().getId())
+                            .enqueue(new TransferTask(transaction, Step.CREDIT, null));
+                } else if (task.step == Step.CREDIT && listener != null) {
+                    try {
+                        listener.creditCommitted(transaction);
+                    } catch (RuntimeException e) {
+                        // The transfer itself is complete, so this must not lead to a refund
+                        logger.error("Post-commit handling of transfer {} failed", transaction.getId(), e);
+                    }
+                }
+                task.result.complete(transaction);
+            }
+        }
+
+        private void fail(TransferTask task, RuntimeException e) {
+            Transaction transaction = task.transaction;
+            if (task.step == Step.CREDIT) {
+                // The debit is already committed, so the amount goes back to the sender on its own partition
+                logger.warn("Could not credit transfer {}, refunding the sender", transaction.getId(), e);
+                partitionFor(transaction.getSender().getId())
+                        .enqueue(new TransferTask(transaction, Step.REFUND, null));
+            } else if (task.step == Step.REFUND) {
+                logger.error("Could not refund transfer {}; it stays PENDING and is retried on the next start",
+                        transaction.getId(), e);
+            }
+            task.result.completeExceptionally(e);
+        }
+
+        private Set<Long> accountsTouched(List<TransferTask> batch) {
+            Set<Long> ids = new LinkedHashSet<>();
+            for (TransferTask task : batch) {
+                Transaction transaction = task.transaction;
+                if (task.step == Step.CREDIT) {
+                    ids.add(transaction.getRecipient().getId());
+                } else if (task.step == Step.REFUND) {
+                    ids.add(transaction.getSender().getId());
+                } else {
+                    ids.add(transaction.getSender().getId());
+                    if (transaction.getRecipient() != null && owns(transaction.getRecipient().getId())) {
+                        ids.add(transaction.getRecipient().getId());
+                    }
+                }
+            }
+            return ids;
+        }
+
+        private List<Transaction> applyBatch(List<TransferTask> batch) {
+            // Each account in the batch is read once, however many transfers touch it
+            Map<Long, Account> accounts = new HashMap<>();
+            for (Account account : accountRepository.findAllById(accountsTouched(batch))) {
+                accounts.put(account.getId(), account);
+            }
+
+            List<Transaction> transactions = new ArrayList<>(batch.size());
+            for (TransferTask task : batch) {
+                Transaction transaction = task.transaction;
+                if (task.step == Step.CREDIT) {
+                    Account recipient = require(accounts, transaction.getRecipient().getId(),
+                            "Recipient account not found");
+                    recipient.setBalance(recipient.getBalance() + transaction.getAmount());
+                    transaction.setRecipient(recipient);
+                    transaction.setStatus("COMPLETED");
+                } else if (task.step == Step.REFUND) {
+                    Account sender = require(accounts, transaction.getSender().getId(), "Sender account not found");
+                    sender.setBalance(sender.getBalance() + transaction.getAmount());
+                    transaction.setSender(sender);
+                    transaction.setStatus("FAILED");
+                    transaction.setDescription("Recipient could not be credited, amount refunded");
+                } else {
+                    task.resetDebit();
+                    applyDebit(transaction, accounts);
+                }
+                transactions.add(transaction);
+            }
+
+            // Group commit: all balance and ledger writes of the batch go out in one transaction
+            accountRepository.saveAll(accounts.values());
+            List<Transaction> saved = transactionRepository.saveAll(transactions);
+
+            for (int i = 0; i < batch.size(); i++) {
+                TransferTask task = batch.get(i);
+                if (task.step == Step.DEBIT) {
+                    if (task.inTransaction != null) {
+                        task.inTransaction.accept(saved.get(i));
+                    }
+                } else if (listener != null) {
+                    if (task.step == Step.CREDIT) {
+                        listener.credited(saved.get(i));
+                    } else {
+                        listener.refunded(saved.get(i));
+                    }
+                }
+            }
+            return saved;
+        }
+
+        private void applyDebit(Transaction transaction, Map<Long, Account> accounts) {
+            Account sender = require(accounts, transaction.getSender().getId(), "Sender account not found");
+            transaction.setSender(sender);
+
+            Double amount = transaction.getAmount();
+            if (sender.getBalance() < amount) {
+                transaction.setStatus("FAILED");
+                transaction.setDescription("Insufficient funds");
+                return;
+            }
+
+            sender.setBalance(sender.getBalance() - amount);
+            transaction.setBalanceAfter(sender.getBalance());
+
+            if (transaction.getRecipient() == null) {
+                transaction.setStatus("COMPLETED");
+            } else if (owns(transaction.getRecipient().getId())) {
+                Account recipient = require(accounts, transaction.getRecipient().getId(),
+                        "Recipient account not found");
+                recipient.setBalance(recipient.getBalance() + amount);
+                transaction.setRecipient(recipient);
+                transaction.setStatus("COMPLETED");
+            } else {
+                transaction.setStatus("PENDING");
+            }
+        }
+
+        private boolean owns(Long accountId) {
+            return partitionIndex(accountId) == index;
+        }
+
+        private Account require(Map<Long, Account> accounts, Long id, String message) {
+            Account account = accounts.get(id);
+            if (account == null) {
+                throw new RuntimeException(message);
+            }
+            return account;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.bankapp.onlinebanking.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-account index of outgoing payments by fingerprint, used to recognise
+ * recurring payments without querying the transaction history.
+ *
+ * A fingerprint is the description reduced to its letters (so varying
+ * reference numbers and dates do not split a merchant) plus the amount rounded
+ * to a whole unit. Each fingerprint keeps its most recent occurrence times
+ * within the horizon. A payment is recurring when the median interval between
+ * occurrences falls in a known period and most intervals agree with it.
+ *
+ * The index is per instance. It is rebuilt from the transactions table at
+ * startup and is updated when a transaction commits.
+ */
+@Component
+public class RecurringPaymentIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringPaymentIndex.class);
+
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+    private static final int MIN_OCCURRENCES = 3;
+    private static final int MAX_OCCURRENCES = 12;
+    private static final int MAX_FINGERPRINTS_PER_ACCOUNT = 256;
+    // Share of intervals that must fall inside the period's range
+    private static final double MIN_AGREEMENT = 0.75;
+
+    public enum Periodicity {
+        WEEKLY(6, 8),
+        BIWEEKLY(13, 16),
+        MONTHLY(27, 33),
+        QUARTERLY(85, 97);
+
+        private final double minDays;
+        private final double maxDays;
+
+        Periodicity(double minDays, double maxDays) {
+            this.minDays = minDays;
+            this.maxDays = maxDays;
+        }
+
+        boolean contains(double days) {
+            return days >= minDays && days <= maxDays;
+        }
+    }
+
+    public record RecurringPayment(String description, String merchantName, double amount, int occurrences,
+            LocalDateTime firstOccurrence, LocalDateTime lastOccurrence, Periodicity periodicity,
+            double averageIntervalDays, LocalDateTime nextExpected) {
+    }
+
+    private final DataSource dataSource;
+    private final long horizonMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Long, AccountPayments> accounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RecurringPaymentIndex(DataSource dataSource,
+            @Value("${app.recurring.horizon:400d}") Duration horizon) {
+        this(dataSource, horizon, System::currentTimeMillis);
+    }
+
+    // Standalone index without database warm-up, for tests and benchmarks
+    public RecurringPaymentIndex(Duration horizon, LongSupplier clock) {
+        this(null, horizon, clock);
+    }
+
+    private RecurringPaymentIndex(DataSource dataSource, Duration horizon, LongSupplier clock) {
+        this.dataSource = dataSource;
+        this.horizonMillis = horizon.toMillis();
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (dataSource == null) {
+            return;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(1000);
+        long[] loaded = new long[1];
+        Timestamp since = new Timestamp(clock.getAsLong() - horizonMillis);
+        jdbcTemplate.query("SELECT sender_id, description, merchant_name, amount, timestamp FROM transactions "
+                + "WHERE sender_id IS NOT NULL AND status = 'COMPLETED' AND timestamp >= ? ORDER BY timestamp",
+                rs -> {
+                    add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getDouble(4),
+                            rs.getTimestamp(5).getTime());
+                    loaded[0]++;
+                }, since);
+        logger.info("Recurring payment index warmed with {} transactions for {} accounts", loaded[0],
+                accounts.size());
+    }
+
+    // Adds a committed payment; callers inside a transaction defer this until it commits
+    public void record(Long accountId, String description, String merchantName, double amount,
+            LocalDateTime timestamp) {
+        add(accountId, description, merchantName, amount, toMillis(timestamp));
+    }
+
+    /** The periodicity a payment would have with the account's earlier matching payments, or null. */
+    public Periodicity classify(Long accountId, String description, double amount, LocalDateTime timestamp) {
+        AccountPayments payments = accounts.get(accountId);
+        if (payments == null) {
+            return null;
+        }
+        Occurrences occurrences = payments.get(fingerprint(description, amount));
+        if (occurrences == null) {
+            return null;
+        }
+        long[] times = occurrences.withCandidate(toMillis(timestamp));
+        return detect(intervalsOf(times));
+    }
+
+    // Recurring payments of the account, most frequent first
+    public List<RecurringPayment> getRecurringPayments(Long accountId) {
+        AccountPayments payments = accounts.get(accountId);
+        if (payments == null) {
+            return List.of();
+        }
+        List<RecurringPayment> recurring = new ArrayList<>();
+        for (Occurrences occurrences : payments.snapshot()) {
+            long[] times = occurrences.times();
+            double[] intervals = intervalsOf(times);
+            Periodicity periodicity = detect(intervals);
+            if (periodicity == null) {
+                continue;
+            }
+            double average = Arrays.stream(intervals).average().orElse(0.0);
+            long last = times[times.length - 1];
+            recurring.add(new RecurringPayment(occurrences.description, occurrences.merchantName,
+                    occurrences.amount, times.length, toDateTime(times[0]), toDateTime(last), periodicity,
+                    average, toDateTime(last + Math.round(average * DAY_MILLIS))));
+        }
+        recurring.sort(Comparator.comparingInt(RecurringPayment::occurrences).reversed());
+        return recurring;
+    }
+
+    @Scheduled(fixedDelayString = "${app.recurring.eviction-interval-ms:3600000}")
+    public void evictExpired() {
+        long cutoff = clock.getAsLong() - horizonMillis;
+        accounts.forEach((id, payments) -> {
+            if (payments.expire(cutoff)) {
+                accounts.remove(id, payments);
+            }
+        });
+    }
+
+    public int getTrackedAccounts() {
+        return accounts.size();
+    }
+
+    void add(Long accountId, String description, String merchantName, double amount, long timestampMillis) {
+        if (accountId == null || timestampMillis <= clock.getAsLong() - horizonMillis) {
+            return;
+        }
+        accounts.computeIfAbsent(accountId, id -> new AccountPayments())
+                .add(fingerprint(description, amount), description, merchantName, amount, timestampMillis);
+    }
+
+    static String fingerprint(String description, double amount) {
+        StringBuilder key = new StringBuilder();
+        if (description != null) {
+            boolean space = false;
+            for (int i = 0; i < description.length() && key.length() < 64; i++) {
+                char c = description.charAt(i);
+                if (Character.isLetter(c)) {
+                    if (space && key.length() > 0) {
+                        key.append(' ');
+                    }
+                    key.append(Character.toLowerCase(c));
+                    space = false;
+                } else {
+                    space = true;
+                }
+            }
+        }
+        return key.append('|').append(Math.round(amount)).toString();
+    }
+
+    // Intervals in days, ignoring repeats within a day (e.g. a payment retried after a failure)
+    private static double[] intervalsOf(long[] times) {
+        double[] intervals = new double[Math.max(0, times.length - 1)];
+        int count = 0;
+        long previous = times.length > 0 ? times[0] : 0;
+        for (int i = 1; i < times.length; i++) {
+            if (times[i] - previous >= DAY_MILLIS) {
+                intervals[count++] = (times[i] - previous) / (double) DAY_MILLIS;
+                previous = times[i];
+            }
+        }
+        return Arrays.copyOf(intervals, count);
+    }
+
+    private static Periodicity detect(double[] intervals) {
+        if (intervals.length < MIN_OCCURRENCES - 1) {
+            return null;
+        }
+        double[] sorted = intervals.clone();
+        Arrays.sort(sorted);
+        double median = sorted.length % 2 == 1
+                ? sorted[sorted.length / 2]
+                : (sorted[sorted.length / 2 - 1] + sorted[sorted.length / 2]) / 2;
+        for (Periodicity periodicity : Periodicity.values()) {
+            if (periodicity.contains(median)) {
+                long agreeing = Arrays.stream(intervals).filter(periodicity::contains).count();
+                return agreeing >= Math.ceil(intervals.length * MIN_AGREEMENT) ? periodicity : null;
+            }
+        }
+        return null;
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static final class AccountPayments {
+        // Access-ordered, so the least recently paid fingerprint is dropped first
+        private final LinkedHashMap<String, Occurrences> byFingerprint = new LinkedHashMap<>(16, 0.75f, true);
+
+        synchronized void add(String fingerprint, String description, String merchantName, double amount,
+                long timestampMillis) {
+            byFingerprint.computeIfAbsent(fingerprint, key -> new Occurrences())
+                    .add(description, merchantName, amount, timestampMillis);
+            if (byFingerprint.size() > MAX_FINGERPRINTS_PER_ACCOUNT) {
+                Map.Entry<String, Occurrences> eldest = byFingerprint.entrySet().iterator().next();
+                byFingerprint.remove(eldest.getKey());
+            }
+        }
+
+        synchronized Occurrences get(String fingerprint) {
+            Occurrences occurrences = byFingerprint.get(fingerprint);
+            return occurrences != null ? occurrences.copy() : null;
+        }
+
+        synchronized List<Occurrences> snapshot() {
+            return byFingerprint.values().stream().map(Occurrences::copy).toList();
+        }
+
+        // Returns true when nothing is left
+        synchronized boolean expire(long cutoff) {
+            byFingerprint.values().removeIf(occurrences -> occurrences.expire(cutoff));
+            return byFingerprint.isEmpty();
+        }
+    }
+
+    // Most recent occurrence times in ascending order; guarded by the owning AccountPayments
+    private static final class Occurrences {
+        private long[] times = new long[0];
+        private String description;
+        private String merchantName;
+        private double amount;
+
+        void add(String description, String merchantName, double amount, long timestampMillis) {
+            int at = Arrays.binarySearch(times, timestampMillis);
+            if (at < 0) {
+                at = -at - 1;
+            }
+            long[] grown = new long[times.length + 1];
+            System.arraycopy(times, 0, grown, 0, at);
+            grown[at] = timestampMillis;
+            System.arraycopy(times, at, grown, at + 1, times.length - at);
+            times = grown.length > MAX_OCCURRENCES ? Arrays.copyOfRange(grown, 1, grown.length) : grown;
+            if (at == grown.length - 1) {
+                // Keep the latest payment's details for display
+                this.description = description;
+                this.merchantName = merchantName;
+                this.amount = amount;
+            }
+        }
+
+        long[] withCandidate(long timestampMillis) {
+            Occurrences copy = copy();
+            copy.add(description, merchantName, amount, timestampMillis);
+            return copy.times;
+        }
+
+        long[] times() {
+            return times;
+        }
+
+        boolean expire(long cutoff) {
+            int keep = 0;
+            while (keep < times.length && times[keep] <= cutoff) {
+                keep++;
+            }
+            times = Arrays.copyOfRange(times, keep, times.length);
+            return times.length == 0;
+        }
+
+        Occurrences copy() {
+            Occurrences copy = new Occurrences();
+            copy.times = times;
+            copy.description = description;
+            copy.merchantName = merchantName;
+            copy.amount = amount;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.bankapp.onlinebanking.service;
+
+import java.util.UUID;
+
+// Reference numbers stamped on transactions and bulk transfer batches
+public final class ReferenceNumbers {
+
+    private ReferenceNumbers() {
+    }
+
+    public static String generate() {
+        return "TXN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
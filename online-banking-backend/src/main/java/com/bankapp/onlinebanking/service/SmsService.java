@@ -2,10 +2,13 @@ package com.bankapp.onlinebanking.service;
 
 import com.bankapp.onlinebanking.entity.Transaction;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface SmsService {
     void sendTransactionAlert(String phoneNumber, Transaction transaction);
 
     void sendTwoFactorCode(String phoneNumber, String code);
 
-    void sendSms(String phoneNumber, String message);
+    // Completes once the provider accepted the message
+    CompletableFuture<Void> sendSms(String phoneNumber, String message);
 }
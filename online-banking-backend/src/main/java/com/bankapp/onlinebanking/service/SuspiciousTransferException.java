@@ -0,0 +1,9 @@
+package com.bankapp.onlinebanking.service;
+
+// Thrown when the fraud rules block a transfer before any money moved, e.g. to answer 403
+public class SuspiciousTransferException extends RuntimeException {
+
+    public SuspiciousTransferException(String message) {
+        super(message);
+    }
+}
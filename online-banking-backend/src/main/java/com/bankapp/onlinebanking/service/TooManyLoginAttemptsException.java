@@ -0,0 +1,9 @@
+package com.bankapp.onlinebanking.service;
+
+// Login refused without checking the password because of recent failures for the username or address
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    public TooManyLoginAttemptsException() {
+        super("Too many failed login attempts, try again later");
+    }
+}
@@ -1,19 +1,31 @@
 package com.bankapp.onlinebanking.service;
 
 import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.AccountEntry;
 import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.model.BulkTransferItem;
+import com.bankapp.onlinebanking.model.TransactionCursor;
+import com.bankapp.onlinebanking.repository.AccountEntryRepository;
 import com.bankapp.onlinebanking.repository.AccountRepository;
 import com.bankapp.onlinebanking.repository.TransactionRepository;
+import com.bankapp.onlinebanking.service.categorization.MerchantCategorizer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,28 +38,69 @@ public class TransactionService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private AccountEntryRepository accountEntryRepository;
+
     @Autowired
     private FraudDetectionService fraudDetectionService;
 
     @Autowired
     private NotificationService notificationService;
 
-    // Category mapping for auto-categorization
-    private static final Map<String, String> MERCHANT_CATEGORIES = Map.of(
-            "walmart", "GROCERIES",
-            "target", "SHOPPING",
-            "mcdonalds", "DINING",
-            "starbucks", "DINING",
-            "shell", "GAS",
-            "exxon", "GAS",
-            "amazon", "SHOPPING",
-            "netflix", "ENTERTAINMENT",
-            "spotify", "ENTERTAINMENT",
-            "uber", "TRANSPORTATION");
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-    @Transactional
+    @Autowired
+    private PartitionedTransferExecutor partitionedTransferExecutor;
+
+    @Autowired
+    private VelocityTracker velocityTracker;
+
+    @Autowired
+    private AccountAmountStatsService accountAmountStatsService;
+
+    @Autowired
+    private AccountRollupService accountRollupService;
+
+    @Autowired
+    private MerchantCategorizer merchantCategorizer;
+
+    @Autowired
+    private RecurringPaymentIndex recurringPaymentIndex;
+
+    @Autowired
+    private TransferMetrics transferMetrics;
+
+    @Value("${app.transfer.bulk.max-items:5000}")
+    private int maxBulkTransferItems;
+
+    @PostConstruct
+    public void init() {
+        partitionedTransferExecutor.setListener(new PartitionedTransferExecutor.CrossPartitionListener() {
+            @Override
+            public void credited(Transaction transaction) {
+                completeCredit(transaction);
+            }
+
+            @Override
+            public void creditCommitted(Transaction transaction) {
+                recordCreditedAmount(transaction);
+            }
+
+            @Override
+            public void refunded(Transaction transaction) {
+                refundTransfer(transaction);
+            }
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Transaction createTransaction(Account sender, Account recipient, Double amount, String type,
             String description) {
+        long started = System.nanoTime();
         Transaction transaction = new Transaction();
         transaction.setSender(sender);
         transaction.setRecipient(recipient);
@@ -56,66 +109,409 @@ public class TransactionService {
         transaction.setStatus("PENDING");
         transaction.setTransactionType(type);
         transaction.setDescription(description);
-        transaction.setReferenceNumber(generateReferenceNumber());
+        transaction.setReferenceNumber(ReferenceNumbers.generate());
 
         // Auto-categorize transaction
         transaction.setCategory(autoCategorizeTransaction(description));
 
         // Extract merchant name if possible
-        transaction.setMerchantName(extractMerchantName(description));
+        transaction.setMerchantName(MerchantNames.extract(description));
+        transferMetrics.record(TransferMetrics.CREATE_TRANSACTION, "prepare", started);
+
+        Transaction result;
+        try {
+            result = processTransaction(transaction);
+        } catch (RuntimeException e) {
+            transferMetrics.outcome(TransferMetrics.CREATE_TRANSACTION, "ERROR");
+            throw e;
+        } finally {
+            transferMetrics.record(TransferMetrics.CREATE_TRANSACTION, "total", started);
+        }
+        transferMetrics.outcome(TransferMetrics.CREATE_TRANSACTION, result.getStatus());
+
+        // Every stored transaction counts towards the sender's velocity, whatever its outcome
+        velocityTracker.record(sender.getId(), amount);
+        return result;
+    }
+
+    private Transaction processTransaction(Transaction transaction) {
+        Account sender = transaction.getSender();
+        Account recipient = transaction.getRecipient();
 
         // Check for fraud
-        boolean isFraudulent = fraudDetectionService.analyzeTransaction(transaction);
+        boolean isFraudulent = transferMetrics.time(TransferMetrics.CREATE_TRANSACTION, "fraud_check",
+                () -> fraudDetectionService.analyzeTransaction(transaction));
 
         if (isFraudulent) {
             transaction.setStatus("FLAGGED");
+            return transactionTemplate.execute(status -> {
+                notificationService.createNotification(
+                        sender,
+                        "Suspicious transaction detected and blocked. Please contact support.",
+                        "SECURITY",
+                        "CRITICAL");
+                return recordEntries(transactionRepository.save(transaction));
+            });
+        }
+
+        if (!"TRANSFER".equals(transaction.getTransactionType())) {
+            return transactionTemplate.execute(status -> recordEntries(transactionRepository.save(transaction)));
+        }
+
+        // Notifications are outbox rows written in the transfer's own transaction,
+        // so they are only delivered if the transfer commits
+        if (partitionedTransferExecutor.isEnabled()) {
+            // Hand off to the sender's single-writer partition, which group-commits its queue.
+            // Queueing, the group commit and the recipient credit of same-partition transfers
+            return transferMetrics.time(TransferMetrics.CREATE_TRANSACTION, "partition_handoff",
+                    () -> partitionedTransferExecutor.execute(transaction, this::completeTransfer));
+        }
+
+        // Process transaction while both accounts are locked, committing before the locks are released
+        Long recipientId = recipient != null ? recipient.getId() : null;
+        long lockRequested = System.nanoTime();
+        return accountLockManager.executeLocked(sender.getId(), recipientId, () -> {
+            transferMetrics.record(TransferMetrics.CREATE_TRANSACTION, "lock_wait", lockRequested);
+            return transactionTemplate.execute(status -> {
+                transferMetrics.timeCommit(TransferMetrics.CREATE_TRANSACTION);
+                Transaction applied = transferMetrics.time(TransferMetrics.CREATE_TRANSACTION, "balance_update",
+                        () -> applyTransfer(transaction));
+                return completeTransfer(applied);
+            });
+        });
+    }
+
+    // Runs in the transaction that applied the transfer, once the sender has been debited or refused.
+    // A cross-partition transfer is still PENDING here and is finished by completeCredit.
+    private Transaction completeTransfer(Transaction transaction) {
+        boolean failed = "FAILED".equals(transaction.getStatus());
+        if (!failed) {
+            // Compared with the sender's earlier payments before this one is indexed along with its entries
+            checkRecurringPattern(transaction);
+        }
+
+        long entriesStarted = System.nanoTime();
+        recordEntries(transaction);
+        transferMetrics.record(TransferMetrics.CREATE_TRANSACTION, "entries", entriesStarted);
+
+        if (failed) {
+            long notificationsStarted = System.nanoTime();
             notificationService.createNotification(
-                    sender,
-                    "Suspicious transaction detected and blocked. Please contact support.",
-                    "SECURITY",
-                    "CRITICAL");
-        } else {
-            // Process transaction
-            if ("TRANSFER".equals(type)) {
-                if (sender.getBalance() < amount) {
-                    transaction.setStatus("FAILED");
-                    transaction.setDescription("Insufficient funds");
-
-                    notificationService.createNotification(
-                            sender,
-                            "Transaction failed: Insufficient funds",
-                            "TRANSACTION",
-                            "WARNING");
-                } else {
-                    sender.setBalance(sender.getBalance() - amount);
-                    if (recipient != null) {
-                        recipient.setBalance(recipient.getBalance() + amount);
-                        accountRepository.save(recipient);
-                    }
-                    transaction.setBalanceAfter(sender.getBalance());
-                    accountRepository.save(sender);
-                    transaction.setStatus("COMPLETED");
-
-                    // Check if this might be a recurring transaction
-                    checkRecurringPattern(transaction);
-
-                    // Notify both parties
-                    notificationService.createTransactionNotification(transaction);
-
-                    if (recipient != null) {
-                        notificationService.createNotification(
-                                recipient,
-                                String.format("You received $%.2f from %s",
-                                        amount,
-                                        sender.getAccountHolderName()),
-                                "TRANSACTION",
-                                "INFO");
-                    }
+                    transaction.getSender(),
+                    "Transaction failed: Insufficient funds",
+                    "TRANSACTION",
+                    "WARNING");
+            transferMetrics.record(TransferMetrics.CREATE_TRANSACTION, "notifications", notificationsStarted);
+            return transaction;
+        }
+
+        // Notify both parties; the sender of a cross-partition transfer is told it is pending
+        long notificationsStarted = System.nanoTime();
+        notificationService.createTransactionNotification(transaction);
+        if ("COMPLETED".equals(transaction.getStatus())) {
+            notifyRecipient(transaction);
+            // Both the locked path and the sender's partition hold the sender's lock here
+            accountAmountStatsService.record(transaction.getSender().getId(), transaction.getAmount());
+        }
+        transferMetrics.record(TransferMetrics.CREATE_TRANSACTION, "notifications", notificationsStarted);
+        return transaction;
+    }
+
+    // Runs in the transaction that credited the recipient of a cross-partition transfer
+    private void completeCredit(Transaction transaction) {
+        // Books the recipient's entry, written unbooked along with the sender's debit
+        Long recipientId = transaction.getRecipient().getId();
+        AccountEntry credit = accountEntryRepository.findByTransactionId(transaction.getId()).stream()
+                .filter(entry -> entry.getAccountId().equals(recipientId) && !entry.isBooked())
+                .findFirst()
+                .orElseGet(() -> newEntry(transaction, recipientId, transaction.getAmount(), false));
+        credit.setBooked(true);
+        saveEntries(List.of(credit));
+        recordRecurring(transaction);
+        notificationService.createTransactionNotification(transaction);
+        notifyRecipient(transaction);
+    }
+
+    // Runs once the credit has committed, outside the crediting partition's locks
+    private void recordCreditedAmount(Transaction transaction) {
+        Long senderId = transaction.getSender().getId();
+        accountLockManager.executeLocked(senderId, null, () -> transactionTemplate.execute(
+                status -> accountAmountStatsService.record(senderId, transaction.getAmount())));
+    }
+
+    // Runs in the transaction that refunded the sender of a cross-partition transfer whose credit failed
+    private void refundTransfer(Transaction transaction) {
+        // The transfer moved no money in the end, so its debit leaves the rollups and stays in history unbooked
+        List<AccountEntry> entries = accountEntryRepository.findByTransactionId(transaction.getId());
+        accountRollupService.remove(entries);
+        entries.forEach(entry -> entry.setBooked(false));
+        accountEntryRepository.saveAll(entries);
+
+        notificationService.createNotification(
+                transaction.getSender(),
+                String.format("Your transfer of $%.2f could not be completed and was refunded",
+                        transaction.getAmount()),
+                "TRANSACTION",
+                "WARNING");
+    }
+
+    private void notifyRecipient(Transaction transaction) {
+        if (transaction.getRecipient() != null) {
+            notificationService.createNotification(
+                    transaction.getRecipient(),
+                    String.format("You received $%.2f from %s",
+                            transaction.getAmount(),
+                            transaction.getSender().getAccountHolderName()),
+                    "TRANSACTION",
+                    "INFO");
+        }
+    }
+
+    // Must run with the sender and recipient locks held, inside a transaction
+    private Transaction applyTransfer(Transaction transaction) {
+        // Re-read the balances now that no other transfer can touch these accounts
+        Account sender = accountRepository.findById(transaction.getSender().getId())
+                .orElseThrow(() -> new RuntimeException("Sender account not found"));
+        transaction.setSender(sender);
+
+        Account recipient = null;
+        if (transaction.getRecipient() != null) {
+            recipient = accountRepository.findById(transaction.getRecipient().getId())
+                    .orElseThrow(() -> new RuntimeException("Recipient account not found"));
+            transaction.setRecipient(recipient);
+        }
+
+        Double amount = transaction.getAmount();
+        if (sender.getBalance() < amount) {
+            transaction.setStatus("FAILED");
+            transaction.setDescription("Insufficient funds");
+            return transactionRepository.save(transaction);
+        }
+
+        sender.setBalance(sender.getBalance() - amount);
+        if (recipient != null) {
+            recipient.setBalance(recipient.getBalance() + amount);
+            accountRepository.save(recipient);
+        }
+        transaction.setBalanceAfter(sender.getBalance());
+        accountRepository.save(sender);
+        transaction.setStatus("COMPLETED");
+
+        return transactionRepository.save(transaction);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> createBulkTransfer(Long senderId, List<BulkTransferItem> items, String ipAddress) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Bulk transfer must contain at least one payment");
+        }
+        if (items.size() > maxBulkTransferItems) {
+            throw new IllegalArgumentException(
+                    "Bulk transfer cannot contain more than " + maxBulkTransferItems + " payments");
+        }
+
+        // Validate the whole batch before anything is locked
+        double total = 0.0;
+        Map<Long, Double> recipientTotals = new LinkedHashMap<>();
+        Set<Long> accountIds = new LinkedHashSet<>();
+        accountIds.add(senderId);
+        for (BulkTransferItem item : items) {
+            if (item.getToAccountId() == null) {
+                throw new IllegalArgumentException("Every payment needs a recipient account");
+            }
+            if (item.getAmount() == null || item.getAmount() <= 0) {
+                throw new IllegalArgumentException("Transfer amount must be greater than zero");
+            }
+            if (item.getToAccountId().equals(senderId)) {
+                throw new IllegalArgumentException("Cannot transfer to the sending account");
+            }
+            total += item.getAmount();
+            recipientTotals.merge(item.getToAccountId(), item.getAmount(), Double::sum);
+            accountIds.add(item.getToAccountId());
+        }
+
+        Account sender = accountRepository.findById(senderId)
+                .orElseThrow(() -> new AccountNotFoundException(senderId));
+        Map<Long, Account> recipients = new HashMap<>();
+        for (Account recipient : accountRepository.findAllById(recipientTotals.keySet())) {
+            recipients.put(recipient.getId(), recipient);
+        }
+
+        // Fraud rules run against each recipient's cumulative total, so payments split into
+        // several small items are judged together. A total is never smaller than any of its items.
+        // The rules raise the account holder's alert themselves, once for the first flagged total.
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Double> recipientTotal : recipientTotals.entrySet()) {
+            Account recipient = recipients.get(recipientTotal.getKey());
+            if (recipient == null) {
+                throw new IllegalArgumentException("Recipient account not found: " + recipientTotal.getKey());
+            }
+            Transaction probe = new Transaction();
+            probe.setSender(sender);
+            probe.setRecipient(recipient);
+            probe.setAmount(recipientTotal.getValue());
+            probe.setTimestamp(now);
+            probe.setTransactionType("TRANSFER");
+            probe.setIpAddress(ipAddress);
+            if (fraudDetectionService.analyzeTransaction(probe)) {
+                throw new SuspiciousTransferException("Bulk transfer flagged as suspicious: " + probe.getFraudReason()
+                        + " (payments to account " + recipientTotal.getKey() + ")");
+            }
+        }
+
+        String batchReference = ReferenceNumbers.generate();
+        double batchTotal = total;
+        List<Transaction> transactions = accountLockManager.executeLocked(accountIds,
+                () -> transactionTemplate.execute(
+                        status -> applyBulkTransfer(senderId, accountIds, items, batchTotal, batchReference, ipAddress)));
+
+        for (Transaction transaction : transactions) {
+            velocityTracker.record(senderId, transaction.getAmount());
+        }
+        double balanceAfter = transactions.get(transactions.size() - 1).getBalanceAfter();
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("batchReference", batchReference);
+        summary.put("paymentCount", transactions.size());
+        summary.put("totalAmount", batchTotal);
+        summary.put("balanceAfter", balanceAfter);
+        summary.put("status", "COMPLETED");
+        return summary;
+    }
+
+    // Must run with the sender and all recipient locks held, inside a transaction
+    private List<Transaction> applyBulkTransfer(Long senderId, Set<Long> accountIds, List<BulkTransferItem> items,
+            double total, String batchReference, String ipAddress) {
+        Map<Long, Account> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllById(accountIds)) {
+            accounts.put(account.getId(), account);
+        }
+
+        Account sender = accounts.get(senderId);
+        if (sender == null) {
+            throw new RuntimeException("Sender account not found");
+        }
+        if (sender.getBalance() < total) {
+            throw new RuntimeException("Insufficient funds in sender's account");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        double balance = sender.getBalance();
+        List<Transaction> transactions = new ArrayList<>(items.size());
+        for (BulkTransferItem item : items) {
+            Account recipient = accounts.get(item.getToAccountId());
+            if (recipient == null) {
+                throw new RuntimeException("Recipient account not found: " + item.getToAccountId());
+            }
+            balance -= item.getAmount();
+            recipient.setBalance(recipient.getBalance() + item.getAmount());
+
+            String description = item.getDescription() != null ? item.getDescription()
+                    : "Bulk transfer " + batchReference;
+            Transaction transaction = new Transaction();
+            transaction.setSender(sender);
+            transaction.setRecipient(recipient);
+            transaction.setAmount(item.getAmount());
+            transaction.setTimestamp(now);
+            transaction.setStatus("COMPLETED");
+            transaction.setTransactionType("TRANSFER");
+            transaction.setDescription(description);
+            transaction.setReferenceNumber(ReferenceNumbers.generate());
+            transaction.setCategory(autoCategorizeTransaction(description));
+            transaction.setMerchantName(MerchantNames.extract(description));
+            transaction.setBalanceAfter(balance);
+            transaction.setTags("BULK:" + batchReference);
+            transaction.setIpAddress(ipAddress);
+            transactions.add(transaction);
+        }
+        // One stats update and row write for the whole batch, in item order
+        accountAmountStatsService.recordAll(senderId, transactions.stream().map(Transaction::getAmount).toList());
+
+        // The sender is debited once for the whole batch
+        sender.setBalance(balance);
+        accountRepository.saveAll(accounts.values());
+
+        // One summary notification for the whole batch, committed with it
+        notificationService.createNotification(
+                sender,
+                String.format("Bulk transfer %s of %d payments totaling $%.2f was completed",
+                        batchReference, transactions.size(), total),
+                "TRANSACTION",
+                "INFO");
+
+        // Sent as JDBC batches thanks to the pooled id generators on Transaction and AccountEntry
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
+        recordEntries(saved);
+        return saved;
+    }
+
+    private Transaction recordEntries(Transaction transaction) {
+        recordEntries(List.of(transaction));
+        return transaction;
+    }
+
+    // Writes the per-account history rows and rollups of newly stored transactions, in the caller's transaction.
+    // Every party gets an entry so history and exports show all transactions, but only balances that changed
+    // are booked: nothing for FAILED or FLAGGED transactions, and only the sender's debit for a cross-partition
+    // transfer whose credit is still in flight. Such a transfer reaches the recurring payment index in
+    // completeCredit, like the index's warm-up only counts COMPLETED transactions.
+    private void recordEntries(List<Transaction> transactions) {
+        List<AccountEntry> entries = new ArrayList<>(transactions.size() * 2);
+        for (Transaction transaction : transactions) {
+            boolean completed = "COMPLETED".equals(transaction.getStatus());
+            boolean debited = completed
+                    || ("PENDING".equals(transaction.getStatus()) && transaction.getBalanceAfter() != null);
+            if (transaction.getSender() != null) {
+                entries.add(newEntry(transaction, transaction.getSender().getId(), -transaction.getAmount(), debited));
+                if (completed) {
+                    recordRecurring(transaction);
                 }
             }
+            if (transaction.getRecipient() != null) {
+                entries.add(newEntry(transaction, transaction.getRecipient().getId(), transaction.getAmount(),
+                        completed));
+            }
         }
+        saveEntries(entries);
+    }
 
-        return transactionRepository.save(transaction);
+    // The index is in memory, so the payment only reaches it once the booking transaction has committed
+    private void recordRecurring(Transaction transaction) {
+        Long senderId = transaction.getSender().getId();
+        String description = transaction.getDescription();
+        String merchantName = transaction.getMerchantName();
+        Double amount = transaction.getAmount();
+        LocalDateTime timestamp = transaction.getTimestamp();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recurringPaymentIndex.record(senderId, description, merchantName, amount, timestamp);
+                }
+            });
+        } else {
+            recurringPaymentIndex.record(senderId, description, merchantName, amount, timestamp);
+        }
+    }
+
+    private void saveEntries(List<AccountEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        accountEntryRepository.saveAll(entries);
+        // One rollup update per account, month and category across the whole list; unbooked entries are skipped
+        accountRollupService.record(entries);
+    }
+
+    private AccountEntry newEntry(Transaction transaction, Long accountId, double signedAmount, boolean booked) {
+        AccountEntry entry = new AccountEntry();
+        entry.setAccountId(accountId);
+        entry.setTransaction(transaction);
+        entry.setTimestamp(transaction.getTimestamp());
+        entry.setAmount(signedAmount);
+        entry.setCategory(transaction.getCategory());
+        entry.setBooked(booked);
+        return entry;
     }
 
     public Page<Transaction> getTransactionsByAccountWithFilters(
@@ -126,11 +522,44 @@ public class TransactionService {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
-        return transactionRepository.findTransactionsWithFilters(
-                account, search, type, status, category,
+        return accountEntryRepository.findTransactionsWithFilters(
+                account.getId(), search, type, status, category,
                 startDate, endDate, minAmount, maxAmount, pageable);
     }
 
+    // Cursor-paged history: cost does not grow with depth and there is no count query.
+    // A null or empty cursor starts from the newest transaction.
+    public Map<String, Object> getTransactionsByAccountAfterCursor(
+            Long accountId, String cursor, int pageSize, String search, String type,
+            String status, String category, LocalDateTime startDate,
+            LocalDateTime endDate, Double minAmount, Double maxAmount) {
+
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+
+        TransactionCursor after = cursor == null || cursor.isEmpty() ? null : TransactionCursor.decode(cursor);
+        Slice<Transaction> slice = accountEntryRepository.findTransactionsWithFiltersAfter(
+                account.getId(),
+                after != null ? after.timestamp() : null,
+                after != null ? after.id() : null,
+                search, type, status, category, startDate, endDate, minAmount, maxAmount,
+                PageRequest.of(0, pageSize));
+
+        List<Transaction> content = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            Transaction last = content.get(content.size() - 1);
+            nextCursor = new TransactionCursor(last.getTimestamp(), last.getId()).encode();
+        }
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("content", content);
+        page.put("size", content.size());
+        page.put("hasNext", slice.hasNext());
+        page.put("nextCursor", nextCursor);
+        return page;
+    }
+
     public Transaction getTransactionById(Long id) {
         return transactionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
@@ -140,6 +569,8 @@ public class TransactionService {
     public Transaction categorizeTransaction(Long transactionId, String category) {
         Transaction transaction = getTransactionById(transactionId);
         transaction.setCategory(category);
+        accountRollupService.recategorize(accountEntryRepository.findByTransactionId(transactionId), category);
+        accountEntryRepository.updateCategory(transactionId, category);
         return transactionRepository.save(transaction);
     }
 
@@ -162,38 +593,23 @@ public class TransactionService {
         return transactionRepository.save(transaction);
     }
 
-    public byte[] exportTransactions(Long accountId, LocalDateTime startDate,
-            LocalDateTime endDate, String format) throws Exception {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
-
-        List<Transaction> transactions = transactionRepository.findTransactionsForExport(
-                account, startDate, endDate);
-
-        if ("csv".equalsIgnoreCase(format)) {
-            return exportToCsv(transactions);
-        } else {
-            return exportToJson(transactions);
-        }
-    }
-
     public List<Map<String, Object>> detectRecurringTransactions(Long accountId) {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
-        LocalDateTime threeMonthsAgo = LocalDateTime.now().minusMonths(3);
-        List<Object[]> results = transactionRepository.findPotentialRecurringTransactions(
-                account, threeMonthsAgo, 3L);
-
         List<Map<String, Object>> recurringTransactions = new ArrayList<>();
-        for (Object[] result : results) {
+        for (RecurringPaymentIndex.RecurringPayment payment : recurringPaymentIndex.getRecurringPayments(
+                account.getId())) {
             Map<String, Object> recurring = new HashMap<>();
-            recurring.put("description", result[0]);
-            recurring.put("amount", result[1]);
-            recurring.put("merchantName", result[2]);
-            recurring.put("frequency", result[3]);
-            recurring.put("firstTransaction", result[4]);
-            recurring.put("lastTransaction", result[5]);
+            recurring.put("description", payment.description());
+            recurring.put("amount", payment.amount());
+            recurring.put("merchantName", payment.merchantName());
+            recurring.put("frequency", payment.occurrences());
+            recurring.put("firstTransaction", payment.firstOccurrence());
+            recurring.put("lastTransaction", payment.lastOccurrence());
+            recurring.put("pattern", payment.periodicity());
+            recurring.put("averageIntervalDays", payment.averageIntervalDays());
+            recurring.put("nextExpected", payment.nextExpected());
             recurringTransactions.add(recurring);
         }
 
@@ -204,22 +620,12 @@ public class TransactionService {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        List<Object[]> categoryData = transactionRepository.findCategoryAnalysis(
-                account, startOfMonth, null);
+        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).toLocalDate().atStartOfDay();
+        List<AccountRollupService.Summary> summaries = accountRollupService.summarize(
+                account.getId(), startOfMonth, null);
 
         Map<String, Object> summary = new HashMap<>();
-        List<Map<String, Object>> categories = new ArrayList<>();
-
-        for (Object[] data : categoryData) {
-            Map<String, Object> category = new HashMap<>();
-            category.put("category", data[0]);
-            category.put("count", data[1]);
-            category.put("totalAmount", data[2]);
-            categories.add(category);
-        }
-
-        summary.put("categories", categories);
+        summary.put("categories", categoryBreakdown(summaries));
         summary.put("period", "Current Month");
         return summary;
     }
@@ -237,165 +643,87 @@ public class TransactionService {
             endDate = LocalDateTime.now();
         }
 
+        List<AccountRollupService.Summary> summaries = accountRollupService.summarize(
+                account.getId(), startDate, endDate);
         Map<String, Object> analytics = new HashMap<>();
 
-        // Basic stats
-        Long totalTransactions = transactionRepository.countTransactionsByDateRange(account, startDate, endDate);
-        Double totalSpent = transactionRepository.sumTransactionsByDateRange(account, startDate, endDate);
+        // Basic stats, outgoing entries only
+        long totalTransactions = 0;
+        BigDecimal totalSpent = BigDecimal.ZERO;
+        TreeMap<Integer, BigDecimal> spendingByPeriod = new TreeMap<>();
+        for (AccountRollupService.Summary summary : summaries) {
+            if (summary.outgoingCount() > 0) {
+                totalTransactions += summary.outgoingCount();
+                totalSpent = totalSpent.add(summary.outgoingAmount());
+                spendingByPeriod.merge(summary.period(), summary.outgoingAmount(), BigDecimal::add);
+            }
+        }
 
         analytics.put("totalTransactions", totalTransactions);
-        analytics.put("totalSpent", totalSpent != null ? totalSpent : 0.0);
-        analytics.put("averageTransaction",
-                totalTransactions > 0 ? (totalSpent != null ? totalSpent : 0.0) / totalTransactions : 0.0);
+        analytics.put("totalSpent", totalSpent);
+        analytics.put("averageTransaction", totalTransactions > 0
+                ? totalSpent.divide(BigDecimal.valueOf(totalTransactions), 2, RoundingMode.HALF_EVEN)
+                : BigDecimal.ZERO);
 
         // Monthly breakdown
-        List<Object[]> monthlyData = transactionRepository.findMonthlySpending(account, startDate);
         List<Map<String, Object>> monthlySpending = new ArrayList<>();
-
-        for (Object[] data : monthlyData) {
+        spendingByPeriod.forEach((period, amount) -> {
             Map<String, Object> month = new HashMap<>();
-            month.put("year", data[0]);
-            month.put("month", data[1]);
-            month.put("amount", data[2]);
+            month.put("year", period / 100);
+            month.put("month", period % 100);
+            month.put("amount", amount);
             monthlySpending.add(month);
-        }
+        });
 
         analytics.put("monthlySpending", monthlySpending);
 
         // Category breakdown
-        List<Object[]> categoryData = transactionRepository.findCategoryAnalysis(account, startDate, endDate);
-        List<Map<String, Object>> categoryBreakdown = new ArrayList<>();
-
-        for (Object[] data : categoryData) {
-            Map<String, Object> category = new HashMap<>();
-            category.put("category", data[0]);
-            category.put("count", data[1]);
-            category.put("totalAmount", data[2]);
-            categoryBreakdown.add(category);
-        }
-
-        analytics.put("categoryBreakdown", categoryBreakdown);
+        analytics.put("categoryBreakdown", categoryBreakdown(summaries));
 
         return analytics;
     }
 
-    // Helper methods
-    private String generateReferenceNumber() {
-        return "TXN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
-
-    private String autoCategorizeTransaction(String description) {
-        if (description == null)
-            return "OTHER";
-
-        String lowerDesc = description.toLowerCase();
-
-        for (Map.Entry<String, String> entry : MERCHANT_CATEGORIES.entrySet()) {
-            if (lowerDesc.contains(entry.getKey())) {
-                return entry.getValue();
+    // Categorized totals in both directions, largest first
+    private List<Map<String, Object>> categoryBreakdown(List<AccountRollupService.Summary> summaries) {
+        Map<String, long[]> counts = new HashMap<>();
+        Map<String, BigDecimal> amounts = new HashMap<>();
+        for (AccountRollupService.Summary summary : summaries) {
+            if (summary.category() != null && summary.entryCount() > 0) {
+                counts.computeIfAbsent(summary.category(), c -> new long[1])[0] += summary.entryCount();
+                amounts.merge(summary.category(), summary.totalAmount(), BigDecimal::add);
             }
         }
 
-        // Additional pattern matching
-        if (lowerDesc.contains("grocery") || lowerDesc.contains("supermarket")) {
-            return "GROCERIES";
-        } else if (lowerDesc.contains("gas") || lowerDesc.contains("fuel")) {
-            return "GAS";
-        } else if (lowerDesc.contains("restaurant") || lowerDesc.contains("cafe")) {
-            return "DINING";
-        } else if (lowerDesc.contains("transfer")) {
-            return "TRANSFER";
-        } else if (lowerDesc.contains("atm") || lowerDesc.contains("withdrawal")) {
-            return "ATM";
-        }
-
-        return "OTHER";
+        List<Map<String, Object>> categories = new ArrayList<>();
+        amounts.entrySet().stream()
+                .sorted(Map.Entry.<String, BigDecimal>comparingByValue().reversed())
+                .forEach(entry -> {
+                    Map<String, Object> category = new HashMap<>();
+                    category.put("category", entry.getKey());
+                    category.put("count", counts.get(entry.getKey())[0]);
+                    category.put("totalAmount", entry.getValue());
+                    categories.add(category);
+                });
+        return categories;
     }
 
-    private String extractMerchantName(String description) {
-        if (description == null)
-            return null;
-
-        // Simple extraction - in a real app, you'd use more sophisticated parsing
-        String[] parts = description.split(" ");
-        return parts.length > 0 ? parts[0] : description;
+    // Helper methods
+    private String autoCategorizeTransaction(String description) {
+        return merchantCategorizer.categorize(description);
     }
 
     private void checkRecurringPattern(Transaction transaction) {
-        LocalDateTime twoMonthsAgo = LocalDateTime.now().minusMonths(2);
-        List<Transaction> similarTransactions = transactionRepository.findSimilarRecentTransactions(
-                transaction.getSender(),
+        long started = System.nanoTime();
+        RecurringPaymentIndex.Periodicity periodicity = recurringPaymentIndex.classify(
+                transaction.getSender().getId(),
                 transaction.getDescription(),
                 transaction.getAmount(),
-                twoMonthsAgo);
+                transaction.getTimestamp());
 
-        if (similarTransactions.size() >= 2) {
+        if (periodicity != null) {
             transaction.setIsRecurring(true);
-            transaction.setRecurringPattern("MONTHLY"); // Simplified pattern detection
+            transaction.setRecurringPattern(periodicity.name());
         }
+        transferMetrics.record(TransferMetrics.CREATE_TRANSACTION, "recurring_check", started);
     }
-
-    private byte[] exportToCsv(List<Transaction> transactions) throws Exception {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintWriter writer = new PrintWriter(baos);
-
-        // CSV Header
-        writer.println("Date,Description,Amount,Type,Category,Status,Reference");
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-        for (Transaction transaction : transactions) {
-            writer.printf("%s,%s,%.2f,%s,%s,%s,%s%n",
-                    transaction.getTimestamp().format(formatter),
-                    escapeCommas(transaction.getDescription()),
-                    transaction.getAmount(),
-                    transaction.getTransactionType(),
-                    transaction.getCategory() != null ? transaction.getCategory() : "OTHER",
-                    transaction.getStatus(),
-                    transaction.getReferenceNumber());
-        }
-
-        writer.flush();
-        writer.close();
-        return baos.toByteArray();
-    }
-
-    private byte[] exportToJson(List<Transaction> transactions) throws Exception {
-        // Simple JSON export - in production, use Jackson or similar
-        StringBuilder json = new StringBuilder();
-        json.append("[\n");
-
-        for (int i = 0; i < transactions.size(); i++) {
-            Transaction t = transactions.get(i);
-            json.append("  {\n");
-            json.append("    \"date\": \"").append(t.getTimestamp()).append("\",\n");
-            json.append("    \"description\": \"").append(escapeJson(t.getDescription())).append("\",\n");
-            json.append("    \"amount\": ").append(t.getAmount()).append(",\n");
-            json.append("    \"type\": \"").append(t.getTransactionType()).append("\",\n");
-            json.append("    \"category\": \"").append(t.getCategory() != null ? t.getCategory() : "OTHER")
-                    .append("\",\n");
-            json.append("    \"status\": \"").append(t.getStatus()).append("\",\n");
-            json.append("    \"reference\": \"").append(t.getReferenceNumber()).append("\"\n");
-            json.append("  }");
-            if (i < transactions.size() - 1) {
-                json.append(",");
-            }
-            json.append("\n");
-        }
-
-        json.append("]");
-        return json.toString().getBytes();
-    }
-
-    private String escapeCommas(String value) {
-        if (value == null)
-            return "";
-        return value.contains(",") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
-    }
-
-    private String escapeJson(String value) {
-        if (value == null)
-            return "";
-        return value.replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r");
-    }
-}
\ No newline at end of file
+}
@@ -1,32 +1,24 @@
 package com.bankapp.onlinebanking.service;
 
 import com.bankapp.onlinebanking.entity.Account;
-import com.bankapp.onlinebanking.repository.AccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import java.security.SecureRandom;
-import java.time.LocalDateTime;
 
 @Service
 public class TwoFactorAuthService {
     
-    @Autowired
-    private AccountRepository accountRepository;
-    
     @Autowired
     private EmailService emailService;
     
     @Autowired
     private SmsService smsService;
     
-    private static final int SECRET_LENGTH = 6;
-    private static final int SECRET_EXPIRY_MINUTES = 5;
+    @Autowired
+    private TwoFactorCodeStore twoFactorCodeStore;
     
+    // The code lives in the in-memory store, so issuing and checking it no longer writes the account row
     public String generateAndSendSecret(Account account, String method) {
-        String secret = generateSecret();
-        account.setTwoFactorSecret(secret);
-        account.setSecretExpiry(LocalDateTime.now().plusMinutes(SECRET_EXPIRY_MINUTES));
-        accountRepository.save(account);
+        String secret = twoFactorCodeStore.issue(account.getId());
         
         if ("email".equals(method)) {
             emailService.sendTwoFactorCode(account.getEmail(), secret);
@@ -38,31 +30,6 @@ public class TwoFactorAuthService {
     }
     
     public boolean validateSecret(Account account, String providedSecret) {
-        if (account.getTwoFactorSecret() == null || 
-            account.getSecretExpiry().isBefore(LocalDateTime.now())) {
-            return false;
-        }
-        
-        boolean isValid = account.getTwoFactorSecret().equals(providedSecret);
-        if (isValid) {
-            // Clear the secret after successful validation
-            account.setTwoFactorSecret(null);
-            account.setSecretExpiry(null);
-            accountRepository.save(account);
-        }
-        
-        return isValid;
-    }
-    
-    private String generateSecret() {
-        SecureRandom random = new SecureRandom();
-        byte[] bytes = new byte[SECRET_LENGTH];
-        random.nextBytes(bytes);
-        // Generate a numeric code of length SECRET_LENGTH
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < SECRET_LENGTH; i++) {
-            sb.append(Math.abs(bytes[i] % 10));
-        }
-        return sb.toString();
+        return twoFactorCodeStore.verify(account.getId(), providedSecret);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,263 @@
+package com.bankapp.onlinebanking.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Pending two-factor codes, kept in memory instead of on the account row.
+ *
+ * Codes are held as HMAC-SHA256 digests keyed with app.twofactor.hmac-secret,
+ * so a leaked digest can't be reversed by trying all million codes, and are
+ * compared in constant time. Each code allows a limited number of attempts and
+ * is removed once used, exhausted or expired. Expiry runs on a hashed timing wheel: a code goes into the slot of
+ * its expiry tick and each tick only visits that slot, so expiring costs the
+ * same however many codes are pending. Verification checks the deadline too,
+ * so a late tick never lets an expired code through.
+ *
+ * Codes are lost on restart unless a {@link Persistence} bean is registered.
+ * Without a configured secret a random key is used, which is only safe when
+ * codes are not persisted, so a persistence bean requires the secret.
+ */
+@Component
+public class TwoFactorCodeStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoFactorCodeStore.class);
+
+    private static final int WHEEL_SLOTS = 512;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Optional durable copy of the pending codes. Only digests, deadlines and the
+     * remaining attempts are handed over; save is called again after every wrong
+     * attempt, so a restart does not hand out fresh attempts.
+     */
+    public interface Persistence {
+        void save(Long accountId, StoredCode code);
+
+        void delete(Long accountId);
+
+        Map<Long, StoredCode> loadAll();
+    }
+
+    public record StoredCode(byte[] digest, long expiresAtMillis, int attemptsLeft) {
+    }
+
+    private final long ttlMillis;
+    private final int maxAttempts;
+    private final long tickMillis;
+    private final LongSupplier clock;
+    private final SecretKeySpec hmacKey;
+    private final Persistence persistence;
+    private final ConcurrentHashMap<Long, PendingCode> codes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingCode>[] wheel;
+    private long lastTick;
+
+    @Autowired
+    public TwoFactorCodeStore(@Value("${app.twofactor.code-ttl:5m}") Duration ttl,
+            @Value("${app.twofactor.max-attempts:5}") int maxAttempts,
+            @Value("${app.twofactor.wheel-tick-ms:1000}") long tickMillis,
+            @Value("${app.twofactor.hmac-secret:}") String hmacSecret,
+            ObjectProvider<Persistence> persistence) {
+        this(ttl, maxAttempts, tickMillis, hmacKey(hmacSecret, persistence.getIfAvailable() != null),
+                persistence.getIfAvailable(), System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    TwoFactorCodeStore(Duration ttl, int maxAttempts, long tickMillis, byte[] hmacKey, Persistence persistence,
+            LongSupplier clock) {
+        if (maxAttempts < 1 || tickMillis < 1) {
+            throw new IllegalArgumentException("Attempts and wheel tick must be positive");
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.hmacKey = new SecretKeySpec(hmacKey, "HmacSHA256");
+        this.maxAttempts = maxAttempts;
+        this.tickMillis = tickMillis;
+        this.persistence = persistence;
+        this.clock = clock;
+        this.wheel = new ConcurrentLinkedQueue[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = clock.getAsLong() / tickMillis;
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (persistence == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        int restored = 0;
+        for (Map.Entry<Long, StoredCode> entry : persistence.loadAll().entrySet()) {
+            StoredCode stored = entry.getValue();
+            if (stored.expiresAtMillis() > now && stored.attemptsLeft() > 0) {
+                PendingCode pending = new PendingCode(entry.getKey(), stored.digest(), stored.expiresAtMillis(),
+                        Math.min(stored.attemptsLeft(), maxAttempts));
+                codes.put(pending.accountId, pending);
+                schedule(pending);
+                restored++;
+            } else {
+                persistence.delete(entry.getKey());
+            }
+        }
+        logger.info("Restored {} pending two-factor codes", restored);
+    }
+
+    // Issues a new six-digit code for the account, replacing any pending one
+    public String issue(Long accountId) {
+        String code = String.format("%06d", RANDOM.nextInt(1_000_000));
+        PendingCode pending = new PendingCode(accountId, digest(code), clock.getAsLong() + ttlMillis, maxAttempts);
+        // Persistence writes for an account run under the map's lock for its key, so they land in map order
+        codes.compute(accountId, (id, previous) -> {
+            if (persistence != null) {
+                persistence.save(id, pending.stored());
+            }
+            return pending;
+        });
+        schedule(pending);
+        return code;
+    }
+
+    // A code is accepted at most once; every call, right or wrong, uses up one attempt
+    public boolean verify(Long accountId, String providedCode) {
+        PendingCode pending = codes.get(accountId);
+        if (pending == null) {
+            return false;
+        }
+        if (pending.expiresAt <= clock.getAsLong()) {
+            remove(pending);
+            return false;
+        }
+
+        int attemptsLeft = pending.attemptsLeft.decrementAndGet();
+        if (attemptsLeft < 0) {
+            remove(pending);
+            return false;
+        }
+        boolean matches = providedCode != null && MessageDigest.isEqual(pending.digest, digest(providedCode));
+        if (matches) {
+            // Only the caller that removes the code gets to use it
+            return remove(pending);
+        }
+        if (attemptsLeft == 0) {
+            remove(pending);
+        } else if (persistence != null) {
+            codes.computeIfPresent(accountId, (id, current) -> {
+                if (current == pending) {
+                    persistence.save(id, pending.stored());
+                }
+                return current;
+            });
+        }
+        return false;
+    }
+
+    public int getPendingCount() {
+        return codes.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.twofactor.wheel-tick-ms:1000}")
+    public synchronized void advance() {
+        long now = clock.getAsLong();
+        long currentTick = now / tickMillis;
+        // After a long pause every slot is visited once, which covers the whole wheel
+        long from = Math.max(lastTick + 1, currentTick - WHEEL_SLOTS + 1);
+        for (long tick = from; tick <= currentTick; tick++) {
+            Iterator<PendingCode> slot = wheel[(int) (tick % WHEEL_SLOTS)].iterator();
+            while (slot.hasNext()) {
+                PendingCode pending = slot.next();
+                if (codes.get(pending.accountId) != pending) {
+                    // Already used, exhausted or replaced
+                    slot.remove();
+                } else if (pending.expiresAt <= now) {
+                    remove(pending);
+                    slot.remove();
+                }
+                // Otherwise it expires on a later turn of the wheel
+            }
+        }
+        lastTick = currentTick;
+    }
+
+    private void schedule(PendingCode pending) {
+        wheel[(int) ((pending.expiresAt / tickMillis) % WHEEL_SLOTS)].add(pending);
+    }
+
+    private boolean remove(PendingCode pending) {
+        boolean[] removed = new boolean[1];
+        codes.computeIfPresent(pending.accountId, (id, current) -> {
+            if (current != pending) {
+                return current;
+            }
+            if (persistence != null) {
+                persistence.delete(id);
+            }
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    private byte[] digest(String code) {
+        try {
+            // Mac instances are not thread-safe and cheap to create
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            return mac.doFinal(code.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static byte[] hmacKey(String secret, boolean persisted) {
+        if (secret != null && !secret.isBlank()) {
+            return Base64.getDecoder().decode(secret);
+        }
+        if (persisted) {
+            throw new IllegalStateException("app.twofactor.hmac-secret must be set when two-factor codes are persisted");
+        }
+        logger.warn("app.twofactor.hmac-secret is not set; using a random key, so pending codes do not survive a restart");
+        byte[] key = new byte[32];
+        RANDOM.nextBytes(key);
+        return key;
+    }
+
+    private static final class PendingCode {
+        final Long accountId;
+        final byte[] digest;
+        final long expiresAt;
+        final AtomicInteger attemptsLeft;
+
+        PendingCode(Long accountId, byte[] digest, long expiresAt, int attempts) {
+            this.accountId = accountId;
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+            this.attemptsLeft = new AtomicInteger(attempts);
+        }
+
+        StoredCode stored() {
+            return new StoredCode(digest, expiresAt, Math.max(attemptsLeft.get(), 0));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process sliding-window counters of outgoing transactions per account, used
+ * by the velocity fraud rule instead of loading recent transactions from the
+ * database on every transfer.
+ *
+ * Each account has a ring of fixed-size time buckets covering the configured
+ * horizon (one hour by default). Recording is lock-free: a stale bucket is
+ * swapped out with a CAS and counts and sums go into adders. Any window up to
+ * the horizon can be queried, with a resolution of one bucket.
+ *
+ * The state is per instance. It is rebuilt from the transactions table at
+ * startup, and accounts with no activity inside the horizon are evicted.
+ */
+@Component
+public class VelocityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(VelocityTracker.class);
+
+    private final TransactionRepository transactionRepository;
+    private final long bucketMillis;
+    private final long horizonMillis;
+    private final int bucketCount;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Long, AccountWindow> accounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public VelocityTracker(TransactionRepository transactionRepository,
+            @Value("${app.fraud.velocity.bucket-size:5s}") Duration bucketSize,
+            @Value("${app.fraud.velocity.horizon:1h}") Duration horizon) {
+        this(transactionRepository, bucketSize, horizon, System::currentTimeMillis);
+    }
+
+    // Standalone tracker without database warm-up, for tests and benchmarks
+    public VelocityTracker(Duration bucketSize, Duration horizon, LongSupplier clock) {
+        this(null, bucketSize, horizon, clock);
+    }
+
+    private VelocityTracker(TransactionRepository transactionRepository, Duration bucketSize, Duration horizon,
+            LongSupplier clock) {
+        if (bucketSize.toMillis() <= 0 || horizon.compareTo(bucketSize) < 0) {
+            throw new IllegalArgumentException("Velocity horizon must be at least one positive bucket long");
+        }
+        this.transactionRepository = transactionRepository;
+        this.bucketMillis = bucketSize.toMillis();
+        this.horizonMillis = horizon.toMillis();
+        // One extra bucket so the partially elapsed current bucket never overwrites the oldest full one
+        this.bucketCount = (int) ((horizonMillis + bucketMillis - 1) / bucketMillis) + 1;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (transactionRepository == null) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minus(Duration.ofMillis(horizonMillis));
+        ZoneId zone = ZoneId.systemDefault();
+        int loaded = 0;
+        for (Object[] row : transactionRepository.findSenderActivitySince(since)) {
+            Long accountId = (Long) row[0];
+            double amount = row[1] != null ? ((Number) row[1]).doubleValue() : 0.0;
+            long timestamp = ((LocalDateTime) row[2]).atZone(zone).toInstant().toEpochMilli();
+            record(accountId, amount, timestamp);
+            loaded++;
+        }
+        logger.info("Velocity tracker warmed with {} transactions for {} accounts", loaded, accounts.size());
+    }
+
+    public void record(Long accountId, double amount) {
+        record(accountId, amount, clock.getAsLong());
+    }
+
+    public void record(Long accountId, double amount, long timestampMillis) {
+        long now = clock.getAsLong();
+        if (accountId == null || timestampMillis <= now - horizonMillis) {
+            return;
+        }
+        accounts.computeIfAbsent(accountId, id -> new AccountWindow(bucketCount))
+                .add(Math.floorDiv(timestampMillis, bucketMillis), amount, now);
+    }
+
+    public long getCount(Long accountId, Duration window) {
+        return snapshot(accountId, window).count();
+    }
+
+    public double getAmount(Long accountId, Duration window) {
+        return snapshot(accountId, window).amount();
+    }
+
+    public Snapshot snapshot(Long accountId, Duration window) {
+        AccountWindow account = accounts.get(accountId);
+        if (account == null) {
+            return new Snapshot(0, 0.0);
+        }
+        long windowBuckets = Math.min(bucketCount, (window.toMillis() + bucketMillis - 1) / bucketMillis);
+        long newest = Math.floorDiv(clock.getAsLong(), bucketMillis);
+        return account.sum(newest - windowBuckets + 1, newest);
+    }
+
+    @Scheduled(fixedDelayString = "${app.fraud.velocity.eviction-interval-ms:60000}")
+    public void evictIdleAccounts() {
+        long cutoff = clock.getAsLong() - horizonMillis;
+        // A record racing with the removal of an idle account can be lost; that only
+        // happens at the horizon boundary, where the counts are already zero
+        accounts.forEach((id, account) -> {
+            if (account.lastUpdated < cutoff) {
+                accounts.remove(id, account);
+            }
+        });
+    }
+
+    public int getTrackedAccounts() {
+        return accounts.size();
+    }
+
+    public record Snapshot(long count, double amount) {
+    }
+
+    private static final class AccountWindow {
+        final AtomicReferenceArray<Bucket> buckets;
+        volatile long lastUpdated;
+
+        AccountWindow(int size) {
+            this.buckets = new AtomicReferenceArray<>(size);
+        }
+
+        void add(long epoch, double amount, long now) {
+            int slot = (int) Math.floorMod(epoch, (long) buckets.length());
+            while (true) {
+                Bucket bucket = buckets.get(slot);
+                if (bucket != null && bucket.epoch == epoch) {
+                    bucket.count.increment();
+                    bucket.amount.add(amount);
+                    lastUpdated = now;
+                    return;
+                }
+                if (bucket != null && bucket.epoch > epoch) {
+                    // The slot already holds a newer interval, so this event is out of range
+                    return;
+                }
+                buckets.compareAndSet(slot, bucket, new Bucket(epoch));
+            }
+        }
+
+        Snapshot sum(long fromEpoch, long toEpoch) {
+            long count = 0;
+            double amount = 0.0;
+            for (int i = 0; i < buckets.length(); i++) {
+                Bucket bucket = buckets.get(i);
+                if (bucket != null && bucket.epoch >= fromEpoch && bucket.epoch <= toEpoch) {
+                    count += bucket.count.sum();
+                    amount += bucket.amount.sum();
+                }
+            }
+            return new Snapshot(count, amount);
+        }
+    }
+
+    private static final class Bucket {
+        final long epoch;
+        final LongAdder count = new LongAdder();
+        final DoubleAdder amount = new DoubleAdder();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.bankapp.onlinebanking.service.categorization;
+
+// A merchant keyword and the category it implies; the highest priority match in a description wins
+public record CategoryRule(String keyword, String category, int priority) {
+
+    public CategoryRule {
+        if (keyword == null || keyword.isBlank() || category == null || category.isBlank()) {
+            throw new IllegalArgumentException("Keyword and category are required");
+        }
+    }
+}
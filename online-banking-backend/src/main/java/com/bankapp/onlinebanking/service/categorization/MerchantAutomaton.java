@@ -0,0 +1,189 @@
+package com.bankapp.onlinebanking.service.categorization;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over lower-cased merchant keywords.
+ *
+ * A description is matched in one pass, folding case a character at a time,
+ * without allocating. The trie is flattened into arrays: each state's outgoing
+ * edges are a sorted slice of {@code edgeChars}/{@code edgeTargets}, searched
+ * with binary search, which keeps tens of thousands of keywords compact.
+ * Every state also records the best rule ending there or at any of its
+ * failure-link suffixes, so a match costs one comparison per character.
+ *
+ * When several keywords match, the highest priority wins, then the longer
+ * keyword, then the one listed first. Instances are immutable and thread-safe.
+ */
+public final class MerchantAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final List<CategoryRule> rules;
+    private final int[] edgeStart; // Edges of state s are [edgeStart[s], edgeStart[s + 1])
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    private final int[] best; // Index into rules, or NONE
+
+    private MerchantAutomaton(List<CategoryRule> rules, int[] edgeStart, char[] edgeChars, int[] edgeTargets,
+            int[] fail, int[] best) {
+        this.rules = rules;
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.best = best;
+    }
+
+    public static MerchantAutomaton build(List<CategoryRule> rules) {
+        List<CategoryRule> ordered = List.copyOf(rules);
+        int count = ordered.size();
+        String[] keys = new String[count];
+        Integer[] byKey = new Integer[count];
+        int maxStates = 1;
+        for (int r = 0; r < count; r++) {
+            keys[r] = fold(ordered.get(r).keyword());
+            byKey[r] = r;
+            maxStates += keys[r].length();
+        }
+        Arrays.sort(byKey, Comparator.comparing((Integer r) -> keys[r]));
+
+        // A state is the run of sorted keywords sharing its prefix. States are numbered breadth-first,
+        // so each state's edges are contiguous and its failure target is settled before it is needed.
+        int[] rangeStart = new int[maxStates];
+        int[] rangeEnd = new int[maxStates];
+        int[] depth = new int[maxStates];
+        int[] edgeStart = new int[maxStates + 1];
+        char[] edgeChars = new char[maxStates];
+        int[] edgeTargets = new int[maxStates];
+        int[] fail = new int[maxStates];
+        int[] best = new int[maxStates];
+        MerchantAutomaton automaton = new MerchantAutomaton(ordered, edgeStart, edgeChars, edgeTargets, fail, best);
+
+        rangeEnd[ROOT] = count;
+        best[ROOT] = NONE;
+        int states = 1;
+        int edges = 0;
+        for (int state = 0; state < states; state++) {
+            edgeStart[state] = edges;
+            int d = depth[state];
+            int i = rangeStart[state];
+            int end = rangeEnd[state];
+
+            // Keywords ending exactly here sort first in the run
+            int own = NONE;
+            for (; i < end && keys[byKey[i]].length() == d; i++) {
+                if (own == NONE || better(ordered, byKey[i], own)) {
+                    own = byKey[i];
+                }
+            }
+            if (state != ROOT) {
+                int inherited = best[fail[state]];
+                best[state] = own == NONE ? inherited
+                        : inherited == NONE || better(ordered, own, inherited) ? own : inherited;
+            }
+
+            while (i < end) {
+                char c = keys[byKey[i]].charAt(d);
+                int j = i + 1;
+                while (j < end && keys[byKey[j]].charAt(d) == c) {
+                    j++;
+                }
+                int child = states++;
+                rangeStart[child] = i;
+                rangeEnd[child] = j;
+                depth[child] = d + 1;
+                fail[child] = state == ROOT ? ROOT : automaton.step(fail[state], c);
+                edgeChars[edges] = c;
+                edgeTargets[edges] = child;
+                edges++;
+                i = j;
+            }
+            edgeStart[state + 1] = edges;
+        }
+
+        return new MerchantAutomaton(ordered,
+                Arrays.copyOf(edgeStart, states + 1),
+                Arrays.copyOf(edgeChars, edges),
+                Arrays.copyOf(edgeTargets, edges),
+                Arrays.copyOf(fail, states),
+                Arrays.copyOf(best, states));
+    }
+
+    /** The best matching rule in the text, or null when no keyword occurs in it. */
+    public CategoryRule match(CharSequence text) {
+        int state = ROOT;
+        int found = NONE;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, Character.toLowerCase(text.charAt(i)));
+            int candidate = best[state];
+            if (candidate != NONE && (found == NONE || better(rules, candidate, found))) {
+                found = candidate;
+            }
+        }
+        return found == NONE ? null : rules.get(found);
+    }
+
+    public int getRuleCount() {
+        return rules.size();
+    }
+
+    public int getStateCount() {
+        return fail.length;
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = edge(state, c);
+            if (next != NONE) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int edge(int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = edgeChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return NONE;
+    }
+
+    // Same per-character folding as match, so keywords and text always agree
+    private static String fold(String keyword) {
+        char[] chars = keyword.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static boolean better(List<CategoryRule> rules, int candidate, int current) {
+        CategoryRule a = rules.get(candidate);
+        CategoryRule b = rules.get(current);
+        if (a.priority() != b.priority()) {
+            return a.priority() > b.priority();
+        }
+        if (a.keyword().length() != b.keyword().length()) {
+            return a.keyword().length() > b.keyword().length();
+        }
+        return candidate < current;
+    }
+}
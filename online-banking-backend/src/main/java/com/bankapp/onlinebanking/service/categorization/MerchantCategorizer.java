@@ -0,0 +1,122 @@
+package com.bankapp.onlinebanking.service.categorization;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Categorizes transaction descriptions from a merchant keyword dictionary.
+ *
+ * The dictionary is a CSV resource (app.categorization.dictionary) of
+ * {@code keyword,category[,priority]} lines; blank lines and lines starting
+ * with # are ignored. It is compiled into a {@link MerchantAutomaton} and
+ * checked for changes periodically, so edits take effect without a restart.
+ * A dictionary that fails to load leaves the previous one in place.
+ */
+@Service
+public class MerchantCategorizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MerchantCategorizer.class);
+
+    public static final String DEFAULT_CATEGORY = "OTHER";
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${app.categorization.dictionary:classpath:categorization/merchant-categories.csv}")
+    private String dictionaryLocation;
+
+    private volatile MerchantAutomaton automaton = MerchantAutomaton.build(List.of());
+    private volatile long loadedModified = -1;
+
+    @PostConstruct
+    public void init() throws IOException {
+        reload();
+    }
+
+    public String categorize(String description) {
+        if (description == null) {
+            return DEFAULT_CATEGORY;
+        }
+        CategoryRule rule = automaton.match(description);
+        return rule != null ? rule.category() : DEFAULT_CATEGORY;
+    }
+
+    public int getRuleCount() {
+        return automaton.getRuleCount();
+    }
+
+    // Loads the dictionary unconditionally and swaps it in
+    public synchronized void reload() throws IOException {
+        Resource resource = resourceLoader.getResource(dictionaryLocation);
+        long modified = lastModified(resource);
+        List<CategoryRule> rules;
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            rules = parse(reader);
+        }
+        automaton = MerchantAutomaton.build(rules);
+        loadedModified = modified;
+        logger.info("Loaded {} merchant keywords from {}", rules.size(), dictionaryLocation);
+    }
+
+    @Scheduled(fixedDelayString = "${app.categorization.reload-interval-ms:30000}")
+    public void reloadIfModified() {
+        try {
+            long modified = lastModified(resourceLoader.getResource(dictionaryLocation));
+            if (modified != loadedModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not reload merchant dictionary from {}; keeping the current one",
+                    dictionaryLocation, e);
+        }
+    }
+
+    public static List<CategoryRule> parse(Reader source) throws IOException {
+        List<CategoryRule> rules = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length < 2 || fields.length > 3) {
+                throw new IllegalArgumentException("Malformed merchant dictionary line " + lineNumber + ": " + line);
+            }
+            try {
+                int priority = fields.length == 3 ? Integer.parseInt(fields[2].strip()) : 0;
+                rules.add(new CategoryRule(fields[0].strip(), fields[1].strip(), priority));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Malformed merchant dictionary line " + lineNumber + ": " + line, e);
+            }
+        }
+        return rules;
+    }
+
+    // Resources without a modification time (e.g. some jar entries) are only loaded at startup
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.bankapp.onlinebanking.service.dispatch;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a failing provider. After the configured number of
+ * consecutive failures the breaker opens, and every call waits out the open
+ * period. Then a single trial call is let through: success closes the breaker
+ * and failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    // Returns zero when the caller may go ahead, otherwise how long to wait before asking again
+    public synchronized long acquire() {
+        long now = nanoClock.getAsLong();
+        switch (state) {
+            case CLOSED:
+                return 0;
+            case OPEN:
+                long remaining = openedAt + openNanos - now;
+                if (remaining > 0) {
+                    return remaining;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return 0;
+            default:
+                if (!trialInFlight) {
+                    trialInFlight = true;
+                    return 0;
+                }
+                // Another caller is running the trial; check back shortly
+                return Math.max(openNanos / 10, 1);
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,82 @@
+package com.bankapp.onlinebanking.service.dispatch;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in provider for offline throughput and tail-latency testing. Each
+ * call takes the configured latency, whatever the batch size, and fails with
+ * the configured probability. It records the end-to-end latency of every
+ * delivered message, from enqueue to send, in a fixed millisecond histogram.
+ */
+public class FakeMessageProvider implements MessageProvider {
+
+    private static final int MAX_TRACKED_MILLIS = 60_000;
+
+    private final String name;
+    private final long latencyNanos;
+    private final double failureRate;
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(MAX_TRACKED_MILLIS + 1);
+
+    public FakeMessageProvider(String name, Duration latency, double failureRate) {
+        this.name = name;
+        this.latencyNanos = latency.toNanos();
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void send(List<OutboundMessage> batch) {
+        calls.increment();
+        if (latencyNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(latencyNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while sending", e);
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new RuntimeException("Simulated " + name + " provider failure");
+        }
+
+        long now = System.nanoTime();
+        for (OutboundMessage message : batch) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(now - message.enqueuedAtNanos());
+            latencyHistogram.incrementAndGet((int) Math.min(Math.max(millis, 0), MAX_TRACKED_MILLIS));
+        }
+        delivered.add(batch.size());
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    // Latency in milliseconds below which the given fraction of delivered messages fall
+    public long getLatencyPercentileMillis(double percentile) {
+        long total = delivered.sum();
+        long threshold = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int millis = 0; millis <= MAX_TRACKED_MILLIS; millis++) {
+            seen += latencyHistogram.get(millis);
+            if (seen >= threshold && seen > 0) {
+                return millis;
+            }
+        }
+        return MAX_TRACKED_MILLIS;
+    }
+}
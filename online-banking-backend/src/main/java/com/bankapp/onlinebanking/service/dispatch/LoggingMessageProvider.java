@@ -0,0 +1,35 @@
+package com.bankapp.onlinebanking.service.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+// Default provider until a real email or SMS gateway is wired in
+public class LoggingMessageProvider implements MessageProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingMessageProvider.class);
+
+    private final String name;
+
+    public LoggingMessageProvider(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void send(List<OutboundMessage> batch) {
+        for (OutboundMessage message : batch) {
+            if (message.subject() != null) {
+                logger.info("Sending {} to: {}, Subject: {}, Content: {}", name, message.recipient(),
+                        message.subject(), message.body());
+            } else {
+                logger.info("Sending {} to: {}, Message: {}", name, message.recipient(), message.body());
+            }
+        }
+    }
+}
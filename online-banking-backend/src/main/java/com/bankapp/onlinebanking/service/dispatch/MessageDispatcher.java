@@ -0,0 +1,207 @@
+package com.bankapp.onlinebanking.service.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends one channel's messages (email or SMS) off the caller's thread.
+ *
+ * Messages go into a bounded queue, and a full queue rejects new ones, which
+ * pushes back on the notification outbox. Worker threads take up to a batch of
+ * messages at a time. Before each provider call they wait for the token bucket
+ * (the provider's rate limit) and for the circuit breaker. Failed batches are
+ * retried with exponential backoff and jitter.
+ *
+ * Each submitted message has a future that completes once the provider accepted
+ * it, and fails when its batch failed every attempt or the dispatcher stopped
+ * before sending it. Callers that need delivery guarantees, like the
+ * notification outbox, act on that outcome; the queue itself is only in memory.
+ */
+public class MessageDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageDispatcher.class);
+
+    public record Settings(int queueCapacity, int workers, int batchSize, double ratePerSecond, int burst,
+            int maxAttempts, Duration initialBackoff, int breakerFailureThreshold, Duration breakerOpenDuration) {
+    }
+
+    private final String channel;
+    private final MessageProvider provider;
+    private final Settings settings;
+    private final BlockingQueue<Pending> queue;
+    private final TokenBucket rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public MessageDispatcher(String channel, MessageProvider provider, Settings settings) {
+        if (settings.batchSize() < 1 || settings.workers() < 1 || settings.maxAttempts() < 1) {
+            throw new IllegalArgumentException("Batch size, workers and attempts must be at least one");
+        }
+        this.channel = channel;
+        this.provider = provider;
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        this.rateLimiter = settings.ratePerSecond() > 0
+                ? new TokenBucket(settings.ratePerSecond(), Math.max(settings.burst(), settings.batchSize()))
+                : null;
+        this.circuitBreaker = new CircuitBreaker(settings.breakerFailureThreshold(), settings.breakerOpenDuration());
+    }
+
+    public void start() {
+        AtomicInteger workerIds = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(settings.workers(), runnable -> {
+            Thread thread = new Thread(runnable, channel + "-dispatch-" + workerIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < settings.workers(); i++) {
+            workers.execute(this::work);
+        }
+        logger.info("Started {} dispatcher with provider {}", channel, provider.getName());
+    }
+
+    // Lets the workers drain what is already queued, for up to ten seconds
+    public void stop() throws InterruptedException {
+        running = false;
+        if (workers != null) {
+            workers.shutdown();
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                // Interrupted workers fail their in-flight batch before exiting
+                workers.shutdownNow();
+                workers.awaitTermination(1, TimeUnit.SECONDS);
+            }
+        }
+        List<Pending> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        if (!unsent.isEmpty()) {
+            logger.warn("{} dispatcher stopped with {} messages unsent", channel, unsent.size());
+            fail(unsent, new IllegalStateException(channel + " dispatcher stopped"));
+        }
+    }
+
+    // Completes once the provider accepted the message; throws straight away if the queue is full
+    public CompletableFuture<Void> submit(OutboundMessage message) {
+        if (!running) {
+            throw new IllegalStateException(channel + " dispatcher is not running");
+        }
+        Pending pending = new Pending(message, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            throw new RejectedExecutionException(channel + " dispatch queue is full");
+        }
+        // Raced with stop(), which may already have drained the queue
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException(channel + " dispatcher is not running");
+        }
+        return pending.completion();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private void work() {
+        List<Pending> batch = new ArrayList<>(settings.batchSize());
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, settings.batchSize() - 1);
+                deliver(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by stop() while the batch was in flight
+            fail(batch, new IllegalStateException(channel + " dispatcher stopped", e));
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(List<Pending> batch) throws InterruptedException {
+        List<OutboundMessage> messages = batch.stream().map(Pending::message).toList();
+        for (int attempt = 1; ; attempt++) {
+            long breakerWait;
+            while ((breakerWait = circuitBreaker.acquire()) > 0) {
+                pause(breakerWait);
+            }
+            if (rateLimiter != null) {
+                pause(rateLimiter.reserve(batch.size()));
+            }
+
+            try {
+                provider.send(messages);
+                circuitBreaker.recordSuccess();
+                sent.add(batch.size());
+                batch.forEach(pending -> pending.completion().complete(null));
+                return;
+            } catch (RuntimeException e) {
+                circuitBreaker.recordFailure();
+                if (attempt >= settings.maxAttempts()) {
+                    dropped.add(batch.size());
+                    logger.error("Dropping {} {} messages after {} attempts", batch.size(), channel, attempt, e);
+                    fail(batch, e);
+                    return;
+                }
+                logger.warn("{} provider {} failed (attempt {}), retrying", channel, provider.getName(), attempt, e);
+                pause(backoffNanos(attempt));
+            }
+        }
+    }
+
+    private static void fail(List<Pending> batch, Throwable cause) {
+        batch.forEach(pending -> pending.completion().completeExceptionally(cause));
+    }
+
+    // Exponential backoff with jitter, capped at 32 times the initial delay
+    private long backoffNanos(int attempt) {
+        long ceiling = settings.initialBackoff().toNanos() << Math.min(attempt - 1, 5);
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private static void pause(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    private record Pending(OutboundMessage message, CompletableFuture<Void> completion) {
+    }
+}
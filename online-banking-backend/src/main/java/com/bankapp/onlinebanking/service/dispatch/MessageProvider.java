@@ -0,0 +1,16 @@
+package com.bankapp.onlinebanking.service.dispatch;
+
+import java.util.List;
+
+/**
+ * Sends messages through an external email or SMS provider. A batch holds up
+ * to the dispatcher's configured batch size; providers without a bulk API are
+ * configured with a batch size of one. A failure must throw, and it fails the
+ * whole batch.
+ */
+public interface MessageProvider {
+
+    String getName();
+
+    void send(List<OutboundMessage> batch);
+}
@@ -0,0 +1,9 @@
+package com.bankapp.onlinebanking.service.dispatch;
+
+// An email or SMS waiting for its provider; subject is null for SMS
+public record OutboundMessage(String recipient, String subject, String body, long enqueuedAtNanos) {
+
+    public OutboundMessage(String recipient, String subject, String body) {
+        this(recipient, subject, body, System.nanoTime());
+    }
+}
@@ -0,0 +1,61 @@
+package com.bankapp.onlinebanking.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+// RFC 4180 quoting: fields containing a comma, quote or line break are quoted, with quotes doubled
+public class CsvExportWriter implements ExportRowWriter {
+
+    private static final String HEADER = "Date,Description,Amount,Type,Category,Status,Reference";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Writer writer;
+
+    public CsvExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    @Override
+    public void write(ExportRow row) throws IOException {
+        writer.write(row.timestamp() != null ? DATE_FORMAT.format(row.timestamp()) : "");
+        writer.write(',');
+        writeField(row.description());
+        writer.write(',');
+        writer.write(row.amount() != null ? row.amount().setScale(2, RoundingMode.HALF_UP).toPlainString() : "");
+        writer.write(',');
+        writeField(row.type());
+        writer.write(',');
+        writeField(row.category() != null ? row.category() : "OTHER");
+        writer.write(',');
+        writeField(row.status());
+        writer.write(',');
+        writeField(row.reference());
+        writer.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,34 @@
+package com.bankapp.onlinebanking.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    JSON("application/json", "json");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    // Anything other than csv exports JSON, as the endpoint always has
+    public static ExportFormat of(String format) {
+        return "csv".equalsIgnoreCase(format) ? CSV : JSON;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileName() {
+        return "transactions." + extension;
+    }
+
+    public ExportRowWriter open(OutputStream out) throws IOException {
+        return this == CSV ? new CsvExportWriter(out) : new JsonExportWriter(out);
+    }
+}
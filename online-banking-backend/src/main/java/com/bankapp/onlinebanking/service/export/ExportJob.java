@@ -0,0 +1,121 @@
+package com.bankapp.onlinebanking.service.export;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+// An export running in the background; kept in memory, like the spool file it points to
+public class ExportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final Long accountId;
+    private final ExportFormat format;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime finishedAt;
+    private volatile long finishedAtMillis;
+    private volatile Path file;
+    private volatile long rows;
+    private volatile long sizeBytes;
+    private volatile String error;
+    // Download leases, guarded by this job: the spool file is kept while any is held and for a grace period after
+    private int downloads;
+    private long lastDownloadMillis;
+    private boolean expired;
+
+    public ExportJob(String id, Long accountId, ExportFormat format) {
+        this.id = id;
+        this.accountId = accountId;
+        this.format = format;
+    }
+
+    void running() {
+        status = Status.RUNNING;
+    }
+
+    void completed(Path file, long rows, long sizeBytes, long nowMillis) {
+        this.file = file;
+        this.rows = rows;
+        this.sizeBytes = sizeBytes;
+        finish(Status.COMPLETED, nowMillis);
+    }
+
+    void failed(String error, long nowMillis) {
+        this.error = error;
+        finish(Status.FAILED, nowMillis);
+    }
+
+    private void finish(Status status, long nowMillis) {
+        this.finishedAt = LocalDateTime.now();
+        this.finishedAtMillis = nowMillis;
+        this.status = status;
+    }
+
+    synchronized boolean startDownload() {
+        if (expired) {
+            return false;
+        }
+        downloads++;
+        return true;
+    }
+
+    synchronized void endDownload(long nowMillis) {
+        downloads--;
+        lastDownloadMillis = nowMillis;
+    }
+
+    // Marks the job expired unless it is still within its TTL or a download holds or recently held a lease
+    synchronized boolean expire(long nowMillis, long ttlMillis, long downloadGraceMillis) {
+        if (!isFinished() || finishedAtMillis + ttlMillis > nowMillis
+                || downloads > 0 || lastDownloadMillis + downloadGraceMillis > nowMillis) {
+            return false;
+        }
+        expired = true;
+        return true;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
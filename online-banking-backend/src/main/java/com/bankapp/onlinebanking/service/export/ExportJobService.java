@@ -0,0 +1,225 @@
+package com.bankapp.onlinebanking.service.export;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs large exports in the background and spools them to local disk, so no
+ * request thread or connection is held while the rows are written.
+ *
+ * Jobs run on a small dedicated pool with a bounded queue; a full queue rejects
+ * new jobs, as does an account that already has the maximum number of jobs
+ * queued or running. Each job writes to a .part file that is renamed once
+ * complete. Finished jobs and their files are removed after the TTL, except
+ * while a download holds a lease on the job. The file is also kept for a grace
+ * period after the last lease ends, because Tomcat's sendfile opens it only
+ * once the download handler has returned.
+ *
+ * Job state lives in memory and the spool directory is local, so a job can only
+ * be polled and downloaded on the instance that ran it, and leftover files are
+ * deleted on startup.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    private final TransactionExportService transactionExportService;
+    private final Path spoolDirectory;
+    private final int maxJobsPerAccount;
+    private final long ttlMillis;
+    private final long downloadGraceMillis;
+    private final LongSupplier clock;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    // Queued or running jobs per account; accounts without any are removed
+    private final ConcurrentHashMap<Long, Integer> activeJobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ExportJobService(TransactionExportService transactionExportService,
+            @Value("${app.export.jobs.spool-dir:${java.io.tmpdir}/transaction-exports}") Path spoolDirectory,
+            @Value("${app.export.jobs.threads:2}") int threads,
+            @Value("${app.export.jobs.queue-capacity:50}") int queueCapacity,
+            @Value("${app.export.jobs.max-per-account:2}") int maxJobsPerAccount,
+            @Value("${app.export.jobs.ttl:1h}") Duration ttl,
+            @Value("${app.export.jobs.download-grace:1m}") Duration downloadGrace) throws IOException {
+        this(transactionExportService, spoolDirectory, threads, queueCapacity, maxJobsPerAccount, ttl, downloadGrace,
+                System::currentTimeMillis);
+    }
+
+    ExportJobService(TransactionExportService transactionExportService, Path spoolDirectory, int threads,
+            int queueCapacity, int maxJobsPerAccount, Duration ttl, Duration downloadGrace, LongSupplier clock)
+            throws IOException {
+        this.transactionExportService = transactionExportService;
+        this.spoolDirectory = spoolDirectory;
+        this.maxJobsPerAccount = maxJobsPerAccount;
+        this.ttlMillis = ttl.toMillis();
+        this.downloadGraceMillis = downloadGrace.toMillis();
+        this.clock = clock;
+
+        Files.createDirectories(spoolDirectory);
+        deleteLeftoverFiles();
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "export-job-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues an export of the account's transactions.
+     *
+     * @throws IllegalStateException when the account already has the maximum number of active jobs
+     * @throws RejectedExecutionException when the job queue is full
+     */
+    public ExportJob submit(Long accountId, LocalDateTime startDate, LocalDateTime endDate, ExportFormat format) {
+        TransactionExportService.TransactionExport export =
+                transactionExportService.prepareExport(accountId, startDate, endDate, format);
+
+        boolean[] admitted = new boolean[1];
+        activeJobs.compute(accountId, (id, active) -> {
+            int count = active != null ? active : 0;
+            if (count >= maxJobsPerAccount) {
+                return active;
+            }
+            admitted[0] = true;
+            return count + 1;
+        });
+        if (!admitted[0]) {
+            throw new IllegalStateException("Too many export jobs in progress for this account");
+        }
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), accountId, format);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, export));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            releaseSlot(accountId);
+            throw e;
+        }
+        return job;
+    }
+
+    // Jobs are only visible through the account that submitted them
+    public Optional<ExportJob> getJob(Long accountId, String jobId) {
+        ExportJob job = jobs.get(jobId);
+        return job != null && job.getAccountId().equals(accountId) ? Optional.of(job) : Optional.empty();
+    }
+
+    /**
+     * Takes a download lease on a completed job, which keeps its file from being
+     * removed until {@link #endDownload} is called and the grace period has passed.
+     * Empty when the job is unknown, not yet completed or already expired.
+     */
+    public Optional<ExportJob> startDownload(Long accountId, String jobId) {
+        return getJob(accountId, jobId)
+                .filter(job -> job.getStatus() == ExportJob.Status.COMPLETED)
+                .filter(ExportJob::startDownload);
+    }
+
+    public void endDownload(ExportJob job) {
+        job.endDownload(clock.getAsLong());
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getTrackedAccounts() {
+        return activeJobs.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.export.jobs.cleanup-interval-ms:60000}")
+    public void removeExpiredJobs() {
+        long now = clock.getAsLong();
+        jobs.values().removeIf(job -> {
+            if (!job.expire(now, ttlMillis, downloadGraceMillis)) {
+                return false;
+            }
+            deleteQuietly(job.getFile());
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ExportJob job, TransactionExportService.TransactionExport export) {
+        job.running();
+        Path part = spoolDirectory.resolve(job.getId() + ".part");
+        Path target = spoolDirectory.resolve(job.getId() + "." + job.getFormat().name().toLowerCase());
+        long rows = -1;
+        long size = 0;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+                rows = export.writeTo(out);
+            }
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+            size = Files.size(target);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Export job {} for account {} failed", job.getId(), job.getAccountId(), e);
+            deleteQuietly(part);
+            rows = -1;
+        } finally {
+            // Free the account's slot before the job is seen as finished
+            releaseSlot(job.getAccountId());
+        }
+
+        if (rows >= 0) {
+            job.completed(target, rows, size, clock.getAsLong());
+        } else {
+            job.failed("Export failed", clock.getAsLong());
+        }
+    }
+
+    private void releaseSlot(Long accountId) {
+        activeJobs.computeIfPresent(accountId, (id, active) -> active > 1 ? active - 1 : null);
+    }
+
+    private void deleteLeftoverFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDirectory, "*.{part,csv,json}")) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete export spool file {}", file, e);
+        }
+    }
+}
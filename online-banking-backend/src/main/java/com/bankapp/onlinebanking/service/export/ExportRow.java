@@ -0,0 +1,9 @@
+package com.bankapp.onlinebanking.service.export;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One exported transaction, as read straight from the result set
+public record ExportRow(LocalDateTime timestamp, String description, BigDecimal amount, String type,
+        String category, String status, String reference) {
+}
@@ -0,0 +1,15 @@
+package com.bankapp.onlinebanking.service.export;
+
+import java.io.IOException;
+
+/**
+ * Writes export rows to an output stream as they arrive. Implementations buffer
+ * a bounded amount and never hold on to rows already written.
+ */
+public interface ExportRowWriter {
+
+    void write(ExportRow row) throws IOException;
+
+    // Writes any trailer and flushes, leaving the target stream open
+    void finish() throws IOException;
+}
@@ -0,0 +1,46 @@
+package com.bankapp.onlinebanking.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// A JSON array written element by element with Jackson's streaming generator
+public class JsonExportWriter implements ExportRowWriter {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final JsonGenerator generator;
+
+    public JsonExportWriter(OutputStream out) throws IOException {
+        this.generator = JSON_FACTORY.createGenerator(out);
+        generator.writeStartArray();
+    }
+
+    @Override
+    public void write(ExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("date", row.timestamp() != null ? row.timestamp().toString() : null);
+        generator.writeStringField("description", row.description());
+        if (row.amount() != null) {
+            generator.writeNumberField("amount", row.amount());
+        } else {
+            generator.writeNullField("amount");
+        }
+        generator.writeStringField("type", row.type());
+        generator.writeStringField("category", row.category() != null ? row.category() : "OTHER");
+        generator.writeStringField("status", row.status());
+        generator.writeStringField("reference", row.reference());
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+    }
+}
@@ -0,0 +1,122 @@
+package com.bankapp.onlinebanking.service.export;
+
+import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.service.AccountNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports an account's transactions in constant memory.
+ *
+ * Rows are read over plain JDBC, straight from the account's entries in index
+ * order, and each row is written out before the next is read, so nothing
+ * proportional to the export is ever held. MySQL Connector/J ignores a regular
+ * fetch size and buffers the whole result unless useCursorFetch is set, so on
+ * MySQL the fetch size is Integer.MIN_VALUE, which makes the driver stream rows
+ * one at a time. The connection is busy until the export finishes, and the
+ * driver raises net_write_timeout for the duration so a slow client does not
+ * get the query killed. Other databases use app.export.fetch-size.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final String EXPORT_QUERY = """
+            SELECT e.timestamp, t.description, t.amount, t.transaction_type, t.category, t.status,
+                   t.reference_number
+            FROM account_entries e
+            JOIN transactions t ON t.id = e.txn_id
+            WHERE e.account_id = ?""";
+
+    /** An export whose account has been checked, ready to be written once the response starts. */
+    @FunctionalInterface
+    public interface TransactionExport {
+        long writeTo(OutputStream out) throws IOException;
+    }
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    private volatile Integer effectiveFetchSize;
+
+    // Validates eagerly so a missing account fails before any output is committed
+    public TransactionExport prepareExport(Long accountId, LocalDateTime startDate, LocalDateTime endDate,
+            ExportFormat format) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new AccountNotFoundException(accountId);
+        }
+        return out -> export(accountId, startDate, endDate, format, out);
+    }
+
+    public long export(Long accountId, LocalDateTime startDate, LocalDateTime endDate, ExportFormat format,
+            OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(EXPORT_QUERY);
+        List<Object> args = new ArrayList<>();
+        args.add(accountId);
+        if (startDate != null) {
+            sql.append(" AND e.timestamp >= ?");
+            args.add(Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND e.timestamp <= ?");
+            args.add(Timestamp.valueOf(endDate));
+        }
+        sql.append(" ORDER BY e.timestamp DESC, e.txn_id DESC");
+
+        ExportRowWriter writer = format.open(out);
+        long[] rows = new long[1];
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(effectiveFetchSize(jdbcTemplate));
+        try {
+            jdbcTemplate.query(sql.toString(), rs -> {
+                Timestamp timestamp = rs.getTimestamp(1);
+                try {
+                    writer.write(new ExportRow(
+                            timestamp != null ? timestamp.toLocalDateTime() : null,
+                            rs.getString(2),
+                            rs.getBigDecimal(3),
+                            rs.getString(4),
+                            rs.getString(5),
+                            rs.getString(6),
+                            rs.getString(7)));
+                } catch (IOException e) {
+                    // Usually the client went away; stop reading
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, args.toArray());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        return rows[0];
+    }
+
+    private int effectiveFetchSize(JdbcTemplate jdbcTemplate) {
+        Integer size = effectiveFetchSize;
+        if (size == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            size = "MySQL".equalsIgnoreCase(product) ? Integer.MIN_VALUE : fetchSize;
+            effectiveFetchSize = size;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,6 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import java.util.List;
+
+public record FraudAssessment(boolean fraudulent, List<FraudRule> matchedRules, double score) {
+}
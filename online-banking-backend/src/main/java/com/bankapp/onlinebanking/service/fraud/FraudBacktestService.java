@@ -0,0 +1,325 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays the transaction history through the replayable fraud rules to show
+ * what the current configuration would have flagged.
+ *
+ * Rows are streamed over plain JDBC, ordered by sender and then timestamp, so
+ * each sender's transactions arrive as one contiguous run. The run is cut into
+ * chunks of app.fraud.backtest.chunk-size rows, which are replayed in order on
+ * a fork-join pool against the sender's {@link SenderHistory}. The history only
+ * keeps a rolling window, so a sender with a huge history costs no more than
+ * a small one. The reader blocks once a bounded number of chunks are waiting,
+ * so memory is limited to those chunks and not to any sender's run. With
+ * MySQL, add useCursorFetch=true to the JDBC URL so the fetch size is honoured.
+ *
+ * Every rule is evaluated for every transaction, so per-rule counts and timings
+ * are independent of the aggregation mode. The overall decision follows the
+ * registry's mode. Precision is reported against the stored is_fraud_suspected
+ * flag and against disputes (any dispute not REJECTED).
+ */
+@Service
+public class FraudBacktestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FraudBacktestService.class);
+
+    private static final String REPLAY_QUERY = """
+            SELECT t.sender_id, t.amount, t.timestamp, t.ip_address, t.status,
+                   t.is_fraud_suspected, t.dispute_status, a.last_login_ip
+            FROM transactions t
+            JOIN accounts a ON a.id = t.sender_id
+            WHERE t.timestamp IS NOT NULL
+            ORDER BY t.sender_id, t.timestamp, t.id""";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private FraudRuleRegistry fraudRuleRegistry;
+
+    @Value("${app.fraud.backtest.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.fraud.backtest.chunk-size:1000}")
+    private int chunkSize;
+
+    // Zero uses one worker per available processor
+    @Value("${app.fraud.backtest.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.fraud.amount.decay:0.1}")
+    private double decay;
+
+    @Value("${app.fraud.velocity.horizon:1h}")
+    private Duration velocityHorizon;
+
+    public Map<String, Object> run() throws InterruptedException {
+        List<ReplayableFraudRule> rules = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        for (FraudRule rule : fraudRuleRegistry.getRules()) {
+            if (rule instanceof ReplayableFraudRule replayable) {
+                rules.add(replayable);
+            } else {
+                skipped.add(rule.getName());
+            }
+        }
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        Totals totals = new Totals(rules.size());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long startedAt = System.nanoTime();
+        try {
+            SenderFeeder feeder = new SenderFeeder(pool, threads * 4, rules, totals);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setFetchSize(fetchSize);
+            jdbcTemplate.query(REPLAY_QUERY, feeder);
+            feeder.finish();
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", fraudRuleRegistry.getMode());
+        report.put("transactions", totals.rows.sum());
+        report.put("senders", totals.senders.sum());
+        report.put("flagged", totals.flagged.sum());
+        report.put("storedFraudSuspected", totals.suspected.sum());
+        report.put("disputed", totals.disputed.sum());
+        report.put("precisionVsFraudSuspected", ratio(totals.flaggedSuspected.sum(), totals.flagged.sum()));
+        report.put("recallVsFraudSuspected", ratio(totals.flaggedSuspected.sum(), totals.suspected.sum()));
+        report.put("precisionVsDisputes", ratio(totals.flaggedDisputed.sum(), totals.flagged.sum()));
+        report.put("elapsedMillis", elapsedMillis);
+
+        List<Map<String, Object>> perRule = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            long matches = totals.ruleMatches[i].sum();
+            Map<String, Object> ruleReport = new LinkedHashMap<>();
+            ruleReport.put("rule", rules.get(i).getName());
+            ruleReport.put("matches", matches);
+            ruleReport.put("precisionVsFraudSuspected", ratio(totals.ruleMatchesSuspected[i].sum(), matches));
+            ruleReport.put("precisionVsDisputes", ratio(totals.ruleMatchesDisputed[i].sum(), matches));
+            ruleReport.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(totals.ruleNanos[i].sum()));
+            ruleReport.put("averageNanos", totals.rows.sum() > 0 ? totals.ruleNanos[i].sum() / totals.rows.sum() : 0);
+            perRule.add(ruleReport);
+        }
+        report.put("rules", perRule);
+        report.put("skippedRules", skipped);
+
+        logger.info("Fraud back-test replayed {} transactions in {} ms, {} flagged",
+                totals.rows.sum(), elapsedMillis, totals.flagged.sum());
+        return report;
+    }
+
+    // One sender's replay state; its chunks run one after another, each on whichever pool thread is free
+    private final class SenderReplay {
+        private final Long senderId;
+        private final Transaction transaction = new Transaction();
+        private final SenderHistory history = new SenderHistory(velocityHorizon, decay);
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private boolean failed;
+
+        SenderReplay(Long senderId, String lastLoginIp) {
+            this.senderId = senderId;
+            Account sender = new Account();
+            sender.setId(senderId);
+            sender.setLastLoginIp(lastLoginIp);
+            // One detached transaction is refilled per row; the rules only read it
+            transaction.setSender(sender);
+        }
+
+        void replay(List<ReplayRow> rows, List<ReplayableFraudRule> rules, Totals totals) {
+            if (failed) {
+                return;
+            }
+            try {
+                for (ReplayRow row : rows) {
+                    replay(row, rules, totals);
+                }
+            } catch (RuntimeException e) {
+                // The rest of this sender's chunks would replay against a broken history
+                failed = true;
+                logger.error("Replay of sender {} failed", senderId, e);
+            }
+        }
+
+        private void replay(ReplayRow row, List<ReplayableFraudRule> rules, Totals totals) {
+            transaction.setAmount(row.amount);
+            transaction.setTimestamp(row.timestamp);
+            transaction.setIpAddress(row.ipAddress);
+
+            boolean scored = fraudRuleRegistry.getMode() == FraudRuleRegistry.Mode.SCORED;
+            boolean anyMatch = false;
+            double score = 0.0;
+            for (int i = 0; i < rules.size(); i++) {
+                long start = System.nanoTime();
+                boolean matches = rules.get(i).matches(transaction, history);
+                totals.ruleNanos[i].add(System.nanoTime() - start);
+                if (matches) {
+                    anyMatch = true;
+                    score += rules.get(i).getWeight();
+                    totals.ruleMatches[i].increment();
+                    if (row.fraudSuspected) {
+                        totals.ruleMatchesSuspected[i].increment();
+                    }
+                    if (row.disputed) {
+                        totals.ruleMatchesDisputed[i].increment();
+                    }
+                }
+            }
+
+            boolean flagged = scored ? anyMatch && score >= fraudRuleRegistry.getScoreThreshold() : anyMatch;
+            totals.rows.increment();
+            if (row.fraudSuspected) {
+                totals.suspected.increment();
+            }
+            if (row.disputed) {
+                totals.disputed.increment();
+            }
+            if (flagged) {
+                totals.flagged.increment();
+                if (row.fraudSuspected) {
+                    totals.flaggedSuspected.increment();
+                }
+                if (row.disputed) {
+                    totals.flaggedDisputed.increment();
+                }
+            }
+
+            // State moves on with what actually happened, not with the replayed decision
+            history.record(row.amount, row.timestamp, "COMPLETED".equals(row.status));
+        }
+    }
+
+    private static Double ratio(long numerator, long denominator) {
+        return denominator == 0 ? null : (double) numerator / denominator;
+    }
+
+    private record ReplayRow(double amount, LocalDateTime timestamp, String ipAddress, String status,
+            boolean fraudSuspected, boolean disputed) {
+    }
+
+    // Cuts each sender's contiguous run of rows into chunks and hands them to the pool in order
+    private final class SenderFeeder implements RowCallbackHandler {
+        private final ForkJoinPool pool;
+        private final int maxPending;
+        private final Semaphore pending;
+        private final List<ReplayableFraudRule> rules;
+        private final Totals totals;
+        private SenderReplay sender;
+        private List<ReplayRow> rows = new ArrayList<>();
+
+        SenderFeeder(ForkJoinPool pool, int maxPending, List<ReplayableFraudRule> rules, Totals totals) {
+            this.pool = pool;
+            this.maxPending = maxPending;
+            this.pending = new Semaphore(maxPending);
+            this.rules = rules;
+            this.totals = totals;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowSender = rs.getLong("sender_id");
+            if (sender == null || sender.senderId != rowSender) {
+                flush();
+                sender = new SenderReplay(rowSender, rs.getString("last_login_ip"));
+                totals.senders.increment();
+            }
+            String disputeStatus = rs.getString("dispute_status");
+            rows.add(new ReplayRow(
+                    rs.getDouble("amount"),
+                    rs.getTimestamp("timestamp").toLocalDateTime(),
+                    rs.getString("ip_address"),
+                    rs.getString("status"),
+                    rs.getBoolean("is_fraud_suspected"),
+                    disputeStatus != null && !"REJECTED".equals(disputeStatus)));
+            if (rows.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        // Dispatches the last chunk and waits until every chunk has been replayed
+        void finish() {
+            flush();
+            acquire(maxPending);
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            acquire(1);
+            SenderReplay replay = sender;
+            List<ReplayRow> chunk = rows;
+            // Chained onto the sender's previous chunk, so the history sees its rows in order
+            replay.tail = replay.tail
+                    .thenRunAsync(() -> replay.replay(chunk, rules, totals), pool)
+                    .whenComplete((ignored, e) -> pending.release());
+            rows = new ArrayList<>();
+        }
+
+        private void acquire(int permits) {
+            try {
+                pending.acquire(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Fraud back-test interrupted", e);
+            }
+        }
+    }
+
+    private static final class Totals {
+        final LongAdder rows = new LongAdder();
+        final LongAdder senders = new LongAdder();
+        final LongAdder flagged = new LongAdder();
+        final LongAdder suspected = new LongAdder();
+        final LongAdder disputed = new LongAdder();
+        final LongAdder flaggedSuspected = new LongAdder();
+        final LongAdder flaggedDisputed = new LongAdder();
+        final LongAdder[] ruleMatches;
+        final LongAdder[] ruleMatchesSuspected;
+        final LongAdder[] ruleMatchesDisputed;
+        final LongAdder[] ruleNanos;
+
+        Totals(int ruleCount) {
+            ruleMatches = adders(ruleCount);
+            ruleMatchesSuspected = adders(ruleCount);
+            ruleMatchesDisputed = adders(ruleCount);
+            ruleNanos = adders(ruleCount);
+        }
+
+        private static LongAdder[] adders(int count) {
+            LongAdder[] adders = new LongAdder[count];
+            for (int i = 0; i < count; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.entity.Transaction;
+
+/**
+ * A single fraud check. Rules are Spring beans picked up by {@link FraudRuleRegistry},
+ * which runs them in order of increasing cost.
+ */
+public interface FraudRule {
+
+    // Stable key used in configuration and metrics, e.g. "unusual-amount"
+    String getName();
+
+    // Relative evaluation cost; in-memory checks should stay well below ones that query the database
+    int getCost();
+
+    boolean matches(Transaction transaction);
+
+    // Stored as the transaction's fraud reason
+    String getReason();
+
+    // Shown to the account holder when the rule flags a transaction
+    String getAlertMessage(Transaction transaction);
+
+    // Contribution to the score in scored aggregation mode
+    default double getWeight() {
+        return 1.0;
+    }
+}
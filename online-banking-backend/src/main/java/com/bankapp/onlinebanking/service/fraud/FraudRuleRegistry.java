@@ -0,0 +1,108 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.entity.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the fraud rules enabled for this deployment, ordered by cost, and
+ * evaluates a transaction against them.
+ *
+ * In SHORT_CIRCUIT mode evaluation stops at the first matching rule, so the
+ * expensive rules only run for transactions the cheap ones let through. In
+ * SCORED mode every rule runs and the transaction is flagged once the weights
+ * of the matching rules reach the score threshold.
+ *
+ * Each rule's evaluation time is published as the fraud.rule.evaluation timer,
+ * tagged with the rule name.
+ */
+@Component
+public class FraudRuleRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(FraudRuleRegistry.class);
+
+    public enum Mode {
+        SHORT_CIRCUIT, SCORED
+    }
+
+    private final List<RegisteredRule> rules = new ArrayList<>();
+    private final Mode mode;
+    private final double scoreThreshold;
+
+    @Autowired
+    public FraudRuleRegistry(List<FraudRule> availableRules, MeterRegistry meterRegistry,
+            @Value("${app.fraud.rules.mode:SHORT_CIRCUIT}") Mode mode,
+            @Value("${app.fraud.rules.score-threshold:1.0}") double scoreThreshold,
+            @Value("${app.fraud.rules.disabled:}") List<String> disabledRules) {
+        this.mode = mode;
+        this.scoreThreshold = scoreThreshold;
+
+        availableRules.stream()
+                .filter(rule -> !disabledRules.contains(rule.getName()))
+                .sorted(Comparator.comparingInt(FraudRule::getCost))
+                .forEach(rule -> rules.add(new RegisteredRule(rule,
+                        Timer.builder("fraud.rule.evaluation")
+                                .description("Time spent evaluating a fraud rule")
+                                .tag("rule", rule.getName())
+                                .register(meterRegistry),
+                        Counter.builder("fraud.rule.matches")
+                                .description("Transactions flagged by a fraud rule")
+                                .tag("rule", rule.getName())
+                                .register(meterRegistry))));
+
+        logger.info("Fraud rules in evaluation order ({} mode): {}", mode,
+                rules.stream().map(registered -> registered.rule.getName()).toList());
+    }
+
+    public FraudAssessment evaluate(Transaction transaction) {
+        List<FraudRule> matched = new ArrayList<>();
+        double score = 0.0;
+        for (RegisteredRule registered : rules) {
+            long start = System.nanoTime();
+            boolean matches;
+            try {
+                matches = registered.rule.matches(transaction);
+            } finally {
+                registered.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!matches) {
+                continue;
+            }
+
+            registered.matches.increment();
+            matched.add(registered.rule);
+            score += registered.rule.getWeight();
+            if (mode == Mode.SHORT_CIRCUIT) {
+                return new FraudAssessment(true, matched, score);
+            }
+        }
+        boolean fraudulent = mode == Mode.SCORED && !matched.isEmpty() && score >= scoreThreshold;
+        return new FraudAssessment(fraudulent, matched, score);
+    }
+
+    public List<FraudRule> getRules() {
+        return rules.stream().map(registered -> registered.rule).toList();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public double getScoreThreshold() {
+        return scoreThreshold;
+    }
+
+    private record RegisteredRule(FraudRule rule, Timer timer, Counter matches) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.repository.TransactionRepository;
+import com.bankapp.onlinebanking.service.VelocityTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+public class RapidTransactionRule implements ReplayableFraudRule {
+
+    private static final Duration RAPID_TRANSACTION_WINDOW = Duration.ofMinutes(5);
+
+    @Autowired
+    private VelocityTracker velocityTracker;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    // Falls back to counting rows in the transactions table when disabled
+    @Value("${app.fraud.velocity.in-memory:true}")
+    private boolean inMemoryVelocity;
+
+    @Value("${app.fraud.rules.rapid-transactions.weight:1.0}")
+    private double weight;
+
+    @Override
+    public String getName() {
+        return "rapid-transactions";
+    }
+
+    @Override
+    public int getCost() {
+        return inMemoryVelocity ? 10 : 100;
+    }
+
+    @Override
+    public boolean matches(Transaction transaction) {
+        Long senderId = transaction.getSender().getId();
+        if (inMemoryVelocity) {
+            return velocityTracker.getCount(senderId, RAPID_TRANSACTION_WINDOW) >= 3;
+        }
+
+        LocalDateTime fiveMinutesAgo = LocalDateTime.now().minus(RAPID_TRANSACTION_WINDOW);
+
+        // If there are more than 3 transactions in the last 5 minutes, flag it
+        return transactionRepository.findBySenderAndTimestampAfter(transaction.getSender(), fiveMinutesAgo)
+                .size() >= 3;
+    }
+
+    @Override
+    public boolean matches(Transaction transaction, SenderHistory history) {
+        return history.countSince(transaction.getTimestamp().minus(RAPID_TRANSACTION_WINDOW)) >= 3;
+    }
+
+    @Override
+    public String getReason() {
+        return "Multiple rapid transactions";
+    }
+
+    @Override
+    public String getAlertMessage(Transaction transaction) {
+        return "Suspicious transaction detected: Multiple rapid transactions";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+}
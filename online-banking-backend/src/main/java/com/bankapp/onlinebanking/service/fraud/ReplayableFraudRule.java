@@ -0,0 +1,12 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.entity.Transaction;
+
+/**
+ * A fraud rule that can also be evaluated against replayed history, so the
+ * back-test can run it without touching live state.
+ */
+public interface ReplayableFraudRule extends FraudRule {
+
+    boolean matches(Transaction transaction, SenderHistory history);
+}
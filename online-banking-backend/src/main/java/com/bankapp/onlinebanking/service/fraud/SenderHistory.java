@@ -0,0 +1,50 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.service.AccountAmountStatsService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * In-memory state of one sender while its transactions are replayed in
+ * timestamp order. Not thread-safe; each sender is replayed by a single task.
+ */
+public class SenderHistory {
+
+    private final Duration horizon;
+    private final double decay;
+    private final ArrayDeque<LocalDateTime> recent = new ArrayDeque<>();
+    private AccountAmountStatsService.Stats amountStats = AccountAmountStatsService.Stats.EMPTY;
+
+    public SenderHistory(Duration horizon, double decay) {
+        this.horizon = horizon;
+        this.decay = decay;
+    }
+
+    public AccountAmountStatsService.Stats getAmountStats() {
+        return amountStats;
+    }
+
+    public long countSince(LocalDateTime since) {
+        long count = 0;
+        Iterator<LocalDateTime> newestFirst = recent.descendingIterator();
+        while (newestFirst.hasNext() && newestFirst.next().isAfter(since)) {
+            count++;
+        }
+        return count;
+    }
+
+    // Mirrors the live path: every stored transaction counts towards velocity, completed ones towards amounts
+    public void record(double amount, LocalDateTime timestamp, boolean completed) {
+        recent.addLast(timestamp);
+        LocalDateTime cutoff = timestamp.minus(horizon);
+        while (!recent.isEmpty() && recent.peekFirst().isBefore(cutoff)) {
+            recent.removeFirst();
+        }
+        if (completed) {
+            amountStats = amountStats.add(amount, decay);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.service.AccountAmountStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UnusualAmountRule implements ReplayableFraudRule {
+
+    @Autowired
+    private AccountAmountStatsService accountAmountStatsService;
+
+    // Standard deviations above the sender's mean at which an amount is unusual
+    @Value("${app.fraud.amount.z-threshold:3.0}")
+    private double zThreshold;
+
+    // Below this many completed transfers the spread is not trusted and the 3x rule applies
+    @Value("${app.fraud.amount.min-samples:5}")
+    private long minSamples;
+
+    // Floor on the deviation, as a fraction of the mean, so a very regular history
+    // does not flag every small change
+    @Value("${app.fraud.amount.min-deviation-ratio:0.25}")
+    private double minDeviationRatio;
+
+    @Value("${app.fraud.rules.unusual-amount.weight:1.0}")
+    private double weight;
+
+    @Override
+    public String getName() {
+        return "unusual-amount";
+    }
+
+    @Override
+    public int getCost() {
+        // Cached statistics, with a primary key lookup on a cache miss
+        return 20;
+    }
+
+    @Override
+    public boolean matches(Transaction transaction) {
+        return isUnusual(accountAmountStatsService.getStats(transaction.getSender().getId()), transaction.getAmount());
+    }
+
+    @Override
+    public boolean matches(Transaction transaction, SenderHistory history) {
+        return isUnusual(history.getAmountStats(), transaction.getAmount());
+    }
+
+    private boolean isUnusual(AccountAmountStatsService.Stats stats, double amount) {
+        if (stats.count() == 0) {
+            // Nothing to compare a first transfer against
+            return false;
+        }
+
+        if (stats.count() < minSamples) {
+            return amount > stats.mean() * 3;
+        }
+
+        double deviation = Math.max(stats.standardDeviation(), stats.mean() * minDeviationRatio);
+        return (amount - stats.mean()) / deviation > zThreshold;
+    }
+
+    @Override
+    public String getReason() {
+        return "Unusual transaction amount";
+    }
+
+    @Override
+    public String getAlertMessage(Transaction transaction) {
+        return String.format("Suspicious transaction detected: Unusual amount of $%.2f", transaction.getAmount());
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+}
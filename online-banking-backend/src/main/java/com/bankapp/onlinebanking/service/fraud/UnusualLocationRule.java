@@ -0,0 +1,52 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.entity.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UnusualLocationRule implements ReplayableFraudRule {
+
+    @Value("${app.fraud.rules.unusual-location.weight:1.0}")
+    private double weight;
+
+    @Override
+    public String getName() {
+        return "unusual-location";
+    }
+
+    @Override
+    public int getCost() {
+        // Compares two fields already loaded with the sender
+        return 0;
+    }
+
+    @Override
+    public boolean matches(Transaction transaction) {
+        String lastLocation = transaction.getSender().getLastLoginIp();
+
+        // Simple example - in a real app, use a geo-location service
+        return lastLocation != null && !lastLocation.equals(transaction.getIpAddress());
+    }
+
+    @Override
+    public boolean matches(Transaction transaction, SenderHistory history) {
+        // Login IPs are not historised, so the replay compares against the sender's current one
+        return matches(transaction);
+    }
+
+    @Override
+    public String getReason() {
+        return "Unusual transaction location";
+    }
+
+    @Override
+    public String getAlertMessage(Transaction transaction) {
+        return "Suspicious transaction detected: Unusual location";
+    }
+
+    @Override
+    public double getWeight() {
+        return weight;
+    }
+}
@@ -1,27 +1,29 @@
 package com.bankapp.onlinebanking.service.impl;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import com.bankapp.onlinebanking.service.EmailService;
+import com.bankapp.onlinebanking.service.dispatch.MessageDispatcher;
+import com.bankapp.onlinebanking.service.dispatch.OutboundMessage;
 import com.bankapp.onlinebanking.entity.Transaction;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class EmailServiceImpl implements EmailService {
-    private static final Logger logger = LoggerFactory.getLogger(EmailServiceImpl.class);
+    @Autowired
+    @Qualifier("emailDispatcher")
+    private MessageDispatcher emailDispatcher;
 
+    // Queued for the email dispatcher; throws if its queue is full
     @Override
-    public void sendEmail(String to, String subject, String content) {
-        logger.info("Sending email to: {}, Subject: {}, Content: {}", to, subject, content);
+    public CompletableFuture<Void> sendEmail(String to, String subject, String content) {
+        return emailDispatcher.submit(new OutboundMessage(to, subject, content));
     }
 
     @Override
     public void sendTransactionNotification(String to, String subject, Transaction transaction) {
-        logger.debug("Transaction object: {}", transaction);
-        logger.debug("Transaction fields - status: {}, type: {}", 
-            transaction.getStatus(), 
-            transaction.getTransactionType());
-            
         String content = String.format(
             "Transaction Details:\nAmount: $%.2f\nType: %s\nStatus: %s",
             transaction.getAmount(),
@@ -1,14 +1,20 @@
 package com.bankapp.onlinebanking.service.impl;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import com.bankapp.onlinebanking.service.SmsService;
+import com.bankapp.onlinebanking.service.dispatch.MessageDispatcher;
+import com.bankapp.onlinebanking.service.dispatch.OutboundMessage;
 import com.bankapp.onlinebanking.entity.Transaction;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class SmsServiceImpl implements SmsService {
-    private static final Logger logger = LoggerFactory.getLogger(SmsServiceImpl.class);
+    @Autowired
+    @Qualifier("smsDispatcher")
+    private MessageDispatcher smsDispatcher;
 
     @Override
     public void sendTransactionAlert(String phoneNumber, Transaction transaction) {
@@ -27,8 +33,8 @@ public class SmsServiceImpl implements SmsService {
     }
 
     @Override
-    public void sendSms(String phoneNumber, String message) {
-        // In production, you would integrate with a real SMS service like Twilio
-        logger.info("Sending SMS to: {}, Message: {}", phoneNumber, message);
+    public CompletableFuture<Void> sendSms(String phoneNumber, String message) {
+        // Queued for the SMS dispatcher, whose provider would wrap a real service like Twilio
+        return smsDispatcher.submit(new OutboundMessage(phoneNumber, null, message));
     }
 }
\ No newline at end of file
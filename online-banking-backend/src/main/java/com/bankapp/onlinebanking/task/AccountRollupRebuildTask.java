@@ -0,0 +1,19 @@
+package com.bankapp.onlinebanking.task;
+
+import com.bankapp.onlinebanking.service.AccountRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AccountRollupRebuildTask {
+
+    @Autowired
+    private AccountRollupService accountRollupService;
+
+    // Recomputes every account's analytics rollups from its entries; disabled unless a cron is configured
+    @Scheduled(cron = "${app.analytics.rollups.rebuild-cron:-}")
+    public void rebuildRollups() {
+        accountRollupService.rebuildAll();
+    }
+}
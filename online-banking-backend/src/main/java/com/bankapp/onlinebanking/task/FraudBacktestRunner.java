@@ -0,0 +1,63 @@
+package com.bankapp.onlinebanking.task;
+
+import com.bankapp.onlinebanking.service.fraud.FraudBacktestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Batch mode for the fraud back-test. Start the application with
+ * --app.fraud.backtest.enabled=true --spring.main.web-application-type=none,
+ * ideally against a copy of the database. The report is written as JSON; once
+ * startup returns, OnlineBankingApplication closes the context and exits with
+ * the code reported here unless app.fraud.backtest.exit-when-done is false.
+ */
+@Component
+@ConditionalOnProperty(name = "app.fraud.backtest.enabled", havingValue = "true")
+public class FraudBacktestRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FraudBacktestRunner.class);
+
+    @Autowired
+    private FraudBacktestService fraudBacktestService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.fraud.backtest.report-path:fraud-backtest-report.json}")
+    private String reportPath;
+
+    @Value("${app.fraud.backtest.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    // Stays non-zero unless the report was written
+    private volatile int exitCode = 1;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Map<String, Object> report = fraudBacktestService.run();
+        File reportFile = new File(reportPath);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+        logger.info("Fraud back-test report written to {}", reportFile.getAbsolutePath());
+        exitCode = 0;
+    }
+
+    public boolean isExitWhenDone() {
+        return exitWhenDone;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
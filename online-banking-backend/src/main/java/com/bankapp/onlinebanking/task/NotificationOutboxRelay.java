@@ -0,0 +1,229 @@
+package com.bankapp.onlinebanking.task;
+
+import com.bankapp.onlinebanking.entity.Notification;
+import com.bankapp.onlinebanking.repository.NotificationRepository;
+import com.bankapp.onlinebanking.service.NotificationQueuedEvent;
+import com.bankapp.onlinebanking.service.NotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the notification outbox. Notifications are stored as PENDING rows in the
+ * transaction that produced them; this relay claims them in batches and hands
+ * each one to a bounded worker pool for WebSocket, email and SMS delivery, so
+ * none of that runs on the request thread or inside a database transaction.
+ *
+ * Delivery is at-least-once: a row is only marked SENT once every channel's
+ * provider accepted the message, and rows claimed by a run that died mid-batch
+ * are reset to PENDING on startup. A failed or timed-out delivery goes back to
+ * PENDING with next_attempt_at pushed out by an exponential backoff, and
+ * channels that already succeeded are not sent again on the retry. Claims and
+ * outcomes are targeted UPDATEs of the delivery columns only, so the relay
+ * never writes back a stale copy of fields such as isRead that users change
+ * meanwhile.
+ */
+@Component
+public class NotificationOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.notifications.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.notifications.outbox.workers:4}")
+    private int workerCount;
+
+    @Value("${app.notifications.outbox.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.notifications.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.notifications.outbox.retry-delay:30s}")
+    private Duration retryDelay;
+
+    @Value("${app.notifications.outbox.max-retry-delay:1h}")
+    private Duration maxRetryDelay;
+
+    // Upper bound on waiting for the email and SMS dispatchers to report back
+    @Value("${app.notifications.outbox.delivery-timeout:2m}")
+    private Duration deliveryTimeout;
+
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private ExecutorService relayThread;
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void start() {
+        relayThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger workerIds = new AtomicInteger();
+        // When the queue is full the relay thread delivers itself, which throttles claiming
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-worker-" + workerIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        int reclaimed = notificationRepository.updateDeliveryStatus("PROCESSING", "PENDING");
+        if (reclaimed > 0) {
+            logger.info("Re-queued {} notifications left in PROCESSING by a previous run", reclaimed);
+        }
+        requestDrain();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        relayThread.shutdown();
+        relayThread.awaitTermination(10, TimeUnit.SECONDS);
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Fires after the producing transaction commits, or straight away when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationQueued(NotificationQueuedEvent event) {
+        requestDrain();
+    }
+
+    // Safety net for wake-ups lost while the relay was busy or restarting
+    @Scheduled(fixedDelayString = "${app.notifications.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        requestDrain();
+    }
+
+    public int getQueueDepth() {
+        return workers != null ? workers.getQueue().size() : 0;
+    }
+
+    private void requestDrain() {
+        // Coalesce wake-ups: at most one drain is queued behind the running one
+        if (drainRequested.compareAndSet(false, true)) {
+            try {
+                relayThread.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainRequested.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        // Cleared first so notifications queued during this pass schedule another one
+        drainRequested.set(false);
+        try {
+            List<Notification> batch;
+            do {
+                batch = claimBatch();
+                if (!batch.isEmpty()) {
+                    dispatch(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            logger.error("Notification outbox relay failed", e);
+        }
+    }
+
+    private List<Notification> claimBatch() {
+        List<Notification> claimed = transactionTemplate.execute(status -> {
+            List<Notification> pending = notificationRepository
+                    .findDue("PENDING", LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (!pending.isEmpty()) {
+                notificationRepository.updateDeliveryStatus(
+                        pending.stream().map(Notification::getId).toList(), "PENDING", "PROCESSING");
+            }
+            return pending;
+        });
+        // Only changed once detached, so the claim's commit does not flush the whole rows
+        claimed.forEach(notification -> notification.setDeliveryStatus("PROCESSING"));
+        return claimed;
+    }
+
+    private void dispatch(List<Notification> batch) {
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(batch.size());
+        for (Notification notification : batch) {
+            deliveries.add(CompletableFuture.supplyAsync(() -> notificationService.deliver(notification), workers)
+                    .thenCompose(delivery -> delivery)
+                    .orTimeout(deliveryTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .handle((ignored, error) -> {
+                        recordOutcome(notification, error);
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+
+        // Record the outcome of the whole batch in one transaction
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Notification notification : batch) {
+                notificationRepository.updateDelivery(notification.getId(), notification.getDeliveryStatus(),
+                        notification.getDeliveryAttempts(), notification.getNextAttemptAt(),
+                        notification.getDeliveredChannels());
+            }
+        });
+    }
+
+    private void recordOutcome(Notification notification, Throwable error) {
+        if (error == null) {
+            notification.setDeliveryStatus("SENT");
+            notification.setNextAttemptAt(null);
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        int attempts = notification.getDeliveryAttempts() + 1;
+        notification.setDeliveryAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            notification.setDeliveryStatus("FAILED");
+            notification.setNextAttemptAt(null);
+        } else {
+            notification.setDeliveryStatus("PENDING");
+            notification.setNextAttemptAt(LocalDateTime.now().plus(retryDelay(attempts, retryDelay, maxRetryDelay)));
+        }
+        logger.warn("Delivery of notification {} failed (attempt {})", notification.getId(), attempts, cause);
+    }
+
+    // retryDelay after the first failure, doubling with each further one up to maxRetryDelay
+    private static Duration retryDelay(int attempts, Duration retryDelay, Duration maxRetryDelay) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = retryDelay.multipliedBy(1L << doublings);
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+}
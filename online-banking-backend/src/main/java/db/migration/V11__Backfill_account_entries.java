@@ -0,0 +1,98 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Backfills account_entries from the existing transactions that moved money;
+ * failed, flagged and pending transactions get no entries.
+ *
+ * Transactions are read in primary-key chunks with plain, non-locking reads,
+ * and each chunk's entries are committed on their own. The transactions table
+ * is never locked, and a failed run resumes after the last completed chunk.
+ * Backfilled entries take ids 2 * txn_id for the sender side and 2 * txn_id + 1
+ * for the recipient side. The id generator then starts above them.
+ */
+public class V11__Backfill_account_entries extends BaseJavaMigration {
+
+    private static final int CHUNK_SIZE = 5_000;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement();
+                PreparedStatement select = connection.prepareStatement(
+                        "SELECT id, sender_id, recipient_id, timestamp, amount, category FROM transactions "
+                                + "WHERE id > ? AND status IN ('COMPLETED', 'DISPUTED') "
+                                + "ORDER BY id LIMIT " + CHUNK_SIZE);
+                PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO account_entries (id, account_id, txn_id, timestamp, amount, category) "
+                                + "VALUES (?, ?, ?, ?, ?, ?)")) {
+
+            long lastId;
+            try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(txn_id), 0) FROM account_entries")) {
+                rs.next();
+                lastId = rs.getLong(1);
+            }
+            connection.commit();
+
+            int rows;
+            do {
+                rows = 0;
+                select.setLong(1, lastId);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        long txnId = rs.getLong("id");
+                        Timestamp timestamp = rs.getTimestamp("timestamp");
+                        BigDecimal amount = rs.getBigDecimal("amount");
+                        String category = rs.getString("category");
+
+                        long senderId = rs.getLong("sender_id");
+                        if (!rs.wasNull()) {
+                            addEntry(insert, txnId * 2, senderId, txnId, timestamp, amount.negate(), category);
+                        }
+                        long recipientId = rs.getLong("recipient_id");
+                        if (!rs.wasNull()) {
+                            addEntry(insert, txnId * 2 + 1, recipientId, txnId, timestamp, amount, category);
+                        }
+                        lastId = txnId;
+                        rows++;
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            } while (rows == CHUNK_SIZE);
+
+            statement.executeUpdate("INSERT INTO id_generators (gen_name, gen_val) "
+                    + "SELECT 'account_entries', COALESCE(MAX(id), 0) + 100 FROM account_entries");
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void addEntry(PreparedStatement insert, long id, long accountId, long txnId, Timestamp timestamp,
+            BigDecimal amount, String category) throws Exception {
+        insert.setLong(1, id);
+        insert.setLong(2, accountId);
+        insert.setLong(3, txnId);
+        insert.setTimestamp(4, timestamp);
+        insert.setBigDecimal(5, amount);
+        insert.setString(6, category);
+        insert.addBatch();
+    }
+}
@@ -0,0 +1,105 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Adds unbooked account_entries for the transaction sides V11 skipped: both
+ * sides of failed, flagged and pending transactions, and the recipient side
+ * of a cross-partition transfer whose credit is still in flight.
+ *
+ * Like V11 it walks transactions in primary-key chunks with non-locking reads
+ * and commits each chunk on its own. Only sides without an entry are added, so
+ * a failed run can simply be repeated. New entries take ids above both the
+ * existing entries and the id generator, which then starts above them.
+ */
+public class V16__Backfill_unbooked_account_entries extends BaseJavaMigration {
+
+    private static final int CHUNK_SIZE = 5_000;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement();
+                PreparedStatement select = connection.prepareStatement(
+                        "SELECT t.id, t.sender_id, t.recipient_id, t.timestamp, t.amount, t.category, "
+                                + "(SELECT COUNT(*) FROM account_entries e "
+                                + "WHERE e.txn_id = t.id AND e.account_id = t.sender_id) AS sender_entries, "
+                                + "(SELECT COUNT(*) FROM account_entries e "
+                                + "WHERE e.txn_id = t.id AND e.account_id = t.recipient_id) AS recipient_entries "
+                                + "FROM transactions t WHERE t.id > ? ORDER BY t.id LIMIT " + CHUNK_SIZE);
+                PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO account_entries (id, account_id, txn_id, timestamp, amount, category, booked) "
+                                + "VALUES (?, ?, ?, ?, ?, ?, FALSE)")) {
+
+            long nextId;
+            try (ResultSet rs = statement.executeQuery("SELECT GREATEST("
+                    + "(SELECT COALESCE(MAX(id), 0) FROM account_entries), "
+                    + "(SELECT COALESCE(MAX(gen_val), 0) FROM id_generators WHERE gen_name = 'account_entries'))")) {
+                rs.next();
+                nextId = rs.getLong(1) + 1;
+            }
+            connection.commit();
+
+            long lastId = 0;
+            int rows;
+            do {
+                rows = 0;
+                select.setLong(1, lastId);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        long txnId = rs.getLong("id");
+                        Timestamp timestamp = rs.getTimestamp("timestamp");
+                        BigDecimal amount = rs.getBigDecimal("amount");
+                        String category = rs.getString("category");
+
+                        long senderId = rs.getLong("sender_id");
+                        if (!rs.wasNull() && rs.getLong("sender_entries") == 0) {
+                            addEntry(insert, nextId++, senderId, txnId, timestamp, amount.negate(), category);
+                        }
+                        long recipientId = rs.getLong("recipient_id");
+                        if (!rs.wasNull() && rs.getLong("recipient_entries") == 0) {
+                            addEntry(insert, nextId++, recipientId, txnId, timestamp, amount, category);
+                        }
+                        lastId = txnId;
+                        rows++;
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            } while (rows == CHUNK_SIZE);
+
+            statement.executeUpdate("UPDATE id_generators SET gen_val = "
+                    + "(SELECT COALESCE(MAX(id), 0) + 100 FROM account_entries) "
+                    + "WHERE gen_name = 'account_entries'");
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void addEntry(PreparedStatement insert, long id, long accountId, long txnId, Timestamp timestamp,
+            BigDecimal amount, String category) throws Exception {
+        insert.setLong(1, id);
+        insert.setLong(2, accountId);
+        insert.setLong(3, txnId);
+        insert.setTimestamp(4, timestamp);
+        insert.setBigDecimal(5, amount);
+        insert.setString(6, category);
+        insert.addBatch();
+    }
+}
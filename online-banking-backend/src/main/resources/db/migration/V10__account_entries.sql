@@ -0,0 +1,17 @@
+-- One row per account side of each transaction, so history, export and analytics
+-- queries filter on a single account column instead of sender OR recipient
+CREATE TABLE IF NOT EXISTS account_entries (
+    id BIGINT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    txn_id BIGINT NOT NULL,
+    timestamp TIMESTAMP,
+    amount DECIMAL(19,2),
+    category VARCHAR(50),
+    FOREIGN KEY (account_id) REFERENCES accounts(id),
+    FOREIGN KEY (txn_id) REFERENCES transactions(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_account_entries_account_timestamp ON account_entries(account_id, timestamp, txn_id);
+CREATE INDEX IF NOT EXISTS idx_account_entries_txn ON account_entries(txn_id);
+
+-- Existing rows are backfilled by V11 in chunks
@@ -0,0 +1,27 @@
+-- Account entries aggregated by account, month (yyyyMM) and category, so analytics
+-- read a handful of rows per month instead of scanning the account's history
+CREATE TABLE IF NOT EXISTS account_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    period INT NOT NULL,
+    category VARCHAR(50) DEFAULT '' NOT NULL,
+    entry_count BIGINT DEFAULT 0 NOT NULL,
+    total_amount DECIMAL(19,2) DEFAULT 0 NOT NULL,
+    outgoing_count BIGINT DEFAULT 0 NOT NULL,
+    outgoing_amount DECIMAL(19,2) DEFAULT 0 NOT NULL,
+    CONSTRAINT uk_account_rollups UNIQUE (account_id, period, category),
+    FOREIGN KEY (account_id) REFERENCES accounts(id)
+);
+
+-- Seed from the entries backfilled by V11; from here on the application keeps the rows up to date
+INSERT INTO account_rollups (account_id, period, category, entry_count, total_amount, outgoing_count, outgoing_amount)
+SELECT account_id,
+       YEAR(timestamp) * 100 + MONTH(timestamp),
+       COALESCE(category, ''),
+       COUNT(*),
+       SUM(ABS(amount)),
+       SUM(CASE WHEN amount < 0 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN amount < 0 THEN -amount ELSE 0 END)
+FROM account_entries
+WHERE timestamp IS NOT NULL
+GROUP BY account_id, YEAR(timestamp) * 100 + MONTH(timestamp), COALESCE(category, '');
@@ -0,0 +1,6 @@
+-- Failed deliveries wait until next_attempt_at before the relay claims them again, and
+-- delivered_channels records the channels that already went out so a retry skips them
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP NULL;
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS delivered_channels VARCHAR(50);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_delivery_due ON notifications(delivery_status, next_attempt_at, id);
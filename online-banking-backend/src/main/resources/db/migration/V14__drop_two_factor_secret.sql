@@ -0,0 +1,4 @@
+-- Pending two-factor codes are kept by TwoFactorCodeStore; drop the old per-account columns
+-- so no plaintext codes are left on the accounts table
+ALTER TABLE accounts DROP COLUMN two_factor_secret;
+ALTER TABLE accounts DROP COLUMN secret_expiry;
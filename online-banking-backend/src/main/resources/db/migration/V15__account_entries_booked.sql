@@ -0,0 +1,4 @@
+-- Entries are now written for every stored transaction so history and exports list all of them;
+-- booked marks the ones that moved the account's balance, which are all the existing rows.
+-- Entries for the remaining transactions are backfilled by V16
+ALTER TABLE account_entries ADD COLUMN IF NOT EXISTS booked BOOLEAN NOT NULL DEFAULT TRUE;
@@ -0,0 +1,10 @@
+-- Table-backed id generator for transactions (MySQL has no sequences).
+-- Unlike AUTO_INCREMENT it lets Hibernate batch transaction inserts.
+CREATE TABLE IF NOT EXISTS id_generators (
+    gen_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    gen_val BIGINT NOT NULL
+);
+
+-- Start well above the existing ids; the pooled optimizer hands out the 50 ids below each stored value
+INSERT INTO id_generators (gen_name, gen_val)
+SELECT 'transactions', COALESCE(MAX(id), 0) + 100 FROM transactions;
@@ -0,0 +1,6 @@
+-- Notifications double as outbox rows: they are written in the caller's transaction
+-- and delivered to WebSocket, email and SMS by a background relay
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS delivery_status VARCHAR(20) DEFAULT 'SENT';
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS delivery_attempts INT DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_notifications_delivery_status ON notifications(delivery_status, id);
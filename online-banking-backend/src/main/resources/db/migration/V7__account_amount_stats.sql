@@ -0,0 +1,22 @@
+-- Incrementally maintained amount statistics per sending account (Welford's algorithm)
+CREATE TABLE IF NOT EXISTS account_amount_stats (
+    account_id BIGINT PRIMARY KEY,
+    sample_count BIGINT DEFAULT 0 NOT NULL,
+    mean DOUBLE DEFAULT 0 NOT NULL,
+    m2 DOUBLE DEFAULT 0 NOT NULL,
+    decayed_mean DOUBLE DEFAULT 0 NOT NULL,
+    updated_at TIMESTAMP,
+    FOREIGN KEY (account_id) REFERENCES accounts(id)
+);
+
+-- Seed from existing history; from here on the application keeps the rows up to date
+INSERT INTO account_amount_stats (account_id, sample_count, mean, m2, decayed_mean, updated_at)
+SELECT sender_id,
+       COUNT(*),
+       AVG(amount),
+       GREATEST(0, SUM(amount * amount) - COUNT(*) * AVG(amount) * AVG(amount)),
+       AVG(amount),
+       CURRENT_TIMESTAMP
+FROM transactions
+WHERE sender_id IS NOT NULL AND status = 'COMPLETED'
+GROUP BY sender_id;
@@ -0,0 +1,5 @@
+-- Preferences are now created with the account; give existing accounts their defaults
+INSERT INTO notification_preferences (account_id)
+SELECT a.id
+FROM accounts a
+WHERE NOT EXISTS (SELECT 1 FROM notification_preferences p WHERE p.account_id = a.id);
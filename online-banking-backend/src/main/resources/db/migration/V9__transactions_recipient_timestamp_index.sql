@@ -0,0 +1,2 @@
+-- Lets the recipient side of the history queries seek on (timestamp, id) like the sender side
+CREATE INDEX IF NOT EXISTS idx_transactions_recipient_timestamp ON transactions(recipient_id, timestamp, id);
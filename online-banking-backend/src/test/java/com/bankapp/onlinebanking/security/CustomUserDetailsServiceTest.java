@@ -0,0 +1,77 @@
+package com.bankapp.onlinebanking.security;
+
+import com.bankapp.onlinebanking.model.User;
+import com.bankapp.onlinebanking.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomUserDetailsServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final UserRepository repository = mock(UserRepository.class);
+    private final CustomUserDetailsService service = new CustomUserDetailsService(
+            repository, Duration.ofSeconds(60), 10, now::get);
+
+    @Test
+    void servesRepeatedLookupsFromCacheUntilTheyExpire() {
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(user("alice", "hash-1")));
+
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("alice");
+        verify(repository, times(1)).findByUsername("alice");
+
+        now.addAndGet(61_000);
+        service.loadUserByUsername("alice");
+        verify(repository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void reloadsAfterEviction() {
+        when(repository.findByUsername("alice"))
+                .thenReturn(Optional.of(user("alice", "hash-1")))
+                .thenReturn(Optional.of(user("alice", "hash-2")));
+
+        assertEquals("hash-1", service.loadUserByUsername("alice").getPassword());
+        service.evict("alice");
+
+        UserDetails reloaded = service.loadUserByUsername("alice");
+        assertEquals("hash-2", reloaded.getPassword());
+    }
+
+    @Test
+    void doesNotCacheUnknownUsers() {
+        when(repository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost"));
+        verify(repository, times(2)).findByUsername("ghost");
+        assertEquals(0, service.getCachedUserCount());
+    }
+
+    @Test
+    void staysWithinItsSizeBound() {
+        for (int i = 0; i < 25; i++) {
+            String username = "user" + i;
+            when(repository.findByUsername(username)).thenReturn(Optional.of(user(username, "hash")));
+            now.incrementAndGet();
+            service.loadUserByUsername(username);
+        }
+        assertTrue(service.getCachedUserCount() <= 10);
+    }
+
+    private static User user(String username, String password) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(password);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,78 @@
+package com.bankapp.onlinebanking.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+    private final JwtService jwtService = new JwtService(SECRET, 60_000, 100, now::get);
+    private final UserDetails alice = User.withUsername("alice").password("x").authorities("USER").build();
+
+    @Test
+    void verifiesEachTokenOnceUntilItExpires() {
+        String token = jwtService.generateToken(alice);
+
+        Claims first = jwtService.parseToken(token);
+        assertSame(first, jwtService.parseToken(token));
+        assertEquals(1, jwtService.getCachedTokenCount());
+        assertEquals("alice", jwtService.extractUsername(token));
+        assertTrue(jwtService.isTokenValid(first, alice));
+        assertFalse(jwtService.isTokenValid(first,
+                User.withUsername("bob").password("x").authorities("USER").build()));
+
+        now.addAndGet(61_000);
+        assertFalse(jwtService.isTokenValid(first, alice));
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parseToken(token));
+    }
+
+    @Test
+    void rejectsTamperedTokensWithoutCachingThem() {
+        String token = jwtService.generateToken(alice);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.parseToken(tampered));
+        assertEquals(0, jwtService.getCachedTokenCount());
+    }
+
+    @Test
+    void keepsTheCacheBounded() {
+        for (int i = 0; i < 250; i++) {
+            now.addAndGet(1_000); // iat has one-second resolution
+            jwtService.parseToken(jwtService.generateToken(alice));
+        }
+        assertTrue(jwtService.getCachedTokenCount() <= 100);
+    }
+
+    @Test
+    void parsesEveryTimeWhenTheCacheIsDisabled() {
+        JwtService uncached = new JwtService(SECRET, 60_000, 0, now::get);
+        String token = uncached.generateToken(alice);
+
+        assertNotSame(uncached.parseToken(token), uncached.parseToken(token));
+        assertEquals(0, uncached.getCachedTokenCount());
+    }
+
+    @Test
+    void buildsThePrincipalFromClaimsOnlyWhenEnabled() {
+        Claims claims = jwtService.parseToken(jwtService.generateToken(alice));
+        assertNull(jwtService.userDetailsFromClaims(claims));
+
+        jwtService.setAuthoritiesInClaims(true);
+        UserDetails principal = jwtService.userDetailsFromClaims(claims);
+        assertEquals("alice", principal.getUsername());
+        assertEquals(alice.getAuthorities(), principal.getAuthorities());
+    }
+}
@@ -0,0 +1,63 @@
+package com.bankapp.onlinebanking.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final LoginAttemptTracker tracker = new LoginAttemptTracker(3, 5, Duration.ofMinutes(15), 1000, now::get);
+
+    @Test
+    void blocksAUsernameUntilItsFailuresSlideOutOfTheWindow() {
+        assertEquals(1, tracker.recordFailure("alice", "10.0.0.1"));
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertEquals(2, tracker.recordFailure("alice", "10.0.0.2"));
+        assertEquals(3, tracker.recordFailure("alice", "10.0.0.3"));
+        assertEquals(LoginAttemptTracker.Decision.USERNAME_BLOCKED, tracker.check("alice", "10.0.0.4"));
+        assertEquals(LoginAttemptTracker.Decision.ALLOWED, tracker.check("bob", "10.0.0.4"));
+
+        // The first failure expires, the other two are still inside the window
+        now.addAndGet(Duration.ofMinutes(11).toMillis());
+        assertEquals(LoginAttemptTracker.Decision.ALLOWED, tracker.check("alice", "10.0.0.4"));
+        assertEquals(3, tracker.recordFailure("alice", "10.0.0.4"));
+    }
+
+    @Test
+    void throttlesAnAddressSprayingManyUsernames() {
+        for (int i = 0; i < 5; i++) {
+            tracker.recordFailure("user" + i, "10.0.0.9");
+        }
+
+        assertEquals(LoginAttemptTracker.Decision.IP_BLOCKED, tracker.check("someone-else", "10.0.0.9"));
+        assertEquals(LoginAttemptTracker.Decision.ALLOWED, tracker.check("someone-else", "10.0.0.10"));
+    }
+
+    @Test
+    void successClearsTheUsernameButNotTheAddress() {
+        tracker.recordFailure("alice", "10.0.0.1");
+        tracker.recordFailure("alice", "10.0.0.1");
+        tracker.recordSuccess("alice");
+
+        assertEquals(1, tracker.recordFailure("alice", "10.0.0.1"));
+        tracker.recordFailure("bob", "10.0.0.1");
+        tracker.recordFailure("carol", "10.0.0.1");
+        assertEquals(LoginAttemptTracker.Decision.IP_BLOCKED, tracker.check("dave", "10.0.0.1"));
+    }
+
+    @Test
+    void staysBoundedAndDropsExpiredKeys() {
+        for (int i = 0; i < 10_000; i++) {
+            tracker.recordFailure("user" + i, "10.0." + (i / 256) + "." + (i % 256));
+        }
+        assertTrue(tracker.getTrackedKeys() <= 2 * 1000);
+
+        now.addAndGet(Duration.ofMinutes(16).toMillis());
+        tracker.evictExpired();
+        assertEquals(0, tracker.getTrackedKeys());
+    }
+}
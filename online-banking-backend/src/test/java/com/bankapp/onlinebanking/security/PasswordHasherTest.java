@@ -0,0 +1,106 @@
+package com.bankapp.onlinebanking.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void verifiesPasswordsOnThePool() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 2, 4, Duration.ofSeconds(5));
+        String encoded = hasher.encode("secret");
+
+        assertTrue(hasher.matches("secret", encoded));
+        assertFalse(hasher.matches("wrong", encoded));
+    }
+
+    @Test
+    void rejectsOnceTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        hasher = new PasswordHasher(new BlockingEncoder(started, release), 1, 1, Duration.ofSeconds(5));
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> hasher.matches("a", "a"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> hasher.matches("b", "b"));
+            while (hasher.getQueueDepth() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(RejectedExecutionException.class, () -> hasher.matches("c", "c"));
+            assertEquals(1, hasher.getRejectedCount());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            callers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void timesOutInsteadOfWaitingForever() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        hasher = new PasswordHasher(new BlockingEncoder(new CountDownLatch(1), release), 1, 1,
+                Duration.ofMillis(50));
+
+        assertThrows(RejectedExecutionException.class, () -> hasher.matches("a", "a"));
+        release.countDown();
+    }
+
+    @Test
+    void rehashesWeakerHashesToTheConfiguredCost() throws Exception {
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(5), 1, 4, Duration.ofSeconds(5));
+
+        CompletableFuture<String> rehashed = new CompletableFuture<>();
+        hasher.rehashIfNeeded("secret", weak, rehashed::complete);
+        String upgraded = rehashed.get(5, TimeUnit.SECONDS);
+
+        assertTrue(upgraded.startsWith("$2a$05$"));
+        assertTrue(hasher.matches("secret", upgraded));
+
+        CompletableFuture<String> untouched = new CompletableFuture<>();
+        hasher.rehashIfNeeded("secret", upgraded, untouched::complete);
+        assertThrows(java.util.concurrent.TimeoutException.class, () -> untouched.get(200, TimeUnit.MILLISECONDS));
+    }
+
+    private record BlockingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bankapp.onlinebanking.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final RateLimiter limiter = new RateLimiter(10, 5, 100, now::get);
+
+    @Test
+    void admitsABurstThenRefillsAtTheRate() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("alice", 1));
+        }
+        long wait = limiter.tryAcquire("alice", 1);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+
+        // Other keys have their own bucket
+        assertEquals(0, limiter.tryAcquire("bob", 1));
+
+        now.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("alice", 1));
+        assertTrue(limiter.tryAcquire("alice", 1) > 0);
+    }
+
+    @Test
+    void chargesExpensiveRoutesMore() {
+        assertEquals(0, limiter.tryAcquire("alice", 3));
+        assertTrue(limiter.tryAcquire("alice", 3) > 0);
+        assertEquals(0, limiter.tryAcquire("alice", 2));
+
+        // A cost above the burst is charged as the whole burst instead of never passing
+        assertEquals(0, limiter.tryAcquire("carol", 50));
+        assertTrue(limiter.tryAcquire("carol", 1) > 0);
+    }
+
+    @Test
+    void evictsOnlyFullBuckets() {
+        limiter.tryAcquire("alice", 5);
+        limiter.tryAcquire("bob", 1);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+
+        limiter.evictIdle();
+        assertEquals(1, limiter.size());
+        assertTrue(limiter.tryAcquire("alice", 5) > 0);
+    }
+
+    @Test
+    void staysWithinItsKeyBound() {
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("10.0.0." + i, 5);
+        }
+        assertTrue(limiter.size() <= 100);
+    }
+}
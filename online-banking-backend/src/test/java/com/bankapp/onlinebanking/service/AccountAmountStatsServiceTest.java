@@ -0,0 +1,94 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.AccountAmountStats;
+import com.bankapp.onlinebanking.repository.AccountAmountStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class AccountAmountStatsServiceTest {
+
+    @Test
+    void incrementalStatsMatchTwoPassComputation() {
+        Random random = new Random(42);
+        double[] amounts = new double[1_000];
+        AccountAmountStatsService.Stats stats = AccountAmountStatsService.Stats.EMPTY;
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = 1_000_000 + random.nextDouble() * 500;
+            stats = stats.add(amounts[i], 0.1);
+        }
+
+        double mean = 0.0;
+        for (double amount : amounts) {
+            mean += amount;
+        }
+        mean /= amounts.length;
+        double squares = 0.0;
+        for (double amount : amounts) {
+            squares += (amount - mean) * (amount - mean);
+        }
+
+        assertEquals(amounts.length, stats.count());
+        assertEquals(mean, stats.mean(), 1e-6);
+        assertEquals(squares / (amounts.length - 1), stats.variance(), 1e-3);
+    }
+
+    @Test
+    void firstAmountSeedsTheDecayedMeanAndHasNoSpread() {
+        AccountAmountStatsService.Stats stats = AccountAmountStatsService.Stats.EMPTY.add(80.0, 0.1);
+        assertEquals(1, stats.count());
+        assertEquals(80.0, stats.decayedMean(), 1e-9);
+        assertEquals(0.0, stats.standardDeviation(), 1e-9);
+
+        stats = stats.add(180.0, 0.1);
+        assertEquals(130.0, stats.mean(), 1e-9);
+        assertEquals(90.0, stats.decayedMean(), 1e-9);
+        assertEquals(5000.0, stats.variance(), 1e-9);
+    }
+
+    @Test
+    void recordAllWritesOnceAndMatchesRecordingOneByOne() {
+        AccountAmountStatsRepository repository = mock(AccountAmountStatsRepository.class);
+        when(repository.findById(anyLong())).thenReturn(Optional.empty());
+        AccountAmountStatsService service = newService(repository, 100);
+
+        AccountAmountStatsService.Stats batched = service.recordAll(1L, List.of(80.0, 180.0, 40.0));
+
+        verify(repository, times(1)).save(any(AccountAmountStats.class));
+        assertEquals(AccountAmountStatsService.Stats.EMPTY.add(80.0, 0.1).add(180.0, 0.1).add(40.0, 0.1), batched);
+        assertEquals(batched, service.getStats(1L));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedAccount() {
+        AccountAmountStatsRepository repository = mock(AccountAmountStatsRepository.class);
+        when(repository.findById(anyLong())).thenReturn(Optional.empty());
+        AccountAmountStatsService service = newService(repository, 2);
+
+        service.getStats(1L);
+        service.getStats(2L);
+        service.getStats(1L);
+        service.getStats(3L);
+        service.getStats(1L);
+        service.getStats(2L);
+
+        verify(repository, times(1)).findById(1L);
+        verify(repository, times(2)).findById(2L);
+    }
+
+    private static AccountAmountStatsService newService(AccountAmountStatsRepository repository, int maxEntries) {
+        AccountAmountStatsService service = new AccountAmountStatsService();
+        ReflectionTestUtils.setField(service, "statsRepository", repository);
+        ReflectionTestUtils.setField(service, "decay", 0.1);
+        ReflectionTestUtils.setField(service, "maxEntries", maxEntries);
+        return service;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bankapp.onlinebanking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLockManagerTest {
+
+    @Test
+    void disjointAccountPairsDoNotBlockEachOther() throws Exception {
+        AccountLockManager lockManager = new AccountLockManager(1024);
+        assertNotEquals(lockManager.stripeFor(1L), lockManager.stripeFor(3L));
+        assertNotEquals(lockManager.stripeFor(2L), lockManager.stripeFor(4L));
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> lockManager.executeLocked(1L, 2L, () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        // A transfer between 3 and 4 must go through while 1 -> 2 is still in flight
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            Boolean done = other.submit(() -> lockManager.executeLocked(4L, 3L, () -> true))
+                    .get(5, TimeUnit.SECONDS);
+            assertTrue(done);
+        } finally {
+            release.countDown();
+            other.shutdown();
+            holder.join();
+        }
+    }
+
+    @Test
+    void stripeCountIsRoundedUpToPowerOfTwo() {
+        assertEquals(1024, new AccountLockManager(1000).getStripeCount());
+        assertEquals(1, new AccountLockManager(1).getStripeCount());
+        assertThrows(IllegalArgumentException.class, () -> new AccountLockManager(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AccountLockManager(4).executeLocked(null, null, () -> null));
+    }
+}
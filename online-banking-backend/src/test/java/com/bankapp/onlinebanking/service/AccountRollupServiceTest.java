@@ -0,0 +1,135 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.AccountEntry;
+import com.bankapp.onlinebanking.entity.AccountRollup;
+import com.bankapp.onlinebanking.repository.AccountEntryRepository;
+import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.repository.AccountRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class AccountRollupServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 15, 12, 0);
+
+    private final AccountRollupRepository rollupRepository = mock(AccountRollupRepository.class);
+    private final AccountEntryRepository entryRepository = mock(AccountEntryRepository.class);
+    private final AccountRollupService service = new AccountRollupService(rollupRepository, entryRepository,
+            mock(AccountRepository.class), new AccountLockManager(16), mock(TransactionTemplate.class),
+            Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+    @Test
+    void readsWholeMonthsFromRollupsAndOnlyThePartialLeadingMonthFromEntries() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 10, 8, 30);
+        when(entryRepository.summarizeByMonthAndCategory(1L, start, LocalDateTime.of(2024, 2, 1, 0, 0)))
+                .thenReturn(List.<Object[]>of(new Object[]{202401, "DINING", 2L, 30.0, 1L, 10.0}));
+        when(rollupRepository.findByAccountIdAndPeriodBetween(1L, 202402, 202406))
+                .thenReturn(List.of(rollup(202403, "", 4L, "100.00", 4L, "100.00")));
+
+        List<AccountRollupService.Summary> summaries = service.summarize(1L, start, NOW);
+
+        assertEquals(2, summaries.size());
+        assertEquals(new AccountRollupService.Summary(202401, "DINING", 2, new BigDecimal("30.00"), 1,
+                new BigDecimal("10.00")), summaries.get(0));
+        assertEquals(new AccountRollupService.Summary(202403, null, 4, new BigDecimal("100.00"), 4,
+                new BigDecimal("100.00")), summaries.get(1));
+        verify(entryRepository, times(1)).summarizeByMonthAndCategory(anyLong(), any(), any());
+    }
+
+    @Test
+    void currentMonthFromItsFirstDayIsServedEntirelyFromRollups() {
+        service.summarize(1L, LocalDateTime.of(2024, 6, 1, 0, 0), null);
+
+        verify(rollupRepository).findByAccountIdAndPeriodBetween(1L, 202406, 202406);
+        verifyNoInteractions(entryRepository);
+    }
+
+    @Test
+    void boundedRangeReadsTheTrailingPartialMonthFromEntries() {
+        LocalDateTime end = LocalDateTime.of(2024, 4, 20, 0, 0);
+        service.summarize(1L, LocalDateTime.of(2024, 2, 1, 0, 0), end);
+
+        verify(rollupRepository).findByAccountIdAndPeriodBetween(1L, 202402, 202403);
+        verify(entryRepository).summarizeByMonthAndCategory(1L, LocalDateTime.of(2024, 4, 1, 0, 0),
+                end.plusNanos(1_000));
+    }
+
+    @Test
+    void recordAggregatesEntriesIntoOneUpsertPerRollupRow() {
+        service.record(List.of(
+                entry(1L, -10.0, "DINING"),
+                entry(1L, -5.1, "DINING"),
+                entry(2L, 10.0, null)));
+
+        verify(rollupRepository).upsert(1L, 202406, "DINING", 2L, new BigDecimal("15.10"), 2L,
+                new BigDecimal("15.10"));
+        verify(rollupRepository).upsert(2L, 202406, "", 1L, new BigDecimal("10.00"), 0L, new BigDecimal("0.00"));
+        verify(rollupRepository, never()).save(any());
+    }
+
+    @Test
+    void recategorizeMovesAmountsBetweenCategories() {
+        service.recategorize(List.of(entry(1L, -10.0, "OTHER"), entry(2L, 10.0, "OTHER")), "DINING");
+
+        verify(rollupRepository).upsert(1L, 202406, "OTHER", -1L, new BigDecimal("-10.00"), -1L,
+                new BigDecimal("-10.00"));
+        verify(rollupRepository).upsert(1L, 202406, "DINING", 1L, new BigDecimal("10.00"), 1L,
+                new BigDecimal("10.00"));
+        verify(rollupRepository).upsert(2L, 202406, "OTHER", -1L, new BigDecimal("-10.00"), 0L,
+                new BigDecimal("0.00"));
+        verify(rollupRepository).upsert(2L, 202406, "DINING", 1L, new BigDecimal("10.00"), 0L,
+                new BigDecimal("0.00"));
+    }
+
+    @Test
+    void removeTakesEntriesBackOut() {
+        service.remove(List.of(entry(1L, -10.0, "DINING")));
+
+        verify(rollupRepository).upsert(1L, 202406, "DINING", -1L, new BigDecimal("-10.00"), -1L,
+                new BigDecimal("-10.00"));
+    }
+
+    @Test
+    void unbookedEntriesAreLeftOut() {
+        AccountEntry failed = entry(1L, -10.0, "DINING");
+        failed.setBooked(false);
+
+        service.record(List.of(failed));
+        service.recategorize(List.of(failed), "TRAVEL");
+
+        verifyNoInteractions(rollupRepository);
+    }
+
+    private static AccountEntry entry(Long accountId, double amount, String category) {
+        AccountEntry entry = new AccountEntry();
+        entry.setAccountId(accountId);
+        entry.setTimestamp(NOW);
+        entry.setAmount(amount);
+        entry.setCategory(category);
+        return entry;
+    }
+
+    private static AccountRollup rollup(int period, String category, long count, String total, long outgoingCount,
+            String outgoingAmount) {
+        AccountRollup rollup = new AccountRollup();
+        rollup.setAccountId(1L);
+        rollup.setPeriod(period);
+        rollup.setCategory(category);
+        rollup.setEntryCount(count);
+        rollup.setTotalAmount(new BigDecimal(total));
+        rollup.setOutgoingCount(outgoingCount);
+        rollup.setOutgoingAmount(new BigDecimal(outgoingAmount));
+        return rollup;
+    }
+}
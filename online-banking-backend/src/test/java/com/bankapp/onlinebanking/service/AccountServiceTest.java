@@ -0,0 +1,62 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.security.LoginAttemptTracker;
+import com.bankapp.onlinebanking.security.PasswordHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AccountServiceTest {
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final PasswordHasher passwordHasher = mock(PasswordHasher.class);
+    private final LoginAttemptTracker loginAttemptTracker = mock(LoginAttemptTracker.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final AccountService service = new AccountService(accountRepository, passwordHasher);
+
+    private final Account account = new Account("Holder", 100.0);
+
+    @BeforeEach
+    void setUp() {
+        account.setId(1L);
+        account.setPassword("hash");
+        when(accountRepository.findByUsername("holder")).thenReturn(Optional.of(account));
+        when(loginAttemptTracker.check("holder", "10.0.0.1")).thenReturn(LoginAttemptTracker.Decision.ALLOWED);
+        when(loginAttemptTracker.getUsernameMaxFailures()).thenReturn(5);
+
+        ReflectionTestUtils.setField(service, "loginAttemptTracker", loginAttemptTracker);
+        ReflectionTestUtils.setField(service, "notificationService", notificationService);
+    }
+
+    @Test
+    void throttledLoginsRaiseTheDedicatedException() {
+        when(loginAttemptTracker.check("holder", "10.0.0.1")).thenReturn(LoginAttemptTracker.Decision.USERNAME_BLOCKED);
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> service.login("holder", "secret", "10.0.0.1"));
+        verifyNoInteractions(passwordHasher);
+    }
+
+    @Test
+    void locksTheAccountWhenConcurrentFailuresStepPastTheLimit() {
+        when(passwordHasher.matches("wrong", "hash")).thenReturn(false);
+        // Another request already took the count to the limit
+        when(loginAttemptTracker.recordFailure("holder", "10.0.0.1")).thenReturn(6);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> service.login("holder", "wrong", "10.0.0.1"));
+
+        assertEquals("Account locked due to too many failed attempts", e.getMessage());
+        assertTrue(account.getIsLocked());
+        verify(accountRepository).save(account);
+        verify(notificationService).createNotification(any(Account.class), anyString(), anyString(), anyString());
+    }
+}
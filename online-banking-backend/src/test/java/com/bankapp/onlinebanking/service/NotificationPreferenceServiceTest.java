@@ -0,0 +1,81 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.NotificationPreference;
+import com.bankapp.onlinebanking.repository.NotificationPreferenceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationPreferenceServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationPreferenceRepository repository = mock(NotificationPreferenceRepository.class);
+    private final NotificationPreferenceService service = new NotificationPreferenceService(
+            repository, meterRegistry, Duration.ofMinutes(5), 10, now::get);
+
+    @Test
+    void servesRepeatedLookupsFromCacheUntilTheyExpire() {
+        Account account = account(1L);
+        when(repository.findByAccount(account)).thenReturn(Optional.of(preference(account)));
+
+        service.getPreferences(account);
+        service.getPreferences(account);
+        service.getPreferences(account);
+        verify(repository, times(1)).findByAccount(account);
+
+        now.addAndGet(Duration.ofMinutes(6).toMillis());
+        service.getPreferences(account);
+        verify(repository, times(2)).findByAccount(account);
+
+        assertEquals(2.0, meterRegistry.get("notification.preferences.cache").tag("result", "hit").counter().count());
+        assertEquals(2.0, meterRegistry.get("notification.preferences.cache").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void updateReplacesTheCachedEntry() {
+        Account account = account(1L);
+        NotificationPreference stored = preference(account);
+        when(repository.findByAccount(account)).thenReturn(Optional.of(stored));
+        when(repository.save(any(NotificationPreference.class))).thenAnswer(inv -> inv.getArgument(0));
+        assertTrue(service.getPreferences(account).getEnableSmsNotifications());
+
+        NotificationPreference update = preference(account);
+        update.setEnableSmsNotifications(false);
+        service.updatePreferences(account, update);
+
+        assertFalse(service.getPreferences(account).getEnableSmsNotifications());
+        verify(repository, times(2)).findByAccount(account);
+    }
+
+    @Test
+    void staysWithinItsSizeBound() {
+        when(repository.findByAccount(any(Account.class)))
+                .thenAnswer(inv -> Optional.of(preference(inv.getArgument(0))));
+        for (long id = 1; id <= 100; id++) {
+            now.incrementAndGet();
+            service.getPreferences(account(id));
+        }
+        assertTrue(meterRegistry.get("notification.preferences.cache.size").gauge().value() <= 10);
+    }
+
+    private static Account account(Long id) {
+        Account account = new Account("Holder " + id, 0.0);
+        account.setId(id);
+        return account;
+    }
+
+    private static NotificationPreference preference(Account account) {
+        NotificationPreference preference = new NotificationPreference();
+        preference.setAccount(account);
+        return preference;
+    }
+}
@@ -0,0 +1,91 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.controller.NotificationController;
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.Notification;
+import com.bankapp.onlinebanking.entity.NotificationPreference;
+import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.repository.NotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceTest {
+
+    private final NotificationController notificationController = mock(NotificationController.class);
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final SmsService smsService = mock(SmsService.class);
+    private final NotificationPreferenceService preferenceService = mock(NotificationPreferenceService.class);
+    private final NotificationService service = new NotificationService();
+
+    private final Account account = new Account("Holder", 100.0);
+
+    @BeforeEach
+    void setUp() {
+        account.setId(1L);
+        account.setEmail("holder@example.com");
+        account.setPhoneNumber("+15550100");
+        NotificationPreference preference = new NotificationPreference();
+        when(preferenceService.getPreferences(account)).thenReturn(preference);
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(emailService.sendEmail(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(smsService.sendSms(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        ReflectionTestUtils.setField(service, "notificationController", notificationController);
+        ReflectionTestUtils.setField(service, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(service, "emailService", emailService);
+        ReflectionTestUtils.setField(service, "smsService", smsService);
+        ReflectionTestUtils.setField(service, "notificationPreferenceService", preferenceService);
+        ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    void retryOnlyResendsChannelsThatFailed() {
+        Notification notification = service.createTransactionNotification(transaction(250.0));
+        when(smsService.sendSms(anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("SMS gateway down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThrows(CompletionException.class, () -> service.deliver(notification).join());
+        assertEquals("WEBSOCKET,EMAIL", notification.getDeliveredChannels());
+
+        service.deliver(notification).join();
+
+        assertEquals("WEBSOCKET,EMAIL,SMS", notification.getDeliveredChannels());
+        verify(notificationController, times(1)).sendNotificationToUser(1L, notification);
+        verify(emailService, times(1)).sendEmail(anyString(), anyString(), anyString());
+        verify(smsService, times(2)).sendSms(anyString(), anyString());
+    }
+
+    @Test
+    void storesTheAmountAsJsonForTheEmailThreshold() {
+        Notification notification = service.createTransactionNotification(transaction(20.0));
+
+        assertEquals("{\"amount\":20.0}", notification.getAdditionalData());
+        service.deliver(notification).join();
+        verify(emailService, never()).sendEmail(anyString(), anyString(), anyString());
+    }
+
+    private Transaction transaction(double amount) {
+        Transaction transaction = new Transaction();
+        transaction.setId(7L);
+        transaction.setSender(account);
+        transaction.setAmount(amount);
+        transaction.setTransactionType("TRANSFER");
+        transaction.setStatus("COMPLETED");
+        return transaction;
+    }
+}
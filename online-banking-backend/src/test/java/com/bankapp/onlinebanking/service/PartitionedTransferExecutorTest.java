@@ -0,0 +1,292 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PartitionedTransferExecutorTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int CLIENT_THREADS = 16;
+    private static final int TRANSFERS = 4_000;
+    // Simulated cost of a database commit, which is what group commit amortizes
+    private static final long COMMIT_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+    private final Map<Long, Transaction> ledger = new ConcurrentHashMap<>();
+    private final AtomicLong transactionIds = new AtomicLong();
+
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private AccountLockManager lockManager;
+    private PartitionedTransferExecutor executor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        for (long id = 1; id <= ACCOUNTS; id++) {
+            Account account = new Account("Holder " + id, 1_000_000.0);
+            account.setId(id);
+            accounts.put(id, account);
+        }
+
+        accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findById(anyLong()))
+                .thenAnswer(inv -> Optional.ofNullable(accounts.get(inv.<Long>getArgument(0))));
+        when(accountRepository.findAllById(any())).thenAnswer(inv -> {
+            List<Account> found = new ArrayList<>();
+            for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+                Account account = accounts.get(id);
+                if (account != null) {
+                    found.add(account);
+                }
+            }
+            return found;
+        });
+        when(accountRepository.save(any(Account.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(accountRepository.saveAll(any())).thenAnswer(inv -> {
+            List<Account> saved = new ArrayList<>();
+            inv.<Iterable<Account>>getArgument(0).forEach(saved::add);
+            return saved;
+        });
+
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(inv -> store(inv.getArgument(0)));
+        when(transactionRepository.saveAll(any())).thenAnswer(inv -> {
+            List<Transaction> saved = new ArrayList<>();
+            for (Transaction transaction : inv.<Iterable<Transaction>>getArgument(0)) {
+                saved.add(store(transaction));
+            }
+            return saved;
+        });
+        when(transactionRepository.findByStatus(anyString())).thenReturn(List.of());
+
+        transactionTemplate = new TransactionTemplate(new SlowCommitTransactionManager());
+        lockManager = new AccountLockManager(1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    @Test
+    void crossPartitionTransfersConserveTotalBalance() throws Exception {
+        executor = newExecutor(4);
+        runTransfers(transaction -> executor.execute(transaction));
+
+        awaitNoPendingCredits();
+
+        assertEquals(1_000_000.0 * ACCOUNTS, totalBalance(), 0.0001);
+        assertTrue(accounts.values().stream().allMatch(a -> a.getBalance() >= 0));
+        assertEquals(TRANSFERS, ledger.size());
+    }
+
+    @Test
+    void rejectsSubmissionsWhenDisabled() {
+        executor = new PartitionedTransferExecutor(accountRepository, transactionRepository,
+                transactionTemplate, lockManager, false, 4, 64, 100);
+        executor.start();
+        assertFalse(executor.isEnabled());
+        assertThrows(IllegalStateException.class, () -> executor.submit(newTransfer(1L, 2L, 10.0)));
+    }
+
+    @Test
+    void lockedAndPartitionedPathsConserveTotalBalance() throws Exception {
+        runTransfers(transaction -> lockManager.executeLocked(
+                transaction.getSender().getId(), transaction.getRecipient().getId(),
+                () -> transactionTemplate.execute(status -> {
+                    Account sender = accountRepository.findById(transaction.getSender().getId()).orElseThrow();
+                    Account recipient = accountRepository.findById(transaction.getRecipient().getId()).orElseThrow();
+                    if (sender.getBalance() >= transaction.getAmount()) {
+                        sender.setBalance(sender.getBalance() - transaction.getAmount());
+                        recipient.setBalance(recipient.getBalance() + transaction.getAmount());
+                        accountRepository.save(sender);
+                        accountRepository.save(recipient);
+                        transaction.setStatus("COMPLETED");
+                    } else {
+                        transaction.setStatus("FAILED");
+                    }
+                    return transactionRepository.save(transaction);
+                })));
+        assertEquals(1_000_000.0 * ACCOUNTS, totalBalance(), 0.0001);
+
+        executor = newExecutor(4);
+        runTransfers(transaction -> executor.execute(transaction));
+        awaitNoPendingCredits();
+
+        assertEquals(1_000_000.0 * ACCOUNTS, totalBalance(), 0.0001);
+        assertEquals(2 * TRANSFERS, ledger.size());
+    }
+
+    @Test
+    void creditToMissingRecipientRefundsTheSender() throws Exception {
+        List<String> steps = new CopyOnWriteArrayList<>();
+        executor = newExecutor(4);
+        executor.setListener(new PartitionedTransferExecutor.CrossPartitionListener() {
+            @Override
+            public void credited(Transaction transaction) {
+                steps.add("credited");
+            }
+
+            @Override
+            public void creditCommitted(Transaction transaction) {
+                steps.add("creditCommitted");
+            }
+
+            @Override
+            public void refunded(Transaction transaction) {
+                steps.add("refunded");
+            }
+        });
+
+        // Account 99 does not exist and belongs to another partition than account 1
+        Account missing = new Account("Gone", 0.0);
+        missing.setId(99L);
+        assertNotEquals(executor.partitionIndex(1L), executor.partitionIndex(99L));
+        Transaction transfer = newTransfer(1L, 2L, 250.0);
+        transfer.setRecipient(missing);
+
+        Transaction debited = executor.execute(transfer);
+        assertEquals("PENDING", debited.getStatus());
+        awaitNoPendingCredits();
+
+        assertEquals("FAILED", ledger.get(debited.getId()).getStatus());
+        assertEquals(1_000_000.0, accounts.get(1L).getBalance(), 0.0001);
+        assertEquals(List.of("refunded"), steps);
+    }
+
+    @Test
+    void rejectsTransfersOnceStopped() {
+        executor = newExecutor(4);
+        executor.stop();
+
+        assertThrows(IllegalStateException.class, () -> executor.submit(newTransfer(1L, 2L, 10.0)));
+    }
+
+    @Test
+    void failsTransfersOfAPartitionWhoseThreadDied() {
+        executor = newExecutor(1);
+        when(accountRepository.findAllById(any())).thenThrow(new StackOverflowError("Simulated partition crash"));
+
+        CompletableFuture<Transaction> crashed = executor.submit(newTransfer(1L, 2L, 10.0));
+
+        assertThrows(ExecutionException.class, () -> crashed.get(10, TimeUnit.SECONDS));
+        // The dead partition rejects further transfers instead of queueing them forever
+        assertThrows(IllegalStateException.class, () -> executor.submit(newTransfer(1L, 2L, 10.0)));
+    }
+
+    private PartitionedTransferExecutor newExecutor(int partitions) {
+        PartitionedTransferExecutor partitioned = new PartitionedTransferExecutor(accountRepository,
+                transactionRepository, transactionTemplate, lockManager, true, partitions, 64, 10_000);
+        partitioned.start();
+        return partitioned;
+    }
+
+    private void runTransfers(TransferPath path) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int c = 0; c < CLIENT_THREADS; c++) {
+            clients.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS / CLIENT_THREADS; i++) {
+                    long from = random.nextLong(1, ACCOUNTS + 1);
+                    long to = random.nextLong(1, ACCOUNTS + 1);
+                    path.transfer(newTransfer(from, to, (double) random.nextInt(1, 500)));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(60, TimeUnit.SECONDS));
+    }
+
+    // Cross-partition credits complete asynchronously after the debit is acknowledged
+    private void awaitNoPendingCredits() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (ledger.values().stream().anyMatch(t -> "PENDING".equals(t.getStatus()))) {
+            assertTrue(System.nanoTime() < deadline, "Pending credits were never applied");
+            Thread.sleep(10);
+        }
+    }
+
+    private Transaction newTransfer(Long from, Long to, Double amount) {
+        Transaction transaction = new Transaction();
+        transaction.setSender(accounts.get(from));
+        transaction.setRecipient(accounts.get(to));
+        transaction.setAmount(amount);
+        transaction.setTransactionType("TRANSFER");
+        transaction.setStatus("PENDING");
+        return transaction;
+    }
+
+    private Transaction store(Transaction transaction) {
+        if (transaction.getId() == null) {
+            transaction.setId(transactionIds.incrementAndGet());
+        }
+        ledger.put(transaction.getId(), transaction);
+        return transaction;
+    }
+
+    private double totalBalance() {
+        return accounts.values().stream().mapToDouble(Account::getBalance).sum();
+    }
+
+    private interface TransferPath {
+        Transaction transfer(Transaction transaction);
+    }
+
+    private static final class SlowCommitTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            LockSupport.parkNanos(COMMIT_NANOS);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bankapp.onlinebanking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurringPaymentIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 3, 9, 0);
+
+    private final AtomicLong now = new AtomicLong(millis(START.plusYears(1)));
+    private final RecurringPaymentIndex index = new RecurringPaymentIndex(Duration.ofDays(400), now::get);
+
+    @Test
+    void detectsMonthlyPaymentsDespiteVaryingReferences() {
+        for (int month = 0; month < 4; month++) {
+            index.record(1L, "NETFLIX.COM ref " + (1000 + month), "NETFLIX.COM", 15.49,
+                    START.plusMonths(month).plusHours(month));
+        }
+
+        List<RecurringPaymentIndex.RecurringPayment> payments = index.getRecurringPayments(1L);
+        assertEquals(1, payments.size());
+        RecurringPaymentIndex.RecurringPayment payment = payments.get(0);
+        assertEquals(RecurringPaymentIndex.Periodicity.MONTHLY, payment.periodicity());
+        assertEquals(4, payment.occurrences());
+        assertEquals("NETFLIX.COM ref 1003", payment.description());
+        assertEquals(START, payment.firstOccurrence());
+        assertTrue(payment.nextExpected().isAfter(START.plusMonths(4)));
+    }
+
+    @Test
+    void classifiesACandidateAgainstEarlierPayments() {
+        index.record(1L, "Gym membership", "Gym", 30.0, START);
+        index.record(1L, "Gym membership", "Gym", 30.0, START.plusWeeks(1));
+        assertNull(index.classify(1L, "Gym membership", 45.0, START.plusWeeks(2)));
+        assertNull(index.classify(2L, "Gym membership", 30.0, START.plusWeeks(2)));
+
+        assertEquals(RecurringPaymentIndex.Periodicity.WEEKLY,
+                index.classify(1L, "Gym membership", 30.2, START.plusWeeks(2)));
+
+        index.record(3L, "Water bill", "Water", 60.2, START);
+        index.record(3L, "Water bill", "Water", 59.8, START.plusMonths(3));
+        assertEquals(RecurringPaymentIndex.Periodicity.QUARTERLY,
+                index.classify(3L, "Water bill", 60.0, START.plusMonths(6)));
+    }
+
+    @Test
+    void ignoresIrregularPaymentsAndSameDayRepeats() {
+        index.record(1L, "Coffee", "Coffee", 4.0, START);
+        index.record(1L, "Coffee", "Coffee", 4.0, START.plusDays(2));
+        index.record(1L, "Coffee", "Coffee", 4.0, START.plusDays(19));
+        index.record(1L, "Coffee", "Coffee", 4.0, START.plusDays(23));
+        assertTrue(index.getRecurringPayments(1L).isEmpty());
+
+        index.record(2L, "Insurance", "Insurance", 80.0, START);
+        index.record(2L, "Insurance", "Insurance", 80.0, START.plusMinutes(5));
+        index.record(2L, "Insurance", "Insurance", 80.0, START.plusMonths(1));
+        assertTrue(index.getRecurringPayments(2L).isEmpty());
+        index.record(2L, "Insurance", "Insurance", 80.0, START.plusMonths(2));
+        assertEquals(RecurringPaymentIndex.Periodicity.MONTHLY, index.getRecurringPayments(2L).get(0).periodicity());
+    }
+
+    @Test
+    void evictsPaymentsOlderThanTheHorizon() {
+        index.record(1L, "Rent", "Rent", 900.0, START);
+        now.addAndGet(Duration.ofDays(40).toMillis());
+        index.evictExpired();
+        assertEquals(0, index.getTrackedAccounts());
+    }
+
+    private static long millis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
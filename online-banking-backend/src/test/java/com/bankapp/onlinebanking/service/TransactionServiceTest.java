@@ -0,0 +1,187 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.AccountEntry;
+import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.model.BulkTransferItem;
+import com.bankapp.onlinebanking.repository.AccountEntryRepository;
+import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.repository.TransactionRepository;
+import com.bankapp.onlinebanking.service.categorization.MerchantCategorizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransactionServiceTest {
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final AccountEntryRepository accountEntryRepository = mock(AccountEntryRepository.class);
+    private final AccountRollupService accountRollupService = mock(AccountRollupService.class);
+    private final PartitionedTransferExecutor partitionedTransferExecutor = mock(PartitionedTransferExecutor.class);
+    private final RecurringPaymentIndex recurringPaymentIndex = mock(RecurringPaymentIndex.class);
+    private final FraudDetectionService fraudDetectionService = mock(FraudDetectionService.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final TransactionService service = new TransactionService();
+
+    private final Account sender = account(1L, 50.0);
+    private final Account recipient = account(2L, 0.0);
+
+    @BeforeEach
+    void setUp() {
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(sender));
+        when(accountRepository.findById(2L)).thenReturn(Optional.of(recipient));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ReflectionTestUtils.setField(service, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(service, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(service, "accountEntryRepository", accountEntryRepository);
+        ReflectionTestUtils.setField(service, "fraudDetectionService", fraudDetectionService);
+        ReflectionTestUtils.setField(service, "notificationService", notificationService);
+        ReflectionTestUtils.setField(service, "accountLockManager", new AccountLockManager(16));
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "partitionedTransferExecutor", partitionedTransferExecutor);
+        ReflectionTestUtils.setField(service, "velocityTracker", mock(VelocityTracker.class));
+        ReflectionTestUtils.setField(service, "accountAmountStatsService", mock(AccountAmountStatsService.class));
+        ReflectionTestUtils.setField(service, "accountRollupService", accountRollupService);
+        ReflectionTestUtils.setField(service, "merchantCategorizer", mock(MerchantCategorizer.class));
+        ReflectionTestUtils.setField(service, "recurringPaymentIndex", recurringPaymentIndex);
+        ReflectionTestUtils.setField(service, "transferMetrics", new TransferMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void completedTransferWritesBothEntries() {
+        Transaction transaction = service.createTransaction(sender, recipient, 20.0, "TRANSFER", "Rent");
+
+        assertEquals("COMPLETED", transaction.getStatus());
+        ArgumentCaptor<List<AccountEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(accountEntryRepository).saveAll(entries.capture());
+        assertEquals(List.of(-20.0, 20.0), entries.getValue().stream().map(AccountEntry::getAmount).toList());
+        assertTrue(entries.getValue().stream().allMatch(AccountEntry::isBooked));
+        verify(accountRollupService).record(entries.getValue());
+        verify(recurringPaymentIndex).record(1L, "Rent", transaction.getMerchantName(), 20.0,
+                transaction.getTimestamp());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedTransferWritesUnbookedEntries() {
+        Transaction transaction = service.createTransaction(sender, recipient, 80.0, "TRANSFER", "Rent");
+
+        assertEquals("FAILED", transaction.getStatus());
+        assertEquals(50.0, sender.getBalance());
+        assertEquals(0.0, recipient.getBalance());
+        // Still listed in both parties' history, but left out of the rollups
+        ArgumentCaptor<List<AccountEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(accountEntryRepository).saveAll(entries.capture());
+        assertEquals(List.of(1L, 2L), entries.getValue().stream().map(AccountEntry::getAccountId).toList());
+        assertTrue(entries.getValue().stream().noneMatch(AccountEntry::isBooked));
+        verifyNoInteractions(recurringPaymentIndex);
+    }
+
+    @Test
+    void bulkFraudCheckUsesEachRecipientsTotal() {
+        // Rules only see the 25.0 going to account 2 if its two payments are judged together
+        when(fraudDetectionService.analyzeTransaction(any(Transaction.class)))
+                .thenAnswer(inv -> inv.<Transaction>getArgument(0).getAmount() > 20.0);
+
+        ReflectionTestUtils.setField(service, "maxBulkTransferItems", 5000);
+
+        Account other = account(3L, 0.0);
+        when(accountRepository.findAllById(any())).thenReturn(List.of(recipient, other));
+
+        List<BulkTransferItem> items = List.of(item(3L, 5.0), item(2L, 10.0), item(2L, 15.0));
+        assertThrows(SuspiciousTransferException.class, () -> service.createBulkTransfer(1L, items, "10.0.0.7"));
+
+        ArgumentCaptor<Transaction> probes = ArgumentCaptor.forClass(Transaction.class);
+        verify(fraudDetectionService, times(2)).analyzeTransaction(probes.capture());
+        assertEquals(List.of(5.0, 25.0), probes.getAllValues().stream().map(Transaction::getAmount).toList());
+        assertEquals(List.of(other, recipient),
+                probes.getAllValues().stream().map(Transaction::getRecipient).toList());
+        assertTrue(probes.getAllValues().stream().allMatch(probe -> "10.0.0.7".equals(probe.getIpAddress())));
+        // The fraud rules raise the only alert
+        verifyNoInteractions(notificationService);
+        verify(transactionRepository, never()).saveAll(any());
+        verify(accountEntryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void rolledBackCreditLeavesTheRecurringIndexAlone() {
+        ArgumentCaptor<PartitionedTransferExecutor.CrossPartitionListener> listener =
+                ArgumentCaptor.forClass(PartitionedTransferExecutor.CrossPartitionListener.class);
+        service.init();
+        verify(partitionedTransferExecutor).setListener(listener.capture());
+
+        Transaction transfer = new Transaction();
+        transfer.setId(7L);
+        transfer.setSender(sender);
+        transfer.setRecipient(recipient);
+        transfer.setAmount(20.0);
+        transfer.setDescription("Rent");
+        transfer.setTimestamp(LocalDateTime.of(2024, 3, 1, 9, 0));
+        transfer.setStatus("COMPLETED");
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new SynchronizingTransactionManager());
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            listener.getValue().credited(transfer);
+            throw new IllegalStateException("Credit rolled back");
+        }));
+        verifyNoInteractions(recurringPaymentIndex);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            listener.getValue().credited(transfer);
+            verifyNoInteractions(recurringPaymentIndex);
+        });
+        verify(recurringPaymentIndex).record(1L, "Rent", null, 20.0, transfer.getTimestamp());
+    }
+
+    private static BulkTransferItem item(Long toAccountId, double amount) {
+        BulkTransferItem item = new BulkTransferItem();
+        item.setToAccountId(toAccountId);
+        item.setAmount(amount);
+        return item;
+    }
+
+    private static Account account(Long id, double balance) {
+        Account account = new Account("Holder " + id, balance);
+        account.setId(id);
+        return account;
+    }
+
+    // Runs transaction synchronizations like a real transaction manager, without a database
+    private static final class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
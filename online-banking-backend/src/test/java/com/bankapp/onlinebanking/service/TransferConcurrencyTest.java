@@ -0,0 +1,215 @@
+package com.bankapp.onlinebanking.service;
+
+import com.bankapp.onlinebanking.entity.Account;
+import com.bankapp.onlinebanking.entity.Transaction;
+import com.bankapp.onlinebanking.repository.AccountEntryRepository;
+import com.bankapp.onlinebanking.repository.AccountRepository;
+import com.bankapp.onlinebanking.repository.TransactionRepository;
+import com.bankapp.onlinebanking.security.PasswordHasher;
+import com.bankapp.onlinebanking.service.categorization.MerchantCategorizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Runs {@link AccountService#transferMoney} and {@link TransactionService#createTransaction}
+ * concurrently over a handful of accounts. The in-memory repository hands out a fresh copy of
+ * an account on every read, like a new persistence context would, and takes a while to answer,
+ * so a path that reads a balance without holding both account locks loses updates.
+ */
+class TransferConcurrencyTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 400;
+    private static final long INITIAL_BALANCE = 1_000_000;
+    private static final long READ_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+    private static final long COMMIT_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    // Committed balances in whole dollars, so the double arithmetic of the services stays exact
+    private final Map<Long, Double> balances = new ConcurrentHashMap<>();
+    private final Map<Long, String> accountNumbers = new ConcurrentHashMap<>();
+
+    private AccountService accountService;
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= ACCOUNTS; id++) {
+            balances.put(id, (double) INITIAL_BALANCE);
+            accountNumbers.put(id, String.format("10000000%02d", id));
+        }
+
+        AccountRepository accountRepository = mock(AccountRepository.class, withSettings().stubOnly());
+        when(accountRepository.findById(anyLong())).thenAnswer(inv -> {
+            Long id = inv.getArgument(0);
+            Account copy = read(id);
+            LockSupport.parkNanos(READ_NANOS);
+            return Optional.ofNullable(copy);
+        });
+        when(accountRepository.save(any(Account.class))).thenAnswer(inv -> {
+            Account account = inv.getArgument(0);
+            balances.put(account.getId(), account.getBalance());
+            return account;
+        });
+
+        TransactionRepository transactionRepository = mock(TransactionRepository.class, withSettings().stubOnly());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        AccountLockManager lockManager = new AccountLockManager(1024);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new SlowCommitTransactionManager());
+        TransferMetrics transferMetrics = new TransferMetrics(new SimpleMeterRegistry());
+        NotificationService notificationService = mock(NotificationService.class, withSettings().stubOnly());
+
+        accountService = new AccountService(accountRepository, mock(PasswordHasher.class));
+        ReflectionTestUtils.setField(accountService, "notificationService", notificationService);
+        ReflectionTestUtils.setField(accountService, "accountLockManager", lockManager);
+        ReflectionTestUtils.setField(accountService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(accountService, "transferMetrics", transferMetrics);
+
+        transactionService = new TransactionService();
+        ReflectionTestUtils.setField(transactionService, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(transactionService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(transactionService, "accountEntryRepository",
+                mock(AccountEntryRepository.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(transactionService, "fraudDetectionService",
+                mock(FraudDetectionService.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(transactionService, "notificationService", notificationService);
+        ReflectionTestUtils.setField(transactionService, "accountLockManager", lockManager);
+        ReflectionTestUtils.setField(transactionService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(transactionService, "partitionedTransferExecutor",
+                mock(PartitionedTransferExecutor.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(transactionService, "velocityTracker",
+                mock(VelocityTracker.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(transactionService, "accountAmountStatsService",
+                mock(AccountAmountStatsService.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(transactionService, "accountRollupService",
+                mock(AccountRollupService.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(transactionService, "merchantCategorizer",
+                mock(MerchantCategorizer.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(transactionService, "recurringPaymentIndex",
+                mock(RecurringPaymentIndex.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(transactionService, "transferMetrics", transferMetrics);
+    }
+
+    @Test
+    void concurrentTransfersThroughBothServicesConserveBalances() throws Exception {
+        // What each balance must be once every transfer reported as done has been applied exactly once
+        AtomicLongArray expected = new AtomicLongArray(ACCOUNTS + 1);
+        for (int id = 1; id <= ACCOUNTS; id++) {
+            expected.set(id, INITIAL_BALANCE);
+        }
+        AtomicInteger viaAccountService = new AtomicInteger();
+        AtomicInteger viaTransactionService = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    long from = random.nextLong(1, ACCOUNTS + 1);
+                    long to = 1 + (from + random.nextLong(0, ACCOUNTS - 1)) % ACCOUNTS;
+                    long amount = random.nextLong(1, 500_000);
+
+                    boolean applied;
+                    if (random.nextBoolean()) {
+                        applied = transferMoney(from, to, amount);
+                        (applied ? viaAccountService : refused).incrementAndGet();
+                    } else {
+                        Transaction transaction = transactionService.createTransaction(
+                                read(from), read(to), (double) amount, "TRANSFER", "Transfer");
+                        applied = "COMPLETED".equals(transaction.getStatus());
+                        (applied ? viaTransactionService : refused).incrementAndGet();
+                    }
+                    if (applied) {
+                        expected.addAndGet((int) from, -amount);
+                        expected.addAndGet((int) to, amount);
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS), "Transfers did not finish (deadlock?)");
+
+        double total = 0;
+        for (long id = 1; id <= ACCOUNTS; id++) {
+            double balance = balances.get(id);
+            assertTrue(balance >= 0, "Account " + id + " went negative");
+            assertEquals(expected.get((int) id), balance, 0.0001, "Lost or repeated update on account " + id);
+            total += balance;
+        }
+        assertEquals(INITIAL_BALANCE * ACCOUNTS, total, 0.0001);
+        assertEquals(THREADS * TRANSFERS_PER_THREAD,
+                viaAccountService.get() + viaTransactionService.get() + refused.get());
+        assertTrue(viaAccountService.get() > 0);
+        assertTrue(viaTransactionService.get() > 0);
+    }
+
+    private boolean transferMoney(long from, long to, long amount) {
+        try {
+            accountService.transferMoney(from, to, amount);
+            return true;
+        } catch (RuntimeException e) {
+            assertEquals("Insufficient funds in sender's account", e.getMessage());
+            return false;
+        }
+    }
+
+    private Account read(Long id) {
+        Double balance = balances.get(id);
+        if (balance == null) {
+            return null;
+        }
+        Account account = new Account("Holder " + id, balance);
+        account.setId(id);
+        account.setAccountNumber(accountNumbers.get(id));
+        return account;
+    }
+
+    private static final class SlowCommitTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            LockSupport.parkNanos(COMMIT_NANOS);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.bankapp.onlinebanking.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TransferMetrics metrics = new TransferMetrics(registry);
+
+    @Test
+    void timesEachStageSeparately() {
+        assertEquals("ok", metrics.time(TransferMetrics.CREATE_TRANSACTION, "fraud_check", () -> "ok"));
+        assertThrows(IllegalStateException.class, () -> metrics.time(TransferMetrics.CREATE_TRANSACTION,
+                "fraud_check", () -> {
+                    throw new IllegalStateException();
+                }));
+        metrics.record(TransferMetrics.CREATE_TRANSACTION, "prepare", System.nanoTime());
+
+        Timer fraudCheck = registry.get("transfer.stage")
+                .tag("pipeline", TransferMetrics.CREATE_TRANSACTION)
+                .tag("stage", "fraud_check")
+                .timer();
+        assertEquals(2, fraudCheck.count());
+        assertEquals(1, registry.get("transfer.stage").tag("stage", "prepare").timer().count());
+    }
+
+    @Test
+    void countsOutcomesPerPipeline() {
+        metrics.outcome(TransferMetrics.CREATE_TRANSACTION, "COMPLETED");
+        metrics.outcome(TransferMetrics.CREATE_TRANSACTION, "COMPLETED");
+        metrics.outcome(TransferMetrics.CREATE_TRANSACTION, "FLAGGED");
+        metrics.outcome(TransferMetrics.TRANSFER_MONEY, "COMPLETED");
+
+        assertEquals(2.0, registry.get("transfer.outcome")
+                .tag("pipeline", TransferMetrics.CREATE_TRANSACTION)
+                .tag("outcome", "COMPLETED")
+                .counter().count());
+        assertEquals(1.0, registry.get("transfer.outcome")
+                .tag("pipeline", TransferMetrics.TRANSFER_MONEY)
+                .tag("outcome", "COMPLETED")
+                .counter().count());
+    }
+}
@@ -0,0 +1,126 @@
+package com.bankapp.onlinebanking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoFactorCodeStoreTest {
+
+    private static final byte[] KEY = "two-factor-test-key".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final TwoFactorCodeStore store = new TwoFactorCodeStore(Duration.ofMinutes(5), 3, 1000, KEY, null, now::get);
+
+    @Test
+    void acceptsACodeOnlyOnce() {
+        String code = store.issue(1L);
+
+        assertTrue(code.matches("\\d{6}"));
+        assertTrue(store.verify(1L, code));
+        assertFalse(store.verify(1L, code));
+        assertEquals(0, store.getPendingCount());
+    }
+
+    @Test
+    void dropsTheCodeAfterTooManyWrongAttempts() {
+        String code = store.issue(1L);
+        String wrong = code.equals("000000") ? "111111" : "000000";
+
+        assertFalse(store.verify(1L, wrong));
+        assertFalse(store.verify(1L, wrong));
+        assertFalse(store.verify(1L, wrong));
+        assertFalse(store.verify(1L, code));
+    }
+
+    @Test
+    void reissuingReplacesThePendingCode() {
+        String first = store.issue(1L);
+        String second = store.issue(1L);
+
+        assertEquals(1, store.getPendingCount());
+        assertTrue(first.equals(second) || !store.verify(1L, first));
+        assertTrue(store.verify(1L, second));
+    }
+
+    @Test
+    void expiresCodesOnTheWheelAndRejectsThemBeforeTheTick() {
+        String code = store.issue(1L);
+        store.issue(2L);
+
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertFalse(store.verify(1L, code));
+
+        store.advance();
+        assertEquals(0, store.getPendingCount());
+    }
+
+    @Test
+    void restoresPendingCodesThroughThePersistenceHook() {
+        Map<Long, TwoFactorCodeStore.StoredCode> saved = new ConcurrentHashMap<>();
+        String code = newStore(saved).issue(7L);
+
+        TwoFactorCodeStore restarted = newStore(saved);
+        restarted.restore();
+        assertTrue(restarted.verify(7L, code));
+        assertTrue(saved.isEmpty());
+    }
+
+    @Test
+    void persistsTheRemainingAttemptsAcrossARestart() {
+        Map<Long, TwoFactorCodeStore.StoredCode> saved = new ConcurrentHashMap<>();
+        String code = newStore(saved).issue(7L);
+        String wrong = code.equals("000000") ? "111111" : "000000";
+
+        TwoFactorCodeStore restarted = newStore(saved);
+        restarted.restore();
+        assertFalse(restarted.verify(7L, wrong));
+        assertFalse(restarted.verify(7L, wrong));
+        assertEquals(1, saved.get(7L).attemptsLeft());
+
+        TwoFactorCodeStore again = newStore(saved);
+        again.restore();
+        assertFalse(again.verify(7L, wrong));
+        assertFalse(again.verify(7L, code));
+        assertTrue(saved.isEmpty());
+    }
+
+    @Test
+    void storedDigestsOnlyVerifyUnderTheSameKey() {
+        Map<Long, TwoFactorCodeStore.StoredCode> saved = new ConcurrentHashMap<>();
+        String code = newStore(saved).issue(7L);
+
+        TwoFactorCodeStore otherKey = new TwoFactorCodeStore(Duration.ofMinutes(5), 3, 1000,
+                "another-key".getBytes(StandardCharsets.UTF_8), persistence(saved), now::get);
+        otherKey.restore();
+        assertFalse(otherKey.verify(7L, code));
+    }
+
+    private TwoFactorCodeStore newStore(Map<Long, TwoFactorCodeStore.StoredCode> saved) {
+        return new TwoFactorCodeStore(Duration.ofMinutes(5), 3, 1000, KEY, persistence(saved), now::get);
+    }
+
+    private static TwoFactorCodeStore.Persistence persistence(Map<Long, TwoFactorCodeStore.StoredCode> saved) {
+        return new TwoFactorCodeStore.Persistence() {
+            @Override
+            public void save(Long accountId, TwoFactorCodeStore.StoredCode code) {
+                saved.put(accountId, code);
+            }
+
+            @Override
+            public void delete(Long accountId) {
+                saved.remove(accountId);
+            }
+
+            @Override
+            public Map<Long, TwoFactorCodeStore.StoredCode> loadAll() {
+                return Map.copyOf(saved);
+            }
+        };
+    }
+}
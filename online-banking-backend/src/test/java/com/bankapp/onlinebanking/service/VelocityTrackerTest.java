@@ -0,0 +1,64 @@
+package com.bankapp.onlinebanking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final VelocityTracker tracker = new VelocityTracker(Duration.ofSeconds(5), Duration.ofHours(1), now::get);
+
+    @Test
+    void countsAndSumsOnlyInsideTheWindow() {
+        tracker.record(1L, 10.0);
+        now.addAndGet(Duration.ofMinutes(2).toMillis());
+        tracker.record(1L, 20.0);
+        tracker.record(2L, 99.0);
+        now.addAndGet(Duration.ofMinutes(4).toMillis());
+        tracker.record(1L, 30.0);
+
+        assertEquals(1, tracker.getCount(1L, Duration.ofMinutes(1)));
+        assertEquals(2, tracker.getCount(1L, Duration.ofMinutes(5)));
+        assertEquals(50.0, tracker.getAmount(1L, Duration.ofMinutes(5)), 0.0001);
+        assertEquals(3, tracker.getCount(1L, Duration.ofHours(1)));
+        assertEquals(60.0, tracker.getAmount(1L, Duration.ofHours(1)), 0.0001);
+        assertEquals(0, tracker.getCount(3L, Duration.ofHours(1)));
+    }
+
+    @Test
+    void ignoresEventsOlderThanTheHorizonAndEvictsIdleAccounts() {
+        tracker.record(1L, 10.0, now.get() - Duration.ofHours(2).toMillis());
+        assertEquals(0, tracker.getTrackedAccounts());
+
+        tracker.record(1L, 10.0);
+        now.addAndGet(Duration.ofMinutes(61).toMillis());
+        assertEquals(0, tracker.getCount(1L, Duration.ofHours(1)));
+
+        tracker.evictIdleAccounts();
+        assertEquals(0, tracker.getTrackedAccounts());
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    tracker.record(1L, 1.0);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(80_000, tracker.getCount(1L, Duration.ofMinutes(1)));
+        assertEquals(80_000.0, tracker.getAmount(1L, Duration.ofMinutes(1)), 0.0001);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bankapp.onlinebanking.service.categorization;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerchantAutomatonTest {
+
+    private final MerchantAutomaton automaton = MerchantAutomaton.build(List.of(
+            new CategoryRule("shell", "GAS", 100),
+            new CategoryRule("gas", "GAS", 40),
+            new CategoryRule("cafe", "DINING", 30),
+            new CategoryRule("he", "PRONOUN", 0),
+            new CategoryRule("she", "PRONOUN", 0),
+            new CategoryRule("hers", "POSSESSIVE", 0),
+            new CategoryRule("transfer", "TRANSFER", 20)));
+
+    @Test
+    void highestPriorityMatchWinsRegardlessOfPosition() {
+        assertEquals("GAS", automaton.match("Cafe at the SHELL station").category());
+        assertEquals("DINING", automaton.match("Corner CAFE").category());
+        assertNull(automaton.match("Groceries"));
+        assertNull(automaton.match(""));
+    }
+
+    @Test
+    void findsOverlappingKeywordsThroughFailureLinks() {
+        // "ushers" contains she, he and hers; equal priority goes to the longest
+        assertEquals("hers", automaton.match("ushers").keyword());
+        assertEquals("she", automaton.match("xshex").keyword());
+        assertEquals("he", automaton.match("ahe").keyword());
+    }
+
+    @Test
+    void parsesDictionaryFiles() throws Exception {
+        List<CategoryRule> rules = MerchantCategorizer.parse(new StringReader(
+                "# comment\n\nwalmart,GROCERIES,100\n uber , TRANSPORTATION \n"));
+
+        assertEquals(List.of(new CategoryRule("walmart", "GROCERIES", 100),
+                new CategoryRule("uber", "TRANSPORTATION", 0)), rules);
+        assertThrows(IllegalArgumentException.class,
+                () -> MerchantCategorizer.parse(new StringReader("walmart\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> MerchantCategorizer.parse(new StringReader("walmart,GROCERIES,high\n")));
+    }
+}
@@ -0,0 +1,131 @@
+package com.bankapp.onlinebanking.service.dispatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageDispatcherTest {
+
+    private MessageDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void batchesMessagesThroughASlowProvider() throws Exception {
+        FakeMessageProvider provider = new FakeMessageProvider("email", Duration.ofMillis(20), 0.0);
+        dispatcher = start(provider, settings(20_000, 4, 50, 0, 5));
+
+        int messages = 5_000;
+        for (int i = 0; i < messages; i++) {
+            dispatcher.submit(new OutboundMessage("user" + i + "@example.com", "Subject", "Body"));
+        }
+        awaitSent(messages);
+
+        assertEquals(messages, provider.getDelivered());
+        assertTrue(provider.getCalls() < messages / 10, "Expected batched provider calls");
+        assertEquals(0, dispatcher.getDroppedCount());
+        assertEquals(0, dispatcher.getRejectedCount());
+    }
+
+    @Test
+    void rateLimitSpreadsSendsOverTime() throws Exception {
+        FakeMessageProvider provider = new FakeMessageProvider("sms", Duration.ZERO, 0.0);
+        dispatcher = start(provider, settings(1_000, 2, 1, 100, 5));
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 60; i++) {
+            dispatcher.submit(new OutboundMessage("+1555000" + i, null, "Code"));
+        }
+        awaitSent(60);
+
+        // 10 burst tokens, then 50 more at 100 per second
+        assertTrue(System.nanoTime() - startedAt >= TimeUnit.MILLISECONDS.toNanos(450));
+    }
+
+    @Test
+    void retriesFailuresAndOpensTheBreaker() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        MessageProvider flaky = new MessageProvider() {
+            @Override
+            public String getName() {
+                return "flaky";
+            }
+
+            @Override
+            public void send(List<OutboundMessage> batch) {
+                // Fails the first three calls, then recovers
+                if (calls.incrementAndGet() <= 3) {
+                    throw new RuntimeException("Provider unavailable");
+                }
+            }
+        };
+        dispatcher = start(flaky, new MessageDispatcher.Settings(10, 1, 1, 0, 1, 5, Duration.ofMillis(1),
+                3, Duration.ofMillis(200)));
+
+        long startedAt = System.nanoTime();
+        dispatcher.submit(new OutboundMessage("user@example.com", "Subject", "Body")).get(30, TimeUnit.SECONDS);
+
+        assertEquals(4, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, dispatcher.getCircuitState());
+        // The fourth attempt had to wait for the breaker opened by the third failure
+        assertTrue(System.nanoTime() - startedAt >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void failsTheMessageFuturesOfADroppedBatch() {
+        FakeMessageProvider provider = new FakeMessageProvider("email", Duration.ZERO, 1.0);
+        dispatcher = start(provider, settings(10, 1, 1, 0, 2));
+
+        CompletableFuture<Void> sent = dispatcher.submit(new OutboundMessage("user@example.com", "Subject", "Body"));
+
+        assertThrows(ExecutionException.class, () -> sent.get(30, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    void rejectsWhenTheQueueIsFull() {
+        FakeMessageProvider provider = new FakeMessageProvider("email", Duration.ofSeconds(1), 0.0);
+        dispatcher = start(provider, settings(2, 1, 1, 0, 5));
+
+        assertThrows(RejectedExecutionException.class, () -> {
+            for (int i = 0; i < 10; i++) {
+                dispatcher.submit(new OutboundMessage("user@example.com", "Subject", "Body"));
+            }
+        });
+        assertEquals(1, dispatcher.getRejectedCount());
+    }
+
+    private static MessageDispatcher.Settings settings(int capacity, int workers, int batchSize, double rate,
+            int attempts) {
+        return new MessageDispatcher.Settings(capacity, workers, batchSize, rate, 10, attempts,
+                Duration.ofMillis(10), 5, Duration.ofMillis(100));
+    }
+
+    private static MessageDispatcher start(MessageProvider provider, MessageDispatcher.Settings settings) {
+        MessageDispatcher started = new MessageDispatcher("test", provider, settings);
+        started.start();
+        return started;
+    }
+
+    private void awaitSent(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (dispatcher.getSentCount() < count) {
+            assertTrue(System.nanoTime() < deadline, "Messages were not sent in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.bankapp.onlinebanking.service.export;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportJobServiceTest {
+
+    @TempDir
+    Path spool;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExportJobService service;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void spoolsTheExportAndRemovesItAfterTheTtl() throws Exception {
+        service = newService(2);
+        release.countDown();
+        ExportJob job = service.submit(1L, null, null, ExportFormat.CSV);
+
+        awaitFinished(job);
+        assertEquals(ExportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getRows());
+        assertEquals("a\nb\nc\n", Files.readString(job.getFile()));
+        assertEquals(spool.resolve(job.getId() + ".csv"), job.getFile());
+        assertTrue(service.getJob(1L, job.getId()).isPresent());
+        assertTrue(service.getJob(2L, job.getId()).isEmpty());
+
+        now.addAndGet(Duration.ofMinutes(61).toMillis());
+        service.removeExpiredJobs();
+        assertTrue(service.getJob(1L, job.getId()).isEmpty());
+        assertFalse(Files.exists(job.getFile()));
+    }
+
+    @Test
+    void limitsActiveJobsPerAccount() throws Exception {
+        service = newService(1);
+        ExportJob first = service.submit(1L, null, null, ExportFormat.JSON);
+        assertThrows(IllegalStateException.class, () -> service.submit(1L, null, null, ExportFormat.JSON));
+        ExportJob other = service.submit(2L, null, null, ExportFormat.JSON);
+
+        release.countDown();
+        awaitFinished(first);
+        awaitFinished(other);
+        awaitFinished(service.submit(1L, null, null, ExportFormat.JSON));
+        // Accounts drop out of the bookkeeping once their jobs are done
+        assertEquals(0, service.getTrackedAccounts());
+    }
+
+    @Test
+    void keepsTheFileWhileADownloadHoldsALease() throws Exception {
+        service = newService(2);
+        release.countDown();
+        ExportJob job = service.submit(1L, null, null, ExportFormat.CSV);
+        awaitFinished(job);
+
+        ExportJob leased = service.startDownload(1L, job.getId()).orElseThrow();
+        now.addAndGet(Duration.ofMinutes(61).toMillis());
+        service.removeExpiredJobs();
+        assertTrue(Files.exists(job.getFile()));
+
+        // Sendfile may still be opening the file just after the handler returns
+        service.endDownload(leased);
+        service.removeExpiredJobs();
+        assertTrue(Files.exists(job.getFile()));
+
+        now.addAndGet(Duration.ofMinutes(2).toMillis());
+        service.removeExpiredJobs();
+        assertFalse(Files.exists(job.getFile()));
+        assertTrue(service.startDownload(1L, job.getId()).isEmpty());
+    }
+
+    private ExportJobService newService(int maxPerAccount) throws IOException {
+        TransactionExportService exports = new TransactionExportService() {
+            @Override
+            public TransactionExport prepareExport(Long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                    ExportFormat format) {
+                return out -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    out.write("a\nb\nc\n".getBytes(StandardCharsets.UTF_8));
+                    return 3;
+                };
+            }
+        };
+        return new ExportJobService(exports, spool, 2, 10, maxPerAccount, Duration.ofHours(1), Duration.ofMinutes(1),
+                now::get);
+    }
+
+    private static void awaitFinished(ExportJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished());
+    }
+}
@@ -0,0 +1,42 @@
+package com.bankapp.onlinebanking.service.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportRowWriterTest {
+
+    private static final ExportRow ROW = new ExportRow(LocalDateTime.of(2024, 3, 5, 14, 7, 9),
+            "Dinner, \"Luigi's\"", new BigDecimal("12.5"), "PAYMENT", null, "COMPLETED", "TXN1");
+
+    @Test
+    void csvQuotesFieldsThatNeedIt() throws Exception {
+        assertEquals("Date,Description,Amount,Type,Category,Status,Reference\n"
+                + "2024-03-05 14:07:09,\"Dinner, \"\"Luigi's\"\"\",12.50,PAYMENT,OTHER,COMPLETED,TXN1\n",
+                write(ExportFormat.CSV, ROW));
+    }
+
+    @Test
+    void jsonWritesOneObjectPerRow() throws Exception {
+        String object = "{\"date\":\"2024-03-05T14:07:09\",\"description\":\"Dinner, \\\"Luigi's\\\"\","
+                + "\"amount\":12.5,\"type\":\"PAYMENT\",\"category\":\"OTHER\",\"status\":\"COMPLETED\","
+                + "\"reference\":\"TXN1\"}";
+        assertEquals("[" + object + "," + object + "]", write(ExportFormat.JSON, ROW, ROW));
+        assertEquals("[]", write(ExportFormat.JSON));
+    }
+
+    private static String write(ExportFormat format, ExportRow... rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportRowWriter writer = format.open(out);
+        for (ExportRow row : rows) {
+            writer.write(row);
+        }
+        writer.finish();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,68 @@
+package com.bankapp.onlinebanking.service.export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TransactionExportServiceTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+    private final TransactionExportService service = new TransactionExportService();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getTimestamp(1)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2024, 3, 5, 14, 7, 9)));
+        when(resultSet.getString(anyInt())).thenReturn("X");
+        when(resultSet.getBigDecimal(3)).thenReturn(new BigDecimal("12.50"));
+
+        ReflectionTestUtils.setField(service, "dataSource", dataSource);
+        ReflectionTestUtils.setField(service, "fetchSize", 500);
+    }
+
+    @Test
+    void streamsRowByRowOnMySql() throws Exception {
+        when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+
+        assertEquals(1, service.export(1L, null, null, ExportFormat.CSV, new ByteArrayOutputStream()));
+        assertEquals(1, service.export(1L, null, null, ExportFormat.CSV, new ByteArrayOutputStream()));
+
+        verify(statement, times(2)).setFetchSize(Integer.MIN_VALUE);
+        // The database is only asked once
+        verify(metaData, times(1)).getDatabaseProductName();
+    }
+
+    @Test
+    void usesTheConfiguredFetchSizeElsewhere() throws Exception {
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, service.export(1L, null, null, ExportFormat.CSV, out));
+
+        verify(statement).setFetchSize(500);
+        assertTrue(out.toString().contains("2024-03-05 14:07:09,X,12.50,X,X,X,X"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.entity.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class FraudBacktestServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 5, 9, 0);
+
+    @Test
+    void chunkedReplayMatchesReplayingWholeRuns() throws Exception {
+        // Sender 1 sends five payments a minute apart, sender 2 three
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(new Object[] {1L, START.plusMinutes(i)});
+        }
+        for (int i = 0; i < 3; i++) {
+            rows.add(new Object[] {2L, START.plusMinutes(i)});
+        }
+
+        Map<String, Object> wholeRuns = newService(rows, 100).run();
+        Map<String, Object> chunked = newService(rows, 2).run();
+
+        // The rule fires from each sender's third payment on
+        assertEquals(4L, wholeRuns.get("flagged"));
+        assertEquals(4L, chunked.get("flagged"));
+        assertEquals(8L, chunked.get("transactions"));
+        assertEquals(2L, chunked.get("senders"));
+    }
+
+    private static FraudBacktestService newService(List<Object[]> rows, int chunkSize) throws Exception {
+        FraudBacktestService service = new FraudBacktestService();
+        ReflectionTestUtils.setField(service, "dataSource", dataSource(rows));
+        ReflectionTestUtils.setField(service, "fraudRuleRegistry", new FraudRuleRegistry(List.of(new BurstRule()),
+                new SimpleMeterRegistry(), FraudRuleRegistry.Mode.SHORT_CIRCUIT, 1.0, List.of()));
+        ReflectionTestUtils.setField(service, "fetchSize", 100);
+        ReflectionTestUtils.setField(service, "chunkSize", chunkSize);
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+        ReflectionTestUtils.setField(service, "decay", 0.1);
+        ReflectionTestUtils.setField(service, "velocityHorizon", Duration.ofHours(1));
+        return service;
+    }
+
+    private static DataSource dataSource(List<Object[]> rows) throws Exception {
+        int[] cursor = {-1};
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenAnswer(inv -> ++cursor[0] < rows.size());
+        when(resultSet.getLong("sender_id")).thenAnswer(inv -> rows.get(cursor[0])[0]);
+        when(resultSet.getTimestamp("timestamp"))
+                .thenAnswer(inv -> Timestamp.valueOf((LocalDateTime) rows.get(cursor[0])[1]));
+        when(resultSet.getDouble("amount")).thenReturn(50.0);
+        when(resultSet.getString("status")).thenReturn("COMPLETED");
+
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    // Matches once two earlier payments fall within the last ten minutes
+    private static final class BurstRule implements ReplayableFraudRule {
+
+        @Override
+        public String getName() {
+            return "burst";
+        }
+
+        @Override
+        public int getCost() {
+            return 0;
+        }
+
+        @Override
+        public boolean matches(Transaction transaction) {
+            return false;
+        }
+
+        @Override
+        public boolean matches(Transaction transaction, SenderHistory history) {
+            return history.countSince(transaction.getTimestamp().minusMinutes(10)) >= 2;
+        }
+
+        @Override
+        public String getReason() {
+            return "burst";
+        }
+
+        @Override
+        public String getAlertMessage(Transaction transaction) {
+            return "burst";
+        }
+    }
+}
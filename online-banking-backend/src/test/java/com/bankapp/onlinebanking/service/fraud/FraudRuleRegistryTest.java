@@ -0,0 +1,94 @@
+package com.bankapp.onlinebanking.service.fraud;
+
+import com.bankapp.onlinebanking.entity.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FraudRuleRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> evaluated = new ArrayList<>();
+
+    private final StubRule database = new StubRule("database", 100, true, 0.6);
+    private final StubRule memory = new StubRule("memory", 10, true, 0.6);
+    private final StubRule field = new StubRule("field", 0, false, 0.6);
+
+    @Test
+    void shortCircuitRunsRulesByCostAndStopsAtFirstMatch() {
+        FraudRuleRegistry registry = new FraudRuleRegistry(List.of(database, memory, field), meterRegistry,
+                FraudRuleRegistry.Mode.SHORT_CIRCUIT, 1.0, List.of());
+
+        FraudAssessment assessment = registry.evaluate(new Transaction());
+
+        assertTrue(assessment.fraudulent());
+        assertEquals(List.of(memory), assessment.matchedRules());
+        assertEquals(List.of("field", "memory"), evaluated);
+        assertEquals(1, meterRegistry.get("fraud.rule.evaluation").tag("rule", "memory").timer().count());
+        assertEquals(0, meterRegistry.get("fraud.rule.evaluation").tag("rule", "database").timer().count());
+    }
+
+    @Test
+    void scoredModeFlagsOnceWeightsReachTheThreshold() {
+        FraudRuleRegistry registry = new FraudRuleRegistry(List.of(database, memory, field), meterRegistry,
+                FraudRuleRegistry.Mode.SCORED, 1.0, List.of());
+        FraudAssessment assessment = registry.evaluate(new Transaction());
+        assertTrue(assessment.fraudulent());
+        assertEquals(1.2, assessment.score(), 1e-9);
+        assertEquals(List.of(memory, database), assessment.matchedRules());
+
+        FraudRuleRegistry withoutDatabase = new FraudRuleRegistry(List.of(database, memory, field), meterRegistry,
+                FraudRuleRegistry.Mode.SCORED, 1.0, List.of("database"));
+        assertFalse(withoutDatabase.evaluate(new Transaction()).fraudulent());
+        assertEquals(List.of(field, memory), withoutDatabase.getRules());
+    }
+
+    private final class StubRule implements FraudRule {
+        private final String name;
+        private final int cost;
+        private final boolean matches;
+        private final double weight;
+
+        StubRule(String name, int cost, boolean matches, double weight) {
+            this.name = name;
+            this.cost = cost;
+            this.matches = matches;
+            this.weight = weight;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+
+        @Override
+        public boolean matches(Transaction transaction) {
+            evaluated.add(name);
+            return matches;
+        }
+
+        @Override
+        public String getReason() {
+            return name + " matched";
+        }
+
+        @Override
+        public String getAlertMessage(Transaction transaction) {
+            return name + " alert";
+        }
+
+        @Override
+        public double getWeight() {
+            return weight;
+        }
+    }
+}